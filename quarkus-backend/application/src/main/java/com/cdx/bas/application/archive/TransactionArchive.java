@@ -0,0 +1,410 @@
+package com.cdx.bas.application.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionHistoryFilter;
+import com.cdx.bas.domain.transaction.TransactionStatus;
+import com.cdx.bas.domain.transaction.TransactionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.MappingException;
+
+/***
+ * Compressed files of the transactions of the archived months, one file per month named like its former partition.
+ * The transactions of a file are sorted by account, then from the most recent, and each account is compressed apart,
+ * so that the history of an account is read from the first of its transactions without sorting nor decompressing
+ * the other accounts. The file ends with the index of the accounts it holds, kept in memory while the month is archived.
+ * A file is written under a temporary name and published once its partition has been dropped.
+ * The files are local to the instance which archived them.
+ *
+ * @author Clément Gibert
+ *
+ */
+@ApplicationScoped
+public class TransactionArchive {
+
+    static final String ARCHIVE_SUFFIX = ".gz";
+
+    static final String PENDING_SUFFIX = ".gz.tmp";
+
+    private static final Pattern ARCHIVE_NAME = Pattern.compile("transactions_y(\\d{4})m(\\d{2})" + Pattern.quote(ARCHIVE_SUFFIX));
+
+    private static final Pattern PENDING_NAME = Pattern.compile("transactions_y(\\d{4})m(\\d{2})" + Pattern.quote(PENDING_SUFFIX));
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "transactions.archive.directory", defaultValue = "archive")
+    Path directory;
+
+    private final ConcurrentSkipListSet<YearMonth> months = new ConcurrentSkipListSet<>();
+
+    private final ConcurrentHashMap<YearMonth, AccountIndex> indexes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void open() {
+        try {
+            Files.createDirectories(directory);
+            months.clear();
+            indexes.clear();
+            for (YearMonth month : listMonths(ARCHIVE_NAME)) {
+                indexes.put(month, AccountIndex.read(path(month, ARCHIVE_SUFFIX)));
+                months.add(month);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("archive " + directory + " could not be opened.", exception);
+        }
+    }
+
+    public boolean isEmpty() {
+        return months.isEmpty();
+    }
+
+    /**
+     * @return archived months in chronological order
+     */
+    public NavigableSet<YearMonth> getMonths() {
+        return months;
+    }
+
+    /**
+     * @return first instant after the last archived month, archived transactions are all before it
+     */
+    public Instant getEnd() {
+        return months.isEmpty() ? Instant.MIN : startOf(months.last().plusMonths(1));
+    }
+
+    /**
+     * @return months written but not published yet
+     */
+    public List<YearMonth> findPendingMonths() throws IOException {
+        return listMonths(PENDING_NAME);
+    }
+
+    /**
+     * write the transactions of a month under a temporary name
+     *
+     * @param month of the transactions
+     * @param transactions sorted by account, then from the most recent
+     * @return number of written transactions
+     */
+    public long write(YearMonth month, Stream<Transaction> transactions) {
+        long count = 0;
+        List<Long> accountIds = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        try (CountingOutputStream file = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(path(month, PENDING_SUFFIX))))) {
+            GZIPOutputStream member = null;
+            DataOutputStream output = null;
+            for (Iterator<Transaction> iterator = transactions.iterator(); iterator.hasNext(); count++) {
+                Transaction transaction = iterator.next();
+                if (accountIds.isEmpty() || !accountIds.get(accountIds.size() - 1).equals(transaction.getAccountId())) {
+                    finishMember(member, output);
+                    accountIds.add(transaction.getAccountId());
+                    offsets.add(file.getCount());
+                    member = new GZIPOutputStream(file);
+                    output = new DataOutputStream(new BufferedOutputStream(member));
+                }
+                output.writeBoolean(true);
+                output.writeLong(transaction.getId());
+                output.writeLong(transaction.getAccountId());
+                output.writeLong(transaction.getAmount());
+                output.writeByte(transaction.getType().ordinal());
+                output.writeByte(transaction.getStatus().ordinal());
+                output.writeLong(transaction.getDate().getEpochSecond());
+                output.writeInt(transaction.getDate().getNano());
+                writeString(output, transaction.getLabel());
+                writeString(output, transaction.getMetadatas().isEmpty() ? null : objectMapper.writeValueAsString(transaction.getMetadatas()));
+            }
+            finishMember(member, output);
+            AccountIndex.write(new DataOutputStream(file), accountIds, offsets, file.getCount());
+        } catch (IOException exception) {
+            throw new UncheckedIOException("archive of " + month + " could not be written.", exception);
+        }
+        return count;
+    }
+
+    /**
+     * make the written transactions of a month readable
+     */
+    public void publish(YearMonth month) throws IOException {
+        Files.move(path(month, PENDING_SUFFIX), path(month, ARCHIVE_SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        indexes.put(month, AccountIndex.read(path(month, ARCHIVE_SUFFIX)));
+        months.add(month);
+    }
+
+    /**
+     * delete the written transactions of a month which have not been published
+     */
+    public void discard(YearMonth month) throws IOException {
+        Files.deleteIfExists(path(month, PENDING_SUFFIX));
+    }
+
+    /**
+     * find a page of the archived history of a bank account from the most recent transaction, starting before the given position
+     *
+     * @param accountId id of the BankAccount
+     * @param beforeDate date of the last transaction of the previous page, null for the first page
+     * @param beforeId id of the last transaction of the previous page, null for the first page
+     * @param pageSize maximum number of transactions of the page
+     * @return transactions of the page, most recent first
+     */
+    public List<Transaction> findHistory(long accountId, Instant beforeDate, Long beforeId, int pageSize) {
+        return findHistory(accountId, TransactionHistoryFilter.ALL, beforeDate, beforeId, pageSize);
+    }
+
+    /**
+     * find a page of the archived history of a bank account like findHistory, keeping only the transactions accepted
+     * by the filter, the months out of the date range of the filter are not read
+     */
+    public List<Transaction> findHistory(long accountId, TransactionHistoryFilter filter, Instant beforeDate, Long beforeId, int pageSize) {
+        List<Transaction> history = new ArrayList<>();
+        NavigableSet<YearMonth> readMonths = months.descendingSet();
+        if (beforeDate != null && beforeId != null) {
+            readMonths = readMonths.tailSet(YearMonth.from(beforeDate.atZone(ZoneId.systemDefault())), true);
+        }
+        for (YearMonth month : readMonths) {
+            if (history.size() >= pageSize || (filter.getFrom() != null && !startOf(month.plusMonths(1)).isAfter(filter.getFrom()))) {
+                break;
+            }
+            if (filter.overlaps(startOf(month), startOf(month.plusMonths(1)))) {
+                readHistory(month, accountId, filter, beforeDate, beforeId, pageSize, history);
+            }
+        }
+        return history;
+    }
+
+    static Instant startOf(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant();
+    }
+
+    /**
+     * only the transactions of the account are decompressed, a month without them is not read at all
+     */
+    private void readHistory(YearMonth month, long accountId, TransactionHistoryFilter filter, Instant beforeDate, Long beforeId, 
+            int pageSize, List<Transaction> history) {
+        AccountIndex index = indexes.get(month);
+        int position = index == null ? -1 : index.find(accountId);
+        if (position < 0) {
+            return;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(
+                new ByteArrayInputStream(index.readMember(path(month, ARCHIVE_SUFFIX), position)))))) {
+            while (history.size() < pageSize && input.readBoolean()) {
+                long id = input.readLong();
+                long transactionAccountId = input.readLong();
+                long amount = input.readLong();
+                TransactionType type = TYPES[input.readByte()];
+                TransactionStatus status = STATUSES[input.readByte()];
+                Instant date = Instant.ofEpochSecond(input.readLong(), input.readInt());
+                String label = readString(input);
+                String metadatas = readString(input);
+                if (transactionAccountId == accountId && isBefore(date, id, beforeDate, beforeId)) {
+                    Transaction transaction = new Transaction();
+                    transaction.setId(id);
+                    transaction.setAccountId(transactionAccountId);
+                    transaction.setAmount(amount);
+                    transaction.setType(type);
+                    transaction.setStatus(status);
+                    transaction.setDate(date);
+                    transaction.setLabel(label);
+                    if (metadatas != null) {
+                        transaction.setMetadatas(objectMapper.readValue(metadatas, new TypeReference<Map<String, String>>() {}));
+                    }
+                    if (filter.accepts(transaction)) {
+                        history.add(transaction);
+                    }
+                }
+            }
+        } catch (JsonProcessingException exception) {
+            throw new MappingException("An error occured while parsing JSON String to Map<String, String>", exception);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("archive of " + month + " could not be read.", exception);
+        }
+    }
+
+    private static void finishMember(GZIPOutputStream member, DataOutputStream output) throws IOException {
+        if (member != null) {
+            output.writeBoolean(false);
+            output.flush();
+            member.finish();
+        }
+    }
+
+    private static boolean isBefore(Instant date, long id, Instant beforeDate, Long beforeId) {
+        if (beforeDate == null || beforeId == null) {
+            return true;
+        }
+        int comparison = date.compareTo(beforeDate);
+        return comparison < 0 || (comparison == 0 && id < beforeId);
+    }
+
+    private List<YearMonth> listMonths(Pattern namePattern) throws IOException {
+        List<YearMonth> listedMonths = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = namePattern.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    listedMonths.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+                }
+            });
+        }
+        return listedMonths;
+    }
+
+    private Path path(YearMonth month, String suffix) {
+        return directory.resolve(TransactionPartitionRepository.partitionName(month) + suffix);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * offsets of the compressed transactions of each account of a month, written at the end of its file
+     * followed by the offset of the index itself
+     */
+    private static final class AccountIndex {
+        private final long[] accountIds;
+        private final long[] offsets;
+        private final long end;
+
+        private AccountIndex(long[] accountIds, long[] offsets, long end) {
+            this.accountIds = accountIds;
+            this.offsets = offsets;
+            this.end = end;
+        }
+
+        private static void write(DataOutputStream output, List<Long> accountIds, List<Long> offsets, long end) throws IOException {
+            output.writeInt(accountIds.size());
+            for (int i = 0; i < accountIds.size(); i++) {
+                output.writeLong(accountIds.get(i));
+                output.writeLong(offsets.get(i));
+            }
+            output.writeLong(end);
+            output.flush();
+        }
+
+        private static AccountIndex read(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long end = ByteBuffer.wrap(readFully(channel, channel.size() - Long.BYTES, Long.BYTES)).getLong();
+                ByteBuffer buffer = ByteBuffer.wrap(readFully(channel, end, (int) (channel.size() - Long.BYTES - end)));
+                int count = buffer.getInt();
+                long[] accountIds = new long[count];
+                long[] offsets = new long[count];
+                for (int i = 0; i < count; i++) {
+                    accountIds[i] = buffer.getLong();
+                    offsets[i] = buffer.getLong();
+                }
+                return new AccountIndex(accountIds, offsets, end);
+            }
+        }
+
+        /**
+         * @return position of the account in the index, negative if the month holds none of its transactions
+         */
+        private int find(long accountId) {
+            return Arrays.binarySearch(accountIds, accountId);
+        }
+
+        private byte[] readMember(Path file, int position) throws IOException {
+            long memberEnd = position + 1 < offsets.length ? offsets[position + 1] : end;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return readFully(channel, offsets[position], (int) (memberEnd - offsets[position]));
+            }
+        }
+
+        private static byte[] readFully(FileChannel channel, long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException("archive ends before its index.");
+                }
+            }
+            return buffer.array();
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream output) {
+            super(output);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        private long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.cdx.bas.application.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.YearMonth;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.runtime.Startup;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+
+/***
+ * Maintenance of the monthly partitions of the transactions.
+ * The partitions of the next transactions.partition.months-ahead months are created in advance, and when
+ * transactions.archive.enabled is set the partitions older than transactions.archive.retention-months months
+ * are exported to the archive then dropped. A partition still holding WAITING transactions is kept until they are processed.
+ * Several instances can create the partitions, but the archive files are local to the instance which writes them,
+ * so transactions.archive.enabled must be set on a single instance which keeps its archive directory.
+ *
+ * @author Clément Gibert
+ *
+ */
+@Startup
+@ApplicationScoped
+public class TransactionArchiver {
+
+    private static final Logger logger = Logger.getLogger(TransactionArchiver.class);
+
+    @Inject
+    TransactionPartitionRepository partitionRepository;
+
+    @Inject
+    TransactionArchive transactionArchive;
+
+    @ConfigProperty(name = "transactions.partition.months-ahead", defaultValue = "2")
+    int monthsAhead;
+
+    @ConfigProperty(name = "transactions.archive.enabled", defaultValue = "false")
+    boolean archiveEnabled;
+
+    @ConfigProperty(name = "transactions.archive.retention-months", defaultValue = "12")
+    int retentionMonths;
+
+    @PostConstruct
+    void start() {
+        createPartitions(YearMonth.now());
+    }
+
+    @Scheduled(cron = "{transactions.partition.maintenance-cron}", concurrentExecution = ConcurrentExecution.SKIP)
+    public void maintain() {
+        YearMonth currentMonth = YearMonth.now();
+        createPartitions(currentMonth);
+        if (archiveEnabled) {
+            archiveBefore(currentMonth.minusMonths(retentionMonths));
+        }
+    }
+
+    /**
+     * create the missing partitions from a month to the months ahead
+     */
+    public void createPartitions(YearMonth fromMonth) {
+        List<YearMonth> partitions = partitionRepository.findPartitions();
+        for (YearMonth month = fromMonth; !month.isAfter(fromMonth.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            if (!partitions.contains(month) && partitionRepository.createPartition(month)) {
+                logger.info("Transactions partition of " + month + " created");
+            }
+        }
+    }
+
+    /**
+     * archive the partitions of the months before a month
+     */
+    public void archiveBefore(YearMonth endMonth) {
+        List<YearMonth> partitions = partitionRepository.findPartitions();
+        recoverPendingArchives(partitions);
+        partitions.stream()
+                .filter(month -> month.isBefore(endMonth))
+                .forEach(this::archive);
+    }
+
+    /**
+     * export the partition of a month to the archive then drop it, the archive is published once the partition
+     * has been dropped so that its transactions are never read twice
+     *
+     * @return true if the partition has been archived
+     */
+    public boolean archive(YearMonth month) {
+        if (partitionRepository.hasUnsettledTransactions(month)) {
+            logger.info("Transactions partition of " + month + " not archived, it still holds WAITING transactions");
+            return false;
+        }
+        try {
+            long count;
+            try {
+                count = partitionRepository.exportPartition(month, transactions -> transactionArchive.write(month, transactions));
+                partitionRepository.dropPartition(month);
+            } catch (RuntimeException exception) {
+                transactionArchive.discard(month);
+                throw exception;
+            }
+            transactionArchive.publish(month);
+            logger.info("Transactions partition of " + month + " archived with " + count + " transactions");
+            return true;
+        } catch (IOException exception) {
+            throw new UncheckedIOException("archive of " + month + " could not be published.", exception);
+        }
+    }
+
+    /**
+     * an archive written before a stop is published if its partition has been dropped, and discarded otherwise
+     */
+    private void recoverPendingArchives(List<YearMonth> partitions) {
+        try {
+            for (YearMonth month : transactionArchive.findPendingMonths()) {
+                if (partitions.contains(month)) {
+                    transactionArchive.discard(month);
+                } else {
+                    transactionArchive.publish(month);
+                    logger.info("Transactions archive of " + month + " recovered");
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("pending archives could not be recovered.", exception);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.cdx.bas.application.archive;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
+
+import com.cdx.bas.application.transaction.TransactionRowMapper;
+import com.cdx.bas.domain.transaction.Transaction;
+
+/***
+ * Monthly partitions of basapp.transactions, named transactions_yYYYYmMM.
+ * The transactions of the months without partition are kept in basapp.transactions_default.
+ *
+ * @author Clément Gibert
+ *
+ */
+@ApplicationScoped
+public class TransactionPartitionRepository {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("transactions_y(\\d{4})m(\\d{2})");
+
+    private static final String FIND_PARTITIONS_QUERY = "SELECT CAST(c.relname AS text) FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = CAST('basapp.transactions' AS regclass)";
+
+    /**
+     * partitions are created by one instance at a time under a transaction level advisory lock, in its own key space (2, 0)
+     */
+    private static final String LOCK_PARTITIONS_QUERY = "SELECT count(*) FROM pg_advisory_xact_lock(2, 0)";
+
+    private static final String EXPORT_QUERY = "SELECT " + TransactionRowMapper.COLUMNS + " "
+            + "FROM basapp.%s ORDER BY account_id, date DESC, transaction_id DESC";
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    TransactionRowMapper transactionRowMapper;
+
+    static String partitionName(YearMonth month) {
+        return String.format("transactions_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * @return months which have a partition, in chronological order
+     */
+    @Transactional
+    public List<YearMonth> findPartitions() {
+        @SuppressWarnings("unchecked")
+        List<String> names = entityManager.createNativeQuery(FIND_PARTITIONS_QUERY).getResultList();
+        return names.stream()
+                .map(PARTITION_NAME::matcher)
+                .filter(Matcher::matches)
+                .map(matcher -> YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * create the partition of a month, the transactions of the month already stored in the default partition are moved to it.
+     * Nothing is done when another instance has created the partition first
+     *
+     * @param month of the partition
+     * @return true if the partition has been created
+     */
+    @Transactional(value = TxType.REQUIRES_NEW)
+    public boolean createPartition(YearMonth month) {
+        entityManager.createNativeQuery(LOCK_PARTITIONS_QUERY).getSingleResult();
+        if (findPartitions().contains(month)) {
+            return false;
+        }
+        String partition = "basapp." + partitionName(month);
+        String range = "date >= '" + start(month) + "' AND date < '" + start(month.plusMonths(1)) + "'";
+        entityManager.createNativeQuery("CREATE TABLE " + partition + " (LIKE basapp.transactions INCLUDING DEFAULTS)").executeUpdate();
+        entityManager.createNativeQuery("INSERT INTO " + partition + " SELECT * FROM basapp.transactions_default WHERE " + range).executeUpdate();
+        entityManager.createNativeQuery("DELETE FROM basapp.transactions_default WHERE " + range).executeUpdate();
+        entityManager.createNativeQuery("ALTER TABLE basapp.transactions ATTACH PARTITION " + partition
+                + " FOR VALUES FROM ('" + start(month) + "') TO ('" + start(month.plusMonths(1)) + "')").executeUpdate();
+        return true;
+    }
+
+    /**
+     * @return true if the partition of the month holds transactions still to be processed
+     */
+    @Transactional(value = TxType.REQUIRES_NEW)
+    public boolean hasUnsettledTransactions(YearMonth month) {
+        return !entityManager.createNativeQuery("SELECT 1 FROM basapp." + partitionName(month) + " WHERE status = 'WAITING' LIMIT 1")
+                .getResultList().isEmpty();
+    }
+
+    /**
+     * stream the transactions of the partition of a month, sorted by account then from the most recent
+     *
+     * @param month of the partition
+     * @param exporter consuming the transactions within the database transaction
+     * @return result of the exporter
+     */
+    @Transactional(value = TxType.REQUIRES_NEW)
+    public long exportPartition(YearMonth month, ToLongFunction<Stream<Transaction>> exporter) {
+        @SuppressWarnings("unchecked")
+        Stream<Object[]> rows = entityManager.createNativeQuery(String.format(EXPORT_QUERY, partitionName(month)))
+                .setHint("org.hibernate.fetchSize", 1000)
+                .getResultStream();
+        try (Stream<Transaction> transactions = rows.map(transactionRowMapper::toDto)) {
+            return exporter.applyAsLong(transactions);
+        }
+    }
+
+    /**
+     * detach the partition of a month and drop it with its transactions
+     *
+     * @param month of the partition
+     */
+    @Transactional(value = TxType.REQUIRES_NEW)
+    public void dropPartition(YearMonth month) {
+        String partition = "basapp." + partitionName(month);
+        entityManager.createNativeQuery("ALTER TABLE basapp.transactions DETACH PARTITION " + partition).executeUpdate();
+        entityManager.createNativeQuery("DROP TABLE " + partition).executeUpdate();
+    }
+
+    private static LocalDate start(YearMonth month) {
+        return month.atDay(1);
+    }
+}
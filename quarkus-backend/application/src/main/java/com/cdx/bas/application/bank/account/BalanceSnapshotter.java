@@ -0,0 +1,43 @@
+package com.cdx.bas.application.bank.account;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+
+/***
+ * Periodic snapshots of the balances of the ledger.
+ * A bank account having at least ledger.snapshot.min-postings postings after its latest snapshot is snapshotted,
+ * so that its balance is read from its latest snapshot and fewer postings.
+ *
+ * @author Clément Gibert
+ *
+ */
+@ApplicationScoped
+public class BalanceSnapshotter {
+
+    private static final Logger logger = Logger.getLogger(BalanceSnapshotter.class);
+
+    @Inject
+    BankAccountRepository bankAccountRepository;
+
+    @ConfigProperty(name = "ledger.snapshot.min-postings", defaultValue = "100")
+    int minPostings;
+
+    @Scheduled(every = "{ledger.snapshot.interval}", concurrentExecution = ConcurrentExecution.SKIP)
+    public void snapshot() {
+        int count = 0;
+        for (long accountId : bankAccountRepository.findAccountsToSnapshot(minPostings)) {
+            if (bankAccountRepository.snapshot(accountId)) {
+                count++;
+            }
+        }
+        if (count > 0) {
+            logger.info(count + " balances snapshotted");
+        }
+    }
+}
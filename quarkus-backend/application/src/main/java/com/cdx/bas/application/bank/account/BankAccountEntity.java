@@ -1,6 +1,5 @@
 package com.cdx.bas.application.bank.account;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -8,6 +7,7 @@ import java.util.Set;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
@@ -15,8 +15,6 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.JoinColumn;
-import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.OneToMany;
 import javax.persistence.OrderBy;
@@ -25,13 +23,24 @@ import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
 import com.cdx.bas.application.customer.CustomerEntity;
+import com.cdx.bas.application.mapper.MoneyConverter;
 import com.cdx.bas.application.transaction.TransactionEntity;
 import com.cdx.bas.domain.bank.account.AccountType;
+import com.cdx.bas.domain.money.Money;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Formula;
 
 @Entity
 @Table(schema = "basapp", name = "bank_accounts", uniqueConstraints = @UniqueConstraint(columnNames = "account_id"))
 public class BankAccountEntity {
 
+    /**
+     * second level cache region of the customers of the bank accounts, evicted when the customers change
+     */
+    public static final String CUSTOMERS_CACHE_REGION = "com.cdx.bas.application.bank.account.BankAccountEntity.customers";
+
     @Id
     @Column(name = "account_id", nullable = false)
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bank_accounts_account_id_seq_gen")
@@ -42,14 +51,18 @@ public class BankAccountEntity {
     @Enumerated(EnumType.STRING)
     private AccountType type;
     
-    @Column(name = "balance", nullable = false)
-    private BigDecimal balance;
+    /**
+     * read from the ledger, the latest snapshot plus the postings after it, the balance is never written to bank_accounts
+     */
+    @Formula(BankAccountRepository.BALANCE_FORMULA)
+    @Convert(converter = MoneyConverter.class)
+    private Money balance;
     
     @ManyToMany(mappedBy = "accounts", fetch = FetchType.LAZY, cascade = CascadeType.MERGE)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<CustomerEntity> customers = new ArrayList<>();
     
-    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinTable(name = "bank_accounts_transactions", joinColumns = @JoinColumn(name = "account_id"), inverseJoinColumns = @JoinColumn(name = "transaction_id"))
+    @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("date")
     private Set<TransactionEntity> transactions = new HashSet<>();
 
@@ -69,11 +82,11 @@ public class BankAccountEntity {
         this.type = type;
     }
 
-    public BigDecimal getBalance() {
+    public Money getBalance() {
         return balance;
     }
 
-    public void setBalance(BigDecimal balance) {
+    public void setBalance(Money balance) {
         this.balance = balance;
     }
 
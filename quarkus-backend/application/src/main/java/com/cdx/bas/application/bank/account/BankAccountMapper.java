@@ -33,14 +33,13 @@ public class BankAccountMapper implements DtoEntityMapper<BankAccount, BankAccou
 
         BankAccount dto = BankAccountFactory.createBankAccount(entity.getType());
         dto.setId(entity.getId());
-        dto.setBalance(new Money(entity.getBalance()));
+        if (entity.getBalance() != null) {
+            dto.setBalance(Money.ofMinorUnits(entity.getBalance().getMinorUnits()));
+        }
 
         dto.setCustomersId(entity.getCustomers().stream()
                 .map(CustomerEntity::getId)
                 .collect(Collectors.toList()));
-        dto.setTransactions(entity.getTransactions().stream()
-                .map(transactionMapper::toDto)
-                .collect(Collectors.toSet()));
         return dto;
     }
 
@@ -56,7 +55,7 @@ public class BankAccountMapper implements DtoEntityMapper<BankAccount, BankAccou
         entity.setType(dto.getType());
 
         if (dto.getBalance() != null) {
-            entity.setBalance(dto.getBalance().getAmount());
+            entity.setBalance(Money.ofMinorUnits(dto.getBalance().getMinorUnits()));
         } else {
             entity.setBalance(null);
         }
@@ -1,22 +1,42 @@
 package com.cdx.bas.application.bank.account;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
 
 import com.cdx.bas.application.mapper.DtoEntityMapper;
+import com.cdx.bas.application.transaction.TransactionEntity;
+import com.cdx.bas.domain.bank.account.AccountType;
 import com.cdx.bas.domain.bank.account.BankAccount;
+import com.cdx.bas.domain.bank.account.BankAccountChangedEvent;
+import com.cdx.bas.domain.bank.account.BankAccountLimits;
 import com.cdx.bas.domain.bank.account.BankAccountPersistencePort;
+import com.cdx.bas.domain.money.Money;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionCollection;
+import com.cdx.bas.domain.transaction.TransactionPersistencePort;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.query.NativeQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 
 /***
- * persistence implementation for BankAccount entities
+ * persistence implementation for BankAccount entities, the balances are kept in an append only ledger:
+ * each change of a balance is a posting, and the balances are periodically snapshotted by BalanceSnapshotter
  * 
  * @author Clément Gibert
  *
@@ -26,17 +46,92 @@ public class BankAccountRepository implements BankAccountPersistencePort, Panach
     
     private static final Logger logger = LoggerFactory.getLogger(BankAccountRepository.class);
     
+    /**
+     * tables written by the native updates, declared so that Hibernate only evicts 
+     * the second level cache regions of these tables instead of all of them
+     */
+    private static final String LEDGER_POSTINGS = "basapp.ledger_postings";
+    
+    private static final String BALANCE_SNAPSHOTS = "basapp.balance_snapshots";
+    
+    /**
+     * balance of the bank account selected by the enclosing query, its latest snapshot plus the postings after it
+     */
+    static final String BALANCE_FORMULA = "(SELECT s.balance + COALESCE((SELECT sum(p.amount) FROM basapp.ledger_postings p "
+            + "WHERE p.account_id = s.account_id AND p.posting_id > s.posting_id), 0) "
+            + "FROM basapp.balance_snapshots s WHERE s.account_id = account_id "
+            + "AND s.posting_id = (SELECT max(l.posting_id) FROM basapp.balance_snapshots l WHERE l.account_id = account_id))";
+    
+    /**
+     * postings of a bank account are serialized by a transaction level advisory lock, in its own key space (1, account)
+     */
+    private static final String LOCK_QUERY = "SELECT count(*) FROM pg_advisory_xact_lock(1, CAST(:id % 2147483648 AS int))";
+    
+    private static final String BALANCE_QUERY = "SELECT a.type, s.balance + COALESCE((SELECT sum(p.amount) FROM basapp.ledger_postings p "
+            + "WHERE p.account_id = s.account_id AND p.posting_id > s.posting_id), 0) "
+            + "FROM basapp.bank_accounts a JOIN basapp.balance_snapshots s ON s.account_id = a.account_id "
+            + "WHERE a.account_id = :id ORDER BY s.posting_id DESC LIMIT 1";
+    
+    /**
+     * the postings read are bounded by the next snapshot, whose date is after the requested one
+     */
+    private static final String BALANCE_AT_QUERY = "SELECT s.balance + COALESCE((SELECT sum(p.amount) FROM basapp.ledger_postings p "
+            + "WHERE p.account_id = s.account_id AND p.posting_id > s.posting_id AND p.date <= :date "
+            + "AND p.posting_id <= COALESCE((SELECT min(n.posting_id) FROM basapp.balance_snapshots n "
+            + "WHERE n.account_id = s.account_id AND n.posting_id > s.posting_id), " + Long.MAX_VALUE + ")), 0) "
+            + "FROM basapp.balance_snapshots s WHERE s.account_id = :id AND s.date <= :date ORDER BY s.posting_id DESC LIMIT 1";
+    
+    private static final String APPEND_POSTING_QUERY = "INSERT INTO basapp.ledger_postings (account_id, amount, date) VALUES (:id, :amount, :date)";
+    
+    private static final String OPEN_SNAPSHOT_QUERY = "INSERT INTO basapp.balance_snapshots (account_id, posting_id, date, balance) "
+            + "VALUES (:id, 0, :date, :balance)";
+    
+    private static final String FIND_ACCOUNTS_TO_SNAPSHOT_QUERY = "SELECT a.account_id FROM basapp.bank_accounts a "
+            + "WHERE (SELECT count(*) FROM basapp.ledger_postings p WHERE p.account_id = a.account_id "
+            + "AND p.posting_id > (SELECT max(s.posting_id) FROM basapp.balance_snapshots s WHERE s.account_id = a.account_id)) >= :minPostings";
+    
+    private static final String SNAPSHOT_QUERY = "INSERT INTO basapp.balance_snapshots (account_id, posting_id, date, balance) "
+            + "SELECT s.account_id, max(p.posting_id), max(p.date), s.balance + sum(p.amount) "
+            + "FROM basapp.balance_snapshots s JOIN basapp.ledger_postings p ON p.account_id = s.account_id AND p.posting_id > s.posting_id "
+            + "WHERE s.account_id = :id AND s.posting_id = (SELECT max(l.posting_id) FROM basapp.balance_snapshots l WHERE l.account_id = :id) "
+            + "GROUP BY s.account_id, s.balance";
+    
     @Inject
     private DtoEntityMapper<BankAccount, BankAccountEntity> bankAccountMapper;
     
+    @Inject
+    private DtoEntityMapper<Transaction, TransactionEntity> transactionMapper;
+    
+    @Inject
+    TransactionPersistencePort transactionRepository;
+    
+    @Inject
+    Event<BankAccountChangedEvent> bankAccountChangedEvent;
+    
+    @ConfigProperty(name = "bank-account.history-size", defaultValue = "20")
+    int historySize;
+    
     @Override
     public Optional<BankAccount> findById(long id) {
-        return findByIdOptional(id).map(bankAccountMapper::toDto);
+        Optional<BankAccount> bankAccountOptional = findByIdOptional(id).map(bankAccountMapper::toDto);
+        bankAccountOptional.ifPresent(bankAccount -> {
+            bankAccount.markLoaded();
+            bankAccount.setTransactions(new TransactionCollection(transactionRepository.findRecentTransactions(id, historySize)));
+        });
+        return bankAccountOptional;
     }
     
     @Override
     public BankAccount create(BankAccount bankAccount) {
-        persist(bankAccountMapper.toEntity(bankAccount));
+        BankAccountEntity entity = bankAccountMapper.toEntity(bankAccount);
+        persist(entity);
+        flush();
+        getEntityManager().createNativeQuery(OPEN_SNAPSHOT_QUERY)
+                .unwrap(NativeQuery.class).addSynchronizedQuerySpace(BALANCE_SNAPSHOTS)
+                .setParameter("id", entity.getId())
+                .setParameter("date", Timestamp.from(Instant.now()))
+                .setParameter("balance", bankAccount.getBalance().getAmount())
+                .executeUpdate();
         logger.info("BankAccount " + bankAccount.getId() + " created");
         return bankAccount;
     }
@@ -44,21 +139,145 @@ public class BankAccountRepository implements BankAccountPersistencePort, Panach
     @Transactional
     @Override
     public BankAccount update(BankAccount bankAccount) {
-        BankAccountEntity test = bankAccountMapper.toEntity(bankAccount);
-        persist(test);
+        findByIdOptional(bankAccount.getId())
+                .orElseThrow(() -> new NoSuchElementException("bank account " + bankAccount.getId() + " not found."));
+        long requestedBalance = bankAccount.getBalance().getMinorUnits();
+        lock(bankAccount.getId());
+        findCurrentBalance(bankAccount.getId()).ifPresent(current -> {
+            long currentBalance = current.balance.getMinorUnits();
+            long balance = bankAccount.findLoadedBalance()
+                    .map(loaded -> Math.addExact(currentBalance, Math.subtractExact(requestedBalance, loaded.getMinorUnits())))
+                    .orElse(requestedBalance);
+            long adjustment = Math.subtractExact(balance, currentBalance);
+            if (adjustment != 0) {
+                appendPosting(bankAccount.getId(), Money.ofMinorUnits(adjustment));
+            }
+            bankAccount.setBalance(Money.ofMinorUnits(balance));
+            bankAccount.markLoaded();
+        });
+        bankAccount.getTransactions().stream()
+                .map(transactionMapper::toEntity)
+                .forEach(getEntityManager()::merge);
+        bankAccountChangedEvent.fire(new BankAccountChangedEvent(bankAccount.getId()));
         logger.info("BankAccount " + bankAccount.getId() + " updated");
         return bankAccount;
     }
 
+    @Transactional
+    @Override
+    public Optional<Money> addToBalance(long id, Money amount) {
+        lock(id);
+        CurrentBalance current = findCurrentBalance(id)
+                .orElseThrow(() -> new NoSuchElementException("bank account " + id + " not found."));
+        OptionalLong balance = addExact(current.balance.getMinorUnits(), amount.getMinorUnits());
+        if (balance.isEmpty() || !BankAccountLimits.of(current.type).accepts(balance.getAsLong())) {
+            logger.info("BankAccount " + id + " balance update refused for amount " + amount);
+            return Optional.empty();
+        }
+        appendPosting(id, amount);
+        bankAccountChangedEvent.fire(new BankAccountChangedEvent(id));
+        logger.info("BankAccount " + id + " balance updated");
+        return Optional.of(Money.ofMinorUnits(balance.getAsLong()));
+    }
+
+    @Transactional
+    @Override
+    public Optional<Money> findBalance(long id) {
+        return findCurrentBalance(id).map(current -> current.balance);
+    }
+
+    @Transactional
+    @Override
+    public Optional<Money> findBalanceAt(long id, Instant date) {
+        @SuppressWarnings("unchecked")
+        List<BigDecimal> balances = getEntityManager().createNativeQuery(BALANCE_AT_QUERY)
+                .setParameter("id", id)
+                .setParameter("date", Timestamp.from(date))
+                .getResultList();
+        return balances.stream().findFirst().map(Money::new);
+    }
+
+    /**
+     * @param minPostings minimum number of postings after the latest snapshot
+     * @return ids of the bank accounts having at least minPostings postings after their latest snapshot
+     */
+    @Transactional
+    public List<Long> findAccountsToSnapshot(int minPostings) {
+        @SuppressWarnings("unchecked")
+        List<Number> ids = getEntityManager().createNativeQuery(FIND_ACCOUNTS_TO_SNAPSHOT_QUERY)
+                .setParameter("minPostings", minPostings)
+                .getResultList();
+        return ids.stream().map(Number::longValue).collect(Collectors.toList());
+    }
+
+    /**
+     * snapshot the balance of a bank account including all its postings, 
+     * the postings are locked so that none being appended is left behind the snapshot
+     *
+     * @param id of BankAccount
+     * @return true if a snapshot has been created, false if there is no posting after the latest one
+     */
+    @Transactional(value = TxType.REQUIRES_NEW)
+    public boolean snapshot(long id) {
+        lock(id);
+        return getEntityManager().createNativeQuery(SNAPSHOT_QUERY)
+                .unwrap(NativeQuery.class).addSynchronizedQuerySpace(BALANCE_SNAPSHOTS)
+                .setParameter("id", id)
+                .executeUpdate() > 0;
+    }
+
     @Override
     public Optional<BankAccount> deleteById(long id) {
         Optional<BankAccountEntity> entityOptional = findByIdOptional(id);
         if (entityOptional.isPresent()) {
             BankAccountEntity entity = entityOptional.get();
             delete(entity);
+            bankAccountChangedEvent.fire(new BankAccountChangedEvent(id));
             logger.info("BankAccount " + entity.getId() + " deleted");
             return Optional.of(bankAccountMapper.toDto(entity));
         }
         return Optional.empty();
     }
+
+    /**
+     * a balance overflowing the minor units is refused like a balance out of the limits, an exception would roll back 
+     * the transaction of the caller, which also closes the refused transaction
+     */
+    static OptionalLong addExact(long balance, long amount) {
+        try {
+            return OptionalLong.of(Math.addExact(balance, amount));
+        } catch (ArithmeticException exception) {
+            return OptionalLong.empty();
+        }
+    }
+
+    private void lock(long id) {
+        getEntityManager().createNativeQuery(LOCK_QUERY).setParameter("id", id).getSingleResult();
+    }
+
+    private Optional<CurrentBalance> findCurrentBalance(long id) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = getEntityManager().createNativeQuery(BALANCE_QUERY).setParameter("id", id).getResultList();
+        return rows.stream().findFirst()
+                .map(row -> new CurrentBalance(AccountType.valueOf((String) row[0]), new Money((BigDecimal) row[1])));
+    }
+
+    private void appendPosting(long id, Money amount) {
+        getEntityManager().createNativeQuery(APPEND_POSTING_QUERY)
+                .unwrap(NativeQuery.class).addSynchronizedQuerySpace(LEDGER_POSTINGS)
+                .setParameter("id", id)
+                .setParameter("amount", amount.getAmount())
+                .setParameter("date", Timestamp.from(Instant.now()))
+                .executeUpdate();
+    }
+
+    private static final class CurrentBalance {
+        private final AccountType type;
+        private final Money balance;
+
+        private CurrentBalance(AccountType type, Money balance) {
+            this.type = type;
+            this.balance = balance;
+        }
+    }
 }
@@ -1,21 +1,30 @@
 package com.cdx.bas.application.bank.account;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.RequestScoped;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 
 import com.cdx.bas.domain.bank.account.BankAccount;
 import com.cdx.bas.domain.bank.account.BankAccountException;
+import com.cdx.bas.domain.bank.account.BankAccountLimits;
 import com.cdx.bas.domain.bank.account.BankAccountPersistencePort;
 import com.cdx.bas.domain.bank.account.BankAccountServicePort;
 import com.cdx.bas.domain.bank.account.BankAccountValidator;
 import com.cdx.bas.domain.money.Money;
 import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionPersistencePort;
 import com.cdx.bas.domain.transaction.TransactionServicePort;
 import com.cdx.bas.domain.transaction.TransactionStatus;
+import com.cdx.bas.domain.transaction.TransactionStatusChangedEvent;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,33 +42,120 @@ public class BankAccountServiceImpl implements BankAccountServicePort {
     
     @Inject
     TransactionServicePort transactionService;
+    
+    @Inject
+    TransactionPersistencePort transactionRepository;
+    
+    @Inject
+    Event<TransactionStatusChangedEvent> transactionStatusChangedEvent;
 
     @Override
     public Transaction deposit(Transaction transaction) {
         Map<String, String> metadatas = new HashMap<>();
         try {
-            BankAccount currentBankAccount = BankAccountRepository.findById(transaction.getAccountId())
-                    .orElseThrow(() -> new NoSuchElementException("bank account " + transaction.getAccountId() + " not found."));
             logger.info("BankAccount " + transaction.getAccountId() + " transaction deposit " + transaction.getId() + " for amount "+ transaction.getAmount());
+            Money amount = Money.of(transaction.getAmount());
+            Optional<Money> balanceAfter = BankAccountRepository.addToBalance(transaction.getAccountId(), amount);
+            if (balanceAfter.isEmpty()) {
+                throw refusal(transaction, metadatas);
+            }
             
-            metadatas.put("amount_before", currentBankAccount.getBalance().getAmount().toString());
-            currentBankAccount.getBalance().plus(Money.of(transaction.getAmount()));
-            bankAccountValidator.validateBankAccount(currentBankAccount);
-            metadatas.put("amount_after", currentBankAccount.getBalance().getAmount().toString());
-            
-            Transaction currentTransaction = transactionService.extractTransactionFromCollection(transaction.getId(), currentBankAccount.getTransactions());
-            currentBankAccount.getTransactions().add(transactionService.completeTransaction(currentTransaction, metadatas));
-            BankAccountRepository.update(currentBankAccount);
-            return currentTransaction;
+            long balanceAfterMinorUnits = balanceAfter.get().getMinorUnits();
+            metadatas.put("amount_before", Money.format(Math.subtractExact(balanceAfterMinorUnits, amount.getMinorUnits())));
+            metadatas.put("amount_after", Money.format(balanceAfterMinorUnits));
+            return closeTransaction(transactionService.completeTransaction(transaction, metadatas));
             
         } catch (NoSuchElementException exception) {
             logger.error("Transaction " + transaction.getId() + " deposit error for amount "+ transaction.getAmount() + ": " + exception.getMessage());
             metadatas.put("error", exception.getMessage());
-            return new Transaction(transaction, TransactionStatus.ERROR, metadatas);
+            return closeTransaction(new Transaction(transaction, TransactionStatus.ERROR, metadatas));
         } catch (BankAccountException exception) {
             metadatas.put("error", exception.getMessage());
             logger.error("Transaction " + transaction.getId() + " deposit refused for amount "+ transaction.getAmount() + ": " + exception.getMessage());
-            return new Transaction(transaction, TransactionStatus.REFUSED, metadatas);
+            return closeTransaction(new Transaction(transaction, TransactionStatus.REFUSED, metadatas));
+        } catch (ArithmeticException exception) {
+            metadatas.put("error", "amount " + transaction.getAmount() + " is out of the range of a balance.");
+            logger.error("Transaction " + transaction.getId() + " deposit refused for amount "+ transaction.getAmount() + ": " + exception.getMessage());
+            return closeTransaction(new Transaction(transaction, TransactionStatus.REFUSED, metadatas));
+        }
+    }
+
+    @Override
+    public List<Transaction> deposits(List<Transaction> transactions) {
+        Map<Long, List<Transaction>> transactionsByAccount = transactions.stream()
+                .collect(Collectors.groupingBy(Transaction::getAccountId, LinkedHashMap::new, Collectors.toList()));
+        List<Transaction> processedTransactions = new ArrayList<>(transactions.size());
+        transactionsByAccount.forEach((accountId, accountTransactions) -> 
+            processedTransactions.addAll(depositNetted(accountId, accountTransactions)));
+        return processedTransactions;
+    }
+
+    /**
+     * the balance moves monotonically when all the amounts have the same sign, so when the net balance
+     * respects the limits, each intermediate balance does too and a single balance update is enough
+     */
+    private List<Transaction> depositNetted(Long accountId, List<Transaction> transactions) {
+        boolean allCredits = transactions.stream().allMatch(transaction -> transaction.getAmount() >= 0);
+        boolean allDebits = transactions.stream().allMatch(transaction -> transaction.getAmount() <= 0);
+        Optional<Long> netAmountOptional = transactions.size() > 1 && (allCredits || allDebits) ? netAmount(transactions) : Optional.empty();
+        if (netAmountOptional.isPresent()) {
+            long netAmount = netAmountOptional.get();
+            logger.info("BankAccount " + accountId + " netted deposit of " + transactions.size() + " transactions for amount " + netAmount);
+            try {
+                Optional<Money> balanceAfter = BankAccountRepository.addToBalance(accountId, Money.of(netAmount));
+                if (balanceAfter.isPresent()) {
+                    long balance = Math.subtractExact(balanceAfter.get().getMinorUnits(), Money.toMinorUnits(netAmount));
+                    List<Transaction> processedTransactions = new ArrayList<>(transactions.size());
+                    for (Transaction transaction : transactions) {
+                        Map<String, String> metadatas = new HashMap<>();
+                        metadatas.put("amount_before", Money.format(balance));
+                        balance = Math.addExact(balance, Money.toMinorUnits(transaction.getAmount()));
+                        metadatas.put("amount_after", Money.format(balance));
+                        processedTransactions.add(closeTransaction(transactionService.completeTransaction(transaction, metadatas)));
+                    }
+                    return processedTransactions;
+                }
+            } catch (NoSuchElementException exception) {
+                logger.error(transactions.size() + " transactions deposit error: " + exception.getMessage());
+                return transactions.stream()
+                        .map(transaction -> closeTransaction(new Transaction(transaction, TransactionStatus.ERROR, Map.of("error", exception.getMessage()))))
+                        .collect(Collectors.toList());
+            }
+        }
+        return transactions.stream().map(this::deposit).collect(Collectors.toList());
+    }
+
+    /**
+     * explain a balance update refused by the account limits, only reached when the deposit is refused
+     */
+    private BankAccountException refusal(Transaction transaction, Map<String, String> metadatas) {
+        BankAccount currentBankAccount = BankAccountRepository.findById(transaction.getAccountId())
+                .orElseThrow(() -> new NoSuchElementException("bank account " + transaction.getAccountId() + " not found."));
+        metadatas.put("amount_before", currentBankAccount.getBalance().toString());
+        currentBankAccount.getBalance().plus(Money.of(transaction.getAmount()));
+        bankAccountValidator.validateBalance(currentBankAccount);
+        return new BankAccountException(BankAccountLimits.of(currentBankAccount.getType()).getMessage() + "\n");
+    }
+
+    /**
+     * @return sum of the amounts, empty if it does not fit in a balance, the transactions are then deposited one by one
+     */
+    private static Optional<Long> netAmount(List<Transaction> transactions) {
+        try {
+            long netAmount = transactions.stream().mapToLong(Transaction::getAmount).reduce(0L, Math::addExact);
+            Money.toMinorUnits(netAmount);
+            return Optional.of(netAmount);
+        } catch (ArithmeticException exception) {
+            return Optional.empty();
         }
     }
+
+    /**
+     * store the status of a processed transaction, its subscribers are told once the status is committed
+     */
+    private Transaction closeTransaction(Transaction transaction) {
+        transactionRepository.updateStatus(transaction.getId(), transaction.getStatus(), transaction.getMetadatas());
+        transactionStatusChangedEvent.fire(new TransactionStatusChangedEvent(transaction));
+        return transaction;
+    }
 }
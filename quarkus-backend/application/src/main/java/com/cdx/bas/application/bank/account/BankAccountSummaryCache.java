@@ -0,0 +1,140 @@
+package com.cdx.bas.application.bank.account;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+
+import com.cdx.bas.domain.bank.account.BankAccountChangedEvent;
+import com.cdx.bas.domain.bank.account.BankAccountPersistencePort;
+import com.cdx.bas.domain.bank.account.BankAccountSummary;
+import com.cdx.bas.domain.bank.account.BankAccountSummaryPort;
+import com.cdx.bas.domain.cache.CacheStatistics;
+import com.cdx.bas.domain.cache.CacheStatisticsPort;
+import com.cdx.bas.domain.transaction.TransactionQueuedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/***
+ * Read-through cache of the summaries of the bank accounts, loaded from BankAccountPersistencePort.findById on a miss.
+ * It is a Caffeine cache keeping at most bank-account.summary-cache.max-size summaries for bank-account.summary-cache.expiration,
+ * so that the summaries are read without lock.
+ * A summary is invalidated once a change of its bank account or a new transaction of it is committed. A summary being loaded
+ * while its bank account changes is not cached, so that a summary read before the change is never cached after it.
+ * Changes made by other instances of the application are only seen once the summary expires.
+ *
+ * @author Clément Gibert
+ *
+ */
+@ApplicationScoped
+public class BankAccountSummaryCache implements BankAccountSummaryPort, CacheStatisticsPort {
+
+    public static final String NAME = "bank-account-summaries";
+
+    @Inject
+    BankAccountPersistencePort bankAccountRepository;
+
+    @ConfigProperty(name = "bank-account.summary-cache.max-size", defaultValue = "10000")
+    int maxSize;
+
+    @ConfigProperty(name = "bank-account.summary-cache.expiration", defaultValue = "PT10S")
+    Duration expiration;
+
+    LongSupplier nanoClock = System::nanoTime;
+
+    private Cache<Long, BankAccountSummary> summaries;
+
+    /**
+     * marker of each summary being loaded, removed when its bank account changes so that the loaded summary is not cached
+     */
+    private final Map<Long, Object> loadings = new ConcurrentHashMap<>();
+
+    private final LongAdder putCount = new LongAdder();
+
+    /**
+     * the maintenance of the cache runs on the reading threads, so that its statistics are up to date once a read returns
+     */
+    @PostConstruct
+    void init() {
+        summaries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expiration)
+                .ticker(nanoClock::getAsLong)
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Optional<BankAccountSummary> findSummary(long id) {
+        BankAccountSummary cached = summaries.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Object loading = new Object();
+        loadings.put(id, loading);
+        Optional<BankAccountSummary> summary = Optional.empty();
+        try {
+            summary = bankAccountRepository.findById(id).map(BankAccountSummary::of);
+        } finally {
+            cacheLoaded(id, loading, summary);
+        }
+        return summary;
+    }
+
+    /**
+     * remove the summary of a bank account, a summary being loaded is no longer cached
+     */
+    public void invalidate(long id) {
+        loadings.remove(id);
+        summaries.invalidate(id);
+    }
+
+    void onBankAccountChanged(@Observes(during = TransactionPhase.AFTER_COMPLETION) BankAccountChangedEvent event) {
+        invalidate(event.getAccountId());
+    }
+
+    void onTransactionQueued(@Observes(during = TransactionPhase.AFTER_COMPLETION) TransactionQueuedEvent event) {
+        invalidate(event.getAccountId());
+    }
+
+    @Override
+    public List<CacheStatistics> getStatistics() {
+        return List.of(getCacheStatistics());
+    }
+
+    public CacheStatistics getCacheStatistics() {
+        CacheStats stats = summaries.stats();
+        return new CacheStatistics(NAME, stats.hitCount(), stats.missCount(), putCount.sum(), stats.evictionCount(),
+                summaries.estimatedSize());
+    }
+
+    /**
+     * the summary is cached while the marker of its loading is removed, an invalidation removing the marker first
+     * prevents it from being cached and one removing it afterwards removes the cached summary
+     */
+    private void cacheLoaded(long id, Object loading, Optional<BankAccountSummary> summary) {
+        loadings.computeIfPresent(id, (key, currentLoading) -> {
+            if (currentLoading != loading) {
+                return currentLoading;
+            }
+            summary.ifPresent(loadedSummary -> {
+                summaries.put(id, loadedSummary);
+                putCount.increment();
+            });
+            return null;
+        });
+    }
+}
@@ -0,0 +1,133 @@
+package com.cdx.bas.application.bank.account;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
+
+import com.cdx.bas.domain.bank.account.AccountType;
+import com.cdx.bas.domain.bank.account.BankAccount;
+import com.cdx.bas.domain.bank.account.BankAccountChangedEvent;
+import com.cdx.bas.domain.bank.account.BankAccountLimits;
+import com.cdx.bas.domain.bank.account.BankAccountReactivePersistencePort;
+import com.cdx.bas.domain.money.Money;
+import com.cdx.bas.domain.transaction.TransactionCollection;
+import com.cdx.bas.domain.transaction.TransactionReactivePersistencePort;
+import com.cdx.bas.domain.utils.BankAccountFactory;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.SqlConnection;
+import io.vertx.mutiny.sqlclient.Tuple;
+import io.vertx.sqlclient.data.Numeric;
+
+/***
+ * non-blocking persistence implementation for BankAccount, on the reactive Postgres client,
+ * used by the endpoints when the build property persistence.reactive.enabled is set.
+ * The balances are read from and appended to the same ledger as BankAccountRepository, under the same lock.
+ * 
+ * @author Clément Gibert
+ *
+ */
+@ApplicationScoped
+public class ReactiveBankAccountRepository implements BankAccountReactivePersistencePort {
+    
+    private static final Logger logger = Logger.getLogger(ReactiveBankAccountRepository.class);
+    
+    private static final String BALANCE_COLUMNS = "a.type, s.balance + COALESCE((SELECT sum(p.amount) FROM basapp.ledger_postings p "
+            + "WHERE p.account_id = s.account_id AND p.posting_id > s.posting_id), 0)";
+    
+    private static final String LATEST_SNAPSHOT = "FROM basapp.bank_accounts a JOIN basapp.balance_snapshots s ON s.account_id = a.account_id "
+            + "WHERE a.account_id = $1 ORDER BY s.posting_id DESC LIMIT 1";
+    
+    private static final String FIND_BY_ID_QUERY = "SELECT " + BALANCE_COLUMNS + ", "
+            + "ARRAY(SELECT c.customer_id FROM basapp.bank_accounts_customers c WHERE c.account_id = a.account_id ORDER BY c.customer_id) "
+            + LATEST_SNAPSHOT;
+    
+    private static final String BALANCE_QUERY = "SELECT " + BALANCE_COLUMNS + " " + LATEST_SNAPSHOT;
+    
+    private static final String LOCK_QUERY = "SELECT count(*) FROM pg_advisory_xact_lock(1, CAST($1 % 2147483648 AS int))";
+    
+    private static final String APPEND_POSTING_QUERY = "INSERT INTO basapp.ledger_postings (account_id, amount, date) VALUES ($1, $2, $3)";
+    
+    @Inject
+    PgPool client;
+    
+    @Inject
+    TransactionReactivePersistencePort transactionRepository;
+    
+    @Inject
+    Event<BankAccountChangedEvent> bankAccountChangedEvent;
+    
+    @ConfigProperty(name = "bank-account.history-size", defaultValue = "20")
+    int historySize;
+    
+    @Override
+    public Uni<Optional<BankAccount>> findById(long id) {
+        return client.preparedQuery(FIND_BY_ID_QUERY).execute(Tuple.of(id))
+                .chain(rows -> {
+                    if (rows.size() == 0) {
+                        return Uni.createFrom().item(Optional.empty());
+                    }
+                    BankAccount bankAccount = toBankAccount(id, rows.iterator().next());
+                    return transactionRepository.findRecentTransactions(id, historySize).collect().asList()
+                            .map(history -> {
+                                bankAccount.setTransactions(new TransactionCollection(history));
+                                return Optional.of(bankAccount);
+                            });
+                });
+    }
+    
+    @Override
+    public Uni<Optional<Money>> addToBalance(long id, Money amount) {
+        return client.<Optional<Money>>withTransaction(connection -> connection.preparedQuery(LOCK_QUERY).execute(Tuple.of(id))
+                .chain(() -> connection.preparedQuery(BALANCE_QUERY).execute(Tuple.of(id)))
+                .chain(rows -> {
+                    if (rows.size() == 0) {
+                        return Uni.createFrom().failure(new NoSuchElementException("bank account " + id + " not found."));
+                    }
+                    Row row = rows.iterator().next();
+                    OptionalLong balance = BankAccountRepository.addExact(new Money(row.getBigDecimal(1)).getMinorUnits(), amount.getMinorUnits());
+                    if (balance.isEmpty() || !BankAccountLimits.of(AccountType.valueOf(row.getString(0))).accepts(balance.getAsLong())) {
+                        logger.info("BankAccount " + id + " balance update refused for amount " + amount);
+                        return Uni.createFrom().item(Optional.empty());
+                    }
+                    return appendPosting(connection, id, amount)
+                            .invoke(() -> logger.info("BankAccount " + id + " balance updated"))
+                            .map(appended -> Optional.of(Money.ofMinorUnits(balance.getAsLong())));
+                }))
+                .invoke(balanceAfter -> balanceAfter.ifPresent(newBalance -> bankAccountChangedEvent.fire(new BankAccountChangedEvent(id))));
+    }
+    
+    @Override
+    public Uni<Optional<Money>> findBalance(long id) {
+        return client.preparedQuery(BALANCE_QUERY).execute(Tuple.of(id))
+                .map(rows -> rows.size() == 0 ? Optional.empty() : Optional.of(new Money(rows.iterator().next().getBigDecimal(1))));
+    }
+    
+    private static Uni<RowSet<Row>> appendPosting(SqlConnection connection, long id, Money amount) {
+        return connection.preparedQuery(APPEND_POSTING_QUERY)
+                .execute(Tuple.of(id, Numeric.create(amount.getAmount()), LocalDateTime.ofInstant(Instant.now(), ZoneId.systemDefault())));
+    }
+    
+    private static BankAccount toBankAccount(long id, Row row) {
+        BankAccount bankAccount = BankAccountFactory.createBankAccount(AccountType.valueOf(row.getString(0)));
+        bankAccount.setId(id);
+        bankAccount.setBalance(new Money(row.getBigDecimal(1)));
+        bankAccount.setCustomersId(new ArrayList<>(Arrays.asList(row.getArrayOfLongs(2))));
+        return bankAccount;
+    }
+}
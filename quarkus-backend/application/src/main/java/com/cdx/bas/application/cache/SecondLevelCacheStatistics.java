@@ -0,0 +1,55 @@
+package com.cdx.bas.application.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import com.cdx.bas.domain.cache.CacheStatistics;
+import com.cdx.bas.domain.cache.CacheStatisticsPort;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+/***
+ * Statistics of the regions of the Hibernate second level cache, collected when quarkus.hibernate-orm.statistics is set.
+ *
+ * @author Clément Gibert
+ *
+ */
+@ApplicationScoped
+public class SecondLevelCacheStatistics implements CacheStatisticsPort {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Override
+    public List<CacheStatistics> getStatistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+        List<CacheStatistics> cacheStatistics = new ArrayList<>();
+        for (String regionName : regionNames) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(regionName);
+            if (regionStatistics != null) {
+                cacheStatistics.add(toCacheStatistics(regionName, regionStatistics));
+            }
+        }
+        return cacheStatistics;
+    }
+
+    /**
+     * @return statistics of a region
+     */
+    public CacheStatistics getStatistics(String regionName) {
+        return toCacheStatistics(regionName, sessionFactory.getStatistics().getCacheRegionStatistics(regionName));
+    }
+
+    private static CacheStatistics toCacheStatistics(String regionName, CacheRegionStatistics regionStatistics) {
+        return new CacheStatistics(regionName, regionStatistics.getHitCount(), regionStatistics.getMissCount(),
+                regionStatistics.getPutCount(), regionStatistics.getElementCountInMemory());
+    }
+}
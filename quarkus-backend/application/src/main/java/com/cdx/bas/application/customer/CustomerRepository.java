@@ -1,21 +1,30 @@
 package com.cdx.bas.application.customer;
 
 
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
 import javax.inject.Inject;
 
+import com.cdx.bas.application.bank.account.BankAccountEntity;
 import com.cdx.bas.application.mapper.DtoEntityMapper;
 import com.cdx.bas.domain.customer.Customer;
+import com.cdx.bas.domain.customer.CustomerChangedEvent;
 import com.cdx.bas.domain.customer.CustomerPersistencePort;
 
+import org.hibernate.Cache;
 import org.jboss.logging.Logger;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 
 /***
- * persistence implementation for Customer entities
+ * persistence implementation for Customer entities, the customers are kept in the second level cache
+ * and the cached customers of the bank accounts are evicted once a change of a customer has been committed
  * 
  * @author Clément Gibert
  *
@@ -27,6 +36,9 @@ public class CustomerRepository implements CustomerPersistencePort, PanacheRepos
     
     @Inject
     private DtoEntityMapper<Customer, CustomerEntity> customerMapper;
+    
+    @Inject
+    Event<CustomerChangedEvent> customerChangedEvent;
 
 	@Override
 	public Optional<Customer> findById(long id) {
@@ -36,13 +48,32 @@ public class CustomerRepository implements CustomerPersistencePort, PanacheRepos
 	@Override
 	public Customer create(Customer customer) {
         persist(customerMapper.toEntity(customer));
+        customerChangedEvent.fire(new CustomerChangedEvent(customer.getId()));
         logger.info("Customer " + customer.getId() + " created");
         return customer;
 	}
 
 	@Override
 	public Customer update(Customer customer) {
-	    persist(customerMapper.toEntity(customer));
+	    CustomerEntity entity = findByIdOptional(customer.getId())
+	            .orElseThrow(() -> new NoSuchElementException("customer " + customer.getId() + " not found."));
+	    CustomerEntity updatedEntity = customerMapper.toEntity(customer);
+	    entity.setFirstName(updatedEntity.getFirstName());
+	    entity.setLastName(updatedEntity.getLastName());
+	    entity.setGender(updatedEntity.getGender());
+	    entity.setMaritalStatus(updatedEntity.getMaritalStatus());
+	    entity.setBirthdate(updatedEntity.getBirthdate());
+	    entity.setCountry(updatedEntity.getCountry());
+	    entity.setAddress(updatedEntity.getAddress());
+	    entity.setCity(updatedEntity.getCity());
+	    entity.setEmail(updatedEntity.getEmail());
+	    entity.setPhoneNumber(updatedEntity.getPhoneNumber());
+	    entity.setMetadatas(updatedEntity.getMetadatas());
+	    // the bank accounts are only linked, their own changes are saved by BankAccountRepository
+	    entity.setAccounts(customer.getAccounts().stream()
+	            .map(account -> getEntityManager().getReference(BankAccountEntity.class, account.getId()))
+	            .collect(Collectors.toList()));
+	    customerChangedEvent.fire(new CustomerChangedEvent(customer.getId()));
         logger.info("Customer " + customer.getId() + " updated");
         return customer;
 	}
@@ -53,10 +84,20 @@ public class CustomerRepository implements CustomerPersistencePort, PanacheRepos
         if (entityOptional.isPresent()) {
             CustomerEntity entity = entityOptional.get();
             delete(entity);
+            customerChangedEvent.fire(new CustomerChangedEvent(entity.getId()));
             logger.info("Customer " + entity.getId() + " deleted");
             return Optional.of(customerMapper.toDto(entity));
         }
         return Optional.empty();
 	}
 
+	/**
+	 * the accounts of a customer are mapped by the customer, Hibernate does not update
+	 * the cached customers of the bank accounts by itself. They are evicted after the commit, an eviction before it
+	 * would let a reader cache the customers again before the change is visible, until they stay idle for max-idle
+	 */
+	void evictCustomersOfBankAccounts(@Observes(during = TransactionPhase.AFTER_SUCCESS) CustomerChangedEvent event) {
+	    getEntityManager().getEntityManagerFactory().getCache().unwrap(Cache.class)
+	            .evictCollectionData(BankAccountEntity.CUSTOMERS_CACHE_REGION);
+	}
 }
@@ -0,0 +1,113 @@
+package com.cdx.bas.application.customer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import com.cdx.bas.domain.bank.account.AccountType;
+import com.cdx.bas.domain.bank.account.BankAccount;
+import com.cdx.bas.domain.customer.Customer;
+import com.cdx.bas.domain.customer.CustomerReactivePersistencePort;
+import com.cdx.bas.domain.customer.Gender;
+import com.cdx.bas.domain.customer.MaritalStatus;
+import com.cdx.bas.domain.money.Money;
+import com.cdx.bas.domain.utils.BankAccountFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.hibernate.MappingException;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+
+/***
+ * non-blocking persistence implementation for Customer, on the reactive Postgres client,
+ * used by the endpoints when the build property persistence.reactive.enabled is set
+ * 
+ * @author Clément Gibert
+ *
+ */
+@ApplicationScoped
+public class ReactiveCustomerRepository implements CustomerReactivePersistencePort {
+    
+    private static final String FIND_BY_ID_QUERY = "SELECT first_name, last_name, gender, marital_status, birthday, country, "
+            + "address, city, email, phone_number, CAST(metadatas AS text) FROM basapp.customers WHERE customer_id = $1";
+    
+    private static final String FIND_ACCOUNTS_QUERY = "SELECT a.account_id, a.type, "
+            + "(SELECT s.balance + COALESCE((SELECT sum(p.amount) FROM basapp.ledger_postings p "
+            + "WHERE p.account_id = s.account_id AND p.posting_id > s.posting_id), 0) "
+            + "FROM basapp.balance_snapshots s WHERE s.account_id = a.account_id ORDER BY s.posting_id DESC LIMIT 1), "
+            + "ARRAY(SELECT c.customer_id FROM basapp.bank_accounts_customers c WHERE c.account_id = a.account_id ORDER BY c.customer_id) "
+            + "FROM basapp.bank_accounts a JOIN basapp.bank_accounts_customers bc ON bc.account_id = a.account_id "
+            + "WHERE bc.customer_id = $1 ORDER BY a.account_id";
+    
+    @Inject
+    PgPool client;
+    
+    @Inject
+    ObjectMapper objectMapper;
+    
+    /**
+     * the customer and its bank accounts are read concurrently
+     */
+    @Override
+    public Uni<Optional<Customer>> findById(long id) {
+        return Uni.combine().all().unis(
+                    client.preparedQuery(FIND_BY_ID_QUERY).execute(Tuple.of(id)),
+                    client.preparedQuery(FIND_ACCOUNTS_QUERY).execute(Tuple.of(id)))
+                .asTuple()
+                .map(results -> {
+                    if (results.getItem1().size() == 0) {
+                        return Optional.empty();
+                    }
+                    Customer customer = toCustomer(id, results.getItem1().iterator().next());
+                    customer.setAccounts(toBankAccounts(results.getItem2()));
+                    return Optional.of(customer);
+                });
+    }
+    
+    private Customer toCustomer(long id, Row row) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setFirstName(row.getString(0));
+        customer.setLastName(row.getString(1));
+        customer.setGender(Gender.valueOf(row.getString(2)));
+        customer.setMaritalStatus(MaritalStatus.valueOf(row.getString(3)));
+        customer.setBirthdate(row.getLocalDateTime(4));
+        customer.setCountry(row.getString(5));
+        customer.setAddress(row.getString(6));
+        customer.setCity(row.getString(7));
+        customer.setEmail(row.getString(8));
+        customer.setPhoneNumber(row.getString(9));
+        try {
+            customer.setMetadatas(row.getString(10) != null
+                    ? objectMapper.readValue(row.getString(10), new TypeReference<Map<String, String>>() {})
+                    : new HashMap<>());
+        } catch (JsonProcessingException exception) {
+            throw new MappingException("An error occured while parsing JSON String to Map<String, String>", exception);
+        }
+        return customer;
+    }
+    
+    private static List<BankAccount> toBankAccounts(RowSet<Row> rows) {
+        List<BankAccount> bankAccounts = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            BankAccount bankAccount = BankAccountFactory.createBankAccount(AccountType.valueOf(row.getString(1)));
+            bankAccount.setId(row.getLong(0));
+            bankAccount.setBalance(new Money(row.getBigDecimal(2)));
+            bankAccount.setCustomersId(new ArrayList<>(Arrays.asList(row.getArrayOfLongs(3))));
+            bankAccounts.add(bankAccount);
+        }
+        return bankAccounts;
+    }
+}
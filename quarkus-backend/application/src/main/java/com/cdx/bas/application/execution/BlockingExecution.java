@@ -0,0 +1,178 @@
+package com.cdx.bas.application.execution;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+
+import com.cdx.bas.domain.execution.BlockingExecutionPort;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ArcContainer;
+import io.quarkus.arc.ManagedContext;
+
+/***
+ * Threads running the blocking database work of the REST requests and of the transaction lanes.
+ * In platform mode a request runs on the RESTEasy worker thread which received it and each lane has its own platform thread.
+ * In virtual mode each request and each lane runs on its own virtual thread, so that a thread waiting for the database
+ * no longer holds a worker. Virtual threads need Java 21, the platform mode is used when the running JVM has none:
+ * getMode() then answers platform, whatever execution.mode asks for.
+ * Whatever the mode, at most execution.db-permits tasks run at once so that the datasource pool is never overrun.
+ *
+ * @author Clément Gibert
+ *
+ */
+@ApplicationScoped
+public class BlockingExecution implements BlockingExecutionPort {
+
+    private static final Logger logger = Logger.getLogger(BlockingExecution.class);
+
+    @ConfigProperty(name = "execution.mode", defaultValue = "platform")
+    ExecutionMode requestedMode;
+
+    @ConfigProperty(name = "execution.db-permits")
+    Optional<Integer> dbPermitsProperty;
+
+    @ConfigProperty(name = "quarkus.datasource.jdbc.max-size", defaultValue = "20")
+    int poolMaxSize;
+
+    private ExecutionMode mode;
+
+    private Semaphore dbPermits;
+
+    private ThreadFactory taskThreadFactory;
+
+    private int dbPermitCount;
+
+    @PostConstruct
+    void init() {
+        mode = requestedMode;
+        if (mode == ExecutionMode.VIRTUAL) {
+            taskThreadFactory = createVirtualThreadFactory("execution-task-");
+        }
+        if (mode == ExecutionMode.VIRTUAL && taskThreadFactory == null) {
+            logger.warn("Virtual threads are not available on Java " + Runtime.version().feature() + ", execution falls back to platform threads");
+            mode = ExecutionMode.PLATFORM;
+        }
+        dbPermitCount = Math.max(1, dbPermitsProperty.orElse(poolMaxSize));
+        dbPermits = new Semaphore(dbPermitCount, true);
+        logger.info("Blocking execution started on " + mode.name().toLowerCase() + " threads with " + dbPermitCount + " database permits");
+    }
+
+    /**
+     * @return mode actually used, platform when virtual threads are requested but not available
+     */
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    public int getDbPermitCount() {
+        return dbPermitCount;
+    }
+
+    public int getAvailableDbPermits() {
+        return dbPermits.availablePermits();
+    }
+
+    /**
+     * @param prefix of the names of the threads, followed by their creation rank
+     * @return factory of the threads of the current mode, platform threads are daemon threads
+     */
+    public ThreadFactory threadFactory(String prefix) {
+        if (mode == ExecutionMode.VIRTUAL) {
+            return createVirtualThreadFactory(prefix);
+        }
+        AtomicLong rank = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + rank.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * run a task on the current thread, waiting for a database permit first
+     */
+    @Override
+    public <T> T callWithDbPermit(Supplier<T> task) {
+        dbPermits.acquireUninterruptibly();
+        try {
+            return task.get();
+        } finally {
+            dbPermits.release();
+        }
+    }
+
+    /**
+     * run a task on the current thread, waiting for a database permit first
+     */
+    public void runWithDbPermit(Runnable task) {
+        callWithDbPermit(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * in platform mode the task runs on the calling thread, in virtual mode it runs on a new virtual thread
+     * with its own request context
+     */
+    @Override
+    public <T> CompletionStage<T> submit(Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (mode == ExecutionMode.PLATFORM) {
+            complete(result, task);
+        } else {
+            taskThreadFactory.newThread(() -> completeInRequestContext(result, task)).start();
+        }
+        return result;
+    }
+
+    private <T> void completeInRequestContext(CompletableFuture<T> result, Supplier<T> task) {
+        ArcContainer container = Arc.container();
+        ManagedContext requestContext = container != null ? container.requestContext() : null;
+        if (requestContext != null) {
+            requestContext.activate();
+        }
+        try {
+            complete(result, task);
+        } finally {
+            if (requestContext != null) {
+                requestContext.terminate();
+            }
+        }
+    }
+
+    private <T> void complete(CompletableFuture<T> result, Supplier<T> task) {
+        try {
+            result.complete(callWithDbPermit(task));
+        } catch (RuntimeException | Error exception) {
+            result.completeExceptionally(exception);
+        }
+    }
+
+    /**
+     * Thread.ofVirtual() is looked up by reflection so that the application still runs on the Java 17 runtime
+     *
+     * @return null if the running JVM has no virtual threads
+     */
+    private static ThreadFactory createVirtualThreadFactory(String prefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            return null;
+        }
+    }
+}
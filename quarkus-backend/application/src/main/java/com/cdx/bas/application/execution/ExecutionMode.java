@@ -0,0 +1,6 @@
+package com.cdx.bas.application.execution;
+
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL
+}
@@ -0,0 +1,105 @@
+package com.cdx.bas.application.idempotency;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import com.cdx.bas.domain.bank.account.BankAccount;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionException;
+import com.cdx.bas.domain.transaction.TransactionIdempotencyPort;
+import com.cdx.bas.domain.transaction.TransactionType;
+import com.cdx.bas.domain.utils.BankAccountFactory;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/***
+ * In memory index of the results returned to the requests made with an idempotency key.
+ * It keeps at most idempotency.index.max-size results for idempotency.index.expiration, the oldest ones are forgotten first.
+ * A forgotten result is found again from the idempotency key stored with its transaction.
+ * Each replay gets its own copy of the result, so a caller changing it does not change the next replays.
+ *
+ * @author Clément Gibert
+ *
+ */
+@ApplicationScoped
+public class TransactionIdempotencyIndex implements TransactionIdempotencyPort {
+
+    @ConfigProperty(name = "idempotency.index.max-size", defaultValue = "100000")
+    int maxSize;
+
+    @ConfigProperty(name = "idempotency.index.expiration", defaultValue = "PT1H")
+    Duration expiration;
+
+    LongSupplier nanoClock = System::nanoTime;
+
+    /**
+     * results in saving order, which is also their expiration order
+     */
+    private final LinkedHashMap<String, IndexedResult> results = new LinkedHashMap<>();
+
+    @Override
+    public synchronized Optional<BankAccount> findResult(String idempotencyKey, Transaction transaction) {
+        removeExpired(nanoClock.getAsLong());
+        IndexedResult indexedResult = results.get(idempotencyKey);
+        if (indexedResult == null) {
+            return Optional.empty();
+        }
+        if (!indexedResult.isRequestOf(transaction)) {
+            throw new TransactionException("idempotency key " + idempotencyKey + " already used for transaction " + indexedResult.transactionId + ".");
+        }
+        return Optional.of(BankAccountFactory.copyBankAccount(indexedResult.result));
+    }
+
+    @Override
+    public synchronized void saveResult(String idempotencyKey, Transaction transaction, BankAccount result) {
+        long now = nanoClock.getAsLong();
+        removeExpired(now);
+        results.remove(idempotencyKey);
+        results.put(idempotencyKey, new IndexedResult(transaction, result, now + expiration.toNanos()));
+        if (results.size() > maxSize) {
+            Iterator<IndexedResult> eldest = results.values().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return results.size();
+    }
+
+    private void removeExpired(long now) {
+        Iterator<Map.Entry<String, IndexedResult>> iterator = results.entrySet().iterator();
+        while (iterator.hasNext() && iterator.next().getValue().expiresAt - now <= 0) {
+            iterator.remove();
+        }
+    }
+
+    private static final class IndexedResult {
+        private final Long transactionId;
+        private final Long accountId;
+        private final long amount;
+        private final TransactionType type;
+        private final BankAccount result;
+        private final long expiresAt;
+
+        private IndexedResult(Transaction transaction, BankAccount result, long expiresAt) {
+            this.transactionId = transaction.getId();
+            this.accountId = transaction.getAccountId();
+            this.amount = transaction.getAmount();
+            this.type = transaction.getType();
+            this.result = BankAccountFactory.copyBankAccount(result);
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isRequestOf(Transaction transaction) {
+            return Objects.equals(accountId, transaction.getAccountId()) && amount == transaction.getAmount() && type == transaction.getType();
+        }
+    }
+}
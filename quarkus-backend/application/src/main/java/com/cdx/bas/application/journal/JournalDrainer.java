@@ -0,0 +1,82 @@
+package com.cdx.bas.application.journal;
+
+import java.util.List;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
+
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionPersistencePort;
+
+import org.hibernate.query.NativeQuery;
+
+/***
+ * Turn journal records into WAITING transactions, the drained sequence of the journal is saved
+ * in the same database transaction so that a record is created exactly once, even when the journal is replayed
+ * 
+ * @author Clément Gibert
+ *
+ */
+@ApplicationScoped
+public class JournalDrainer {
+    
+    private static final String FIND_CHECKPOINT_QUERY = "SELECT drained_sequence FROM basapp.journal_checkpoints WHERE journal = :journal";
+    
+    private static final String SAVE_CHECKPOINT_QUERY = "INSERT INTO basapp.journal_checkpoints (journal, drained_sequence) "
+            + "VALUES (:journal, :sequence) "
+            + "ON CONFLICT (journal) DO UPDATE SET drained_sequence = EXCLUDED.drained_sequence";
+    
+    @Inject
+    EntityManager entityManager;
+    
+    @Inject
+    TransactionPersistencePort transactionRepository;
+    
+    /**
+     * @param journal name of the journal
+     * @return sequence of the last drained record of the journal, 0 if nothing has been drained yet
+     */
+    @Transactional
+    public long findCheckpoint(String journal) {
+        @SuppressWarnings("unchecked")
+        List<Number> sequences = entityManager.createNativeQuery(FIND_CHECKPOINT_QUERY)
+                .setParameter("journal", journal)
+                .getResultList();
+        return sequences.isEmpty() ? 0L : sequences.get(0).longValue();
+    }
+    
+    /**
+     * create the transactions of journal records and move the checkpoint of the journal after them
+     * 
+     * @param journal name of the journal
+     * @param transactions of the records to create
+     * @param lastSequence sequence of the last record
+     */
+    @Transactional(value = TxType.REQUIRES_NEW)
+    public void drain(String journal, List<Transaction> transactions, long lastSequence) {
+        transactionRepository.createAll(transactions);
+        saveCheckpoint(journal, lastSequence);
+    }
+    
+    /**
+     * move the checkpoint of the journal after a record which cannot be created
+     * 
+     * @param journal name of the journal
+     * @param sequence of the skipped record
+     */
+    @Transactional(value = TxType.REQUIRES_NEW)
+    public void skip(String journal, long sequence) {
+        saveCheckpoint(journal, sequence);
+    }
+    
+    private void saveCheckpoint(String journal, long sequence) {
+        entityManager.createNativeQuery(SAVE_CHECKPOINT_QUERY)
+                .unwrap(NativeQuery.class).addSynchronizedQuerySpace("basapp.journal_checkpoints")
+                .setParameter("journal", journal)
+                .setParameter("sequence", sequence)
+                .executeUpdate();
+    }
+}
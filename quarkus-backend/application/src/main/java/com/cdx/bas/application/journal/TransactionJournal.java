@@ -0,0 +1,177 @@
+package com.cdx.bas.application.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionJournalPort;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.runtime.Startup;
+
+/***
+ * Ingestion journal of incoming transactions.
+ * An append only writes a record into the memory-mapped journal file, a flusher makes the records durable
+ * every journal.fsync-interval and a drainer creates their WAITING transactions by batches of journal.drain.batch-size.
+ * On startup the records following the drained checkpoint are drained again, so an accepted transaction is never lost.
+ * The journal file is local to an instance, so its checkpoint is kept under the journal name and scheduler.node-id,
+ * which must be set and stay the same across restarts of the instance.
+ *
+ * @author Clément Gibert
+ *
+ */
+@Startup
+@ApplicationScoped
+public class TransactionJournal implements TransactionJournalPort {
+
+    private static final Logger logger = Logger.getLogger(TransactionJournal.class);
+
+    @Inject
+    JournalDrainer journalDrainer;
+
+    @ConfigProperty(name = "journal.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "journal.name", defaultValue = "deposits")
+    String name;
+
+    @ConfigProperty(name = "scheduler.node-id")
+    Optional<String> nodeId;
+
+    @ConfigProperty(name = "journal.directory", defaultValue = "journal")
+    Path directory;
+
+    @ConfigProperty(name = "journal.segment-size", defaultValue = "67108864")
+    int segmentSize;
+
+    @ConfigProperty(name = "journal.fsync-interval", defaultValue = "PT0.01S")
+    Duration fsyncInterval;
+
+    @ConfigProperty(name = "journal.drain.interval", defaultValue = "PT0.05S")
+    Duration drainInterval;
+
+    @ConfigProperty(name = "journal.drain.batch-size", defaultValue = "1000")
+    int drainBatchSize;
+
+    private TransactionJournalFile journalFile;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * name of the checkpoint of this instance's journal file
+     */
+    private String checkpoint;
+
+    /**
+     * written by the drain thread only, read by any thread
+     */
+    private volatile long drainedSequence;
+
+    @PostConstruct
+    void open() {
+        if (!enabled) {
+            return;
+        }
+        checkpoint = name + "@" + nodeId.orElseThrow(() -> new IllegalStateException(
+                "scheduler.node-id must be set when journal " + name + " is enabled, its checkpoint belongs to the journal file of this instance."));
+        try {
+            drainedSequence = journalDrainer.findCheckpoint(checkpoint);
+            journalFile = new TransactionJournalFile(directory, segmentSize, drainedSequence + 1);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("journal " + directory + " could not be opened.", exception);
+        }
+        logger.info("Journal " + name + " opened with " + (journalFile.getLastSequence() - drainedSequence) + " records to replay");
+        executor = Executors.newScheduledThreadPool(2, runnable -> new Thread(runnable, "journal-" + name));
+        executor.scheduleWithFixedDelay(journalFile::force, fsyncInterval.toNanos(), fsyncInterval.toNanos(), TimeUnit.NANOSECONDS);
+        executor.scheduleWithFixedDelay(this::drainAvailable, 0, drainInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    void close() {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(drainInterval.toMillis() + 1000, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            journalFile.close();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public long append(Transaction transaction) {
+        if (!enabled) {
+            throw new IllegalStateException("journal " + name + " is disabled.");
+        }
+        return journalFile.append(transaction.getAccountId(), transaction.getAmount(), transaction.getType(), transaction.getDate());
+    }
+
+    public long getDrainedSequence() {
+        return drainedSequence;
+    }
+
+    private void drainAvailable() {
+        ManagedContext requestContext = Arc.container().requestContext();
+        requestContext.activate();
+        try {
+            List<Transaction> transactions = new ArrayList<>(drainBatchSize);
+            while (drainedSequence < journalFile.getLastSequence()) {
+                transactions.clear();
+                long lastSequence = journalFile.read(drainedSequence, drainBatchSize, transactions);
+                drain(transactions, lastSequence);
+            }
+            journalFile.deleteDrainedSegments(drainedSequence);
+        } catch (IOException | RuntimeException exception) {
+            logger.error("Journal " + name + " drain stopped after record " + drainedSequence + ": " + exception.getMessage(), exception);
+        } finally {
+            requestContext.terminate();
+        }
+    }
+
+    /**
+     * drain the batch together, a batch refused because of a missing bank account is drained record by record
+     * so that only the records of missing accounts are skipped, any other failure stops draining until the next run
+     */
+    private void drain(List<Transaction> transactions, long lastSequence) {
+        try {
+            journalDrainer.drain(checkpoint, transactions, lastSequence);
+            drainedSequence = lastSequence;
+        } catch (NoSuchElementException batchException) {
+            long sequence = lastSequence - transactions.size();
+            for (Transaction transaction : transactions) {
+                sequence++;
+                try {
+                    journalDrainer.drain(checkpoint, List.of(transaction), sequence);
+                } catch (NoSuchElementException exception) {
+                    logger.error("Journal " + name + " record " + sequence + " skipped: " + exception.getMessage());
+                    journalDrainer.skip(checkpoint, sequence);
+                }
+                drainedSequence = sequence;
+            }
+        }
+    }
+}
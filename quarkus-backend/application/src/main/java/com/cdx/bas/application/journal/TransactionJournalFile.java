@@ -0,0 +1,256 @@
+package com.cdx.bas.application.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionStatus;
+import com.cdx.bas.domain.transaction.TransactionType;
+
+/***
+ * Append-only journal of incoming transactions in memory-mapped segment files.
+ * Records have a fixed size so that the record of a sequence number is found without scanning:
+ * sequence (8) | account id (8) | amount (8) | epoch second (8) | nano (4) | type (1) | CRC32 of the previous bytes (4).
+ * A segment file is named after the sequence of its first record, a new one is started when it is full.
+ * Appends are visible to readers as soon as they return, force() makes them durable.
+ *
+ * @author Clément Gibert
+ *
+ */
+public class TransactionJournalFile implements AutoCloseable {
+
+    static final int RECORD_SIZE = 41;
+
+    private static final int CHECKED_SIZE = RECORD_SIZE - Integer.BYTES;
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final Path directory;
+
+    private final int recordsPerSegment;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private final byte[] record = new byte[RECORD_SIZE];
+
+    private final ByteBuffer recordBuffer = ByteBuffer.wrap(record);
+
+    private final CRC32 appendChecksum = new CRC32();
+
+    private volatile Segment currentSegment;
+
+    private volatile long lastSequence;
+
+    /**
+     * open the journal of the directory, the valid records of its segments are kept and the next append follows the last of them
+     *
+     * @param directory of the segment files
+     * @param segmentSize size in bytes of a segment file
+     * @param firstSequence minimum sequence of the next record, the journal never reuses a sequence below it
+     */
+    public TransactionJournalFile(Path directory, int segmentSize, long firstSequence) throws IOException {
+        this.directory = directory;
+        this.recordsPerSegment = segmentSize / RECORD_SIZE;
+        if (recordsPerSegment < 1) {
+            throw new IllegalArgumentException("journal segment size must hold at least one record of " + RECORD_SIZE + " bytes.");
+        }
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))::iterator) {
+                String name = file.getFileName().toString();
+                long segmentFirstSequence = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(segmentFirstSequence, openSegment(segmentFirstSequence));
+            }
+        }
+        recover();
+        if (lastSequence < firstSequence - 1) {
+            lastSequence = firstSequence - 1;
+            currentSegment = null;
+        }
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @return sequence of the first record still in the journal
+     */
+    public long getFirstSequence() {
+        return segments.isEmpty() ? lastSequence + 1 : segments.firstKey();
+    }
+
+    /**
+     * append a record, allocation free when the current segment is not full
+     *
+     * @return sequence of the record
+     */
+    public long append(long accountId, long amount, TransactionType type, Instant date) {
+        appendLock.lock();
+        try {
+            long sequence = lastSequence + 1;
+            if (currentSegment == null || currentSegment.count == recordsPerSegment) {
+                roll(sequence);
+            }
+            recordBuffer.clear();
+            recordBuffer.putLong(sequence)
+                    .putLong(accountId)
+                    .putLong(amount)
+                    .putLong(date.getEpochSecond())
+                    .putInt(date.getNano())
+                    .put((byte) type.ordinal());
+            appendChecksum.reset();
+            appendChecksum.update(record, 0, CHECKED_SIZE);
+            recordBuffer.putInt((int) appendChecksum.getValue());
+            currentSegment.buffer.put(currentSegment.count * RECORD_SIZE, record);
+            currentSegment.count++;
+            lastSequence = sequence;
+            return sequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * read the WAITING transactions of the records following a sequence
+     *
+     * @param afterSequence sequence of the last record already read
+     * @param limit maximum number of records to read
+     * @param transactions where the read transactions are added, in sequence order
+     * @return sequence of the last record read, afterSequence if there is none
+     */
+    public long read(long afterSequence, int limit, List<Transaction> transactions) {
+        long last = Math.min(lastSequence, afterSequence + limit);
+        long sequence = afterSequence + 1;
+        while (sequence <= last) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(sequence);
+            if (entry == null) {
+                throw new IllegalStateException("journal record " + sequence + " has been deleted.");
+            }
+            Segment segment = entry.getValue();
+            int index = (int) (sequence - entry.getKey());
+            for (; index < recordsPerSegment && sequence <= last; index++, sequence++) {
+                transactions.add(readTransaction(segment.buffer, index * RECORD_SIZE));
+            }
+        }
+        return last;
+    }
+
+    /**
+     * make the appended records durable
+     */
+    public void force() {
+        Segment segment = currentSegment;
+        if (segment != null) {
+            segment.buffer.force();
+        }
+    }
+
+    /**
+     * delete the segment files of which all the records have been drained, except the current segment
+     *
+     * @param drainedSequence sequence of the last drained record
+     */
+    public void deleteDrainedSegments(long drainedSequence) throws IOException {
+        Map.Entry<Long, Segment> first;
+        while ((first = segments.firstEntry()) != null && first.getValue() != currentSegment
+                && first.getKey() + first.getValue().count - 1 <= drainedSequence) {
+            segments.remove(first.getKey());
+            Files.deleteIfExists(segmentPath(first.getKey()));
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    /**
+     * keep the records of each segment up to the first missing, torn or out of sequence record
+     */
+    private void recover() {
+        CRC32 checksum = new CRC32();
+        byte[] checked = new byte[CHECKED_SIZE];
+        for (Map.Entry<Long, Segment> entry : segments.entrySet()) {
+            Segment segment = entry.getValue();
+            long expected = entry.getKey();
+            while (segment.count < recordsPerSegment) {
+                int offset = segment.count * RECORD_SIZE;
+                segment.buffer.get(offset, checked);
+                checksum.reset();
+                checksum.update(checked);
+                if (segment.buffer.getLong(offset) != expected
+                        || segment.buffer.getInt(offset + CHECKED_SIZE) != (int) checksum.getValue()) {
+                    break;
+                }
+                segment.count++;
+                expected++;
+            }
+            if (segment.count > 0) {
+                lastSequence = expected - 1;
+            }
+            currentSegment = segment;
+        }
+    }
+
+    private void roll(long sequence) {
+        try {
+            if (currentSegment != null) {
+                currentSegment.buffer.force();
+            }
+            currentSegment = openSegment(sequence);
+            segments.put(sequence, currentSegment);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("journal segment " + sequence + " could not be created.", exception);
+        }
+    }
+
+    private Segment openSegment(long firstSequence) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(firstSequence),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE));
+        }
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%020d", firstSequence) + SEGMENT_SUFFIX);
+    }
+
+    private static Transaction readTransaction(MappedByteBuffer buffer, int offset) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(buffer.getLong(offset + 8));
+        transaction.setAmount(buffer.getLong(offset + 16));
+        transaction.setDate(Instant.ofEpochSecond(buffer.getLong(offset + 24), buffer.getInt(offset + 32)));
+        transaction.setType(TYPES[buffer.get(offset + 36)]);
+        transaction.setStatus(TransactionStatus.WAITING);
+        transaction.setLabel((TransactionType.CREDIT.equals(transaction.getType()) ? "deposit" : transaction.getType().name().toLowerCase())
+                + " of " + transaction.getAmount());
+        return transaction;
+    }
+
+    private static final class Segment {
+        private final MappedByteBuffer buffer;
+        private int count;
+
+        private Segment(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+}
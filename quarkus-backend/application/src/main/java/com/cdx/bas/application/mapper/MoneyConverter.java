@@ -0,0 +1,29 @@
+package com.cdx.bas.application.mapper;
+
+import java.math.BigDecimal;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+import com.cdx.bas.domain.money.Money;
+
+/***
+ * Lossless conversion between a DECIMAL column in currency units and Money in minor units,
+ * a column value with more decimals than the currency or out of the minor units range is rejected instead of rounded
+ * 
+ * @author Clément Gibert
+ *
+ */
+@Converter
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money != null ? money.getAmount() : null;
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal amount) {
+        return amount != null ? new Money(amount) : null;
+    }
+}
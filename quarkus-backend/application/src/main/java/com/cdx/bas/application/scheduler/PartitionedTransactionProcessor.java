@@ -0,0 +1,202 @@
+package com.cdx.bas.application.scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import com.cdx.bas.application.execution.BlockingExecution;
+import com.cdx.bas.application.execution.ExecutionMode;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionServicePort;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+
+/***
+ * Transaction processor sharding transactions by account on worker lanes.
+ * Each account is always routed to the same single threaded lane so its transactions
+ * are processed one at a time in queue order, while lanes of different accounts run in parallel.
+ * A lane commits up to scheduler.batch.size transactions together, waiting at most
+ * scheduler.batch.window for a batch to fill up.
+ * Lanes run on the threads of the execution mode and each batch holds a database permit while it is processed,
+ * in virtual mode there are as many lanes as database permits by default.
+ *
+ * @author Clément Gibert
+ *
+ */
+@ApplicationScoped
+public class PartitionedTransactionProcessor implements TransactionProcessor {
+
+    private static final Logger logger = Logger.getLogger(PartitionedTransactionProcessor.class);
+
+    @Inject
+    TransactionServicePort transactionService;
+
+    @Inject
+    BlockingExecution blockingExecution;
+
+    @ConfigProperty(name = "scheduler.lanes")
+    Optional<Integer> lanesProperty;
+
+    @ConfigProperty(name = "scheduler.batch.size", defaultValue = "1")
+    int batchSize;
+
+    @ConfigProperty(name = "scheduler.batch.window", defaultValue = "PT0.02S")
+    Duration batchWindow;
+
+    private Lane[] lanes;
+
+    @PostConstruct
+    void startLanes() {
+        int defaultLaneCount = blockingExecution.getMode() == ExecutionMode.VIRTUAL
+                ? blockingExecution.getDbPermitCount() : Runtime.getRuntime().availableProcessors();
+        int laneCount = Math.max(1, lanesProperty.orElse(defaultLaneCount));
+        batchSize = Math.max(1, batchSize);
+        lanes = new Lane[laneCount];
+        ThreadFactory laneThreadFactory = blockingExecution.threadFactory("transaction-lane-");
+        for (int index = 0; index < laneCount; index++) {
+            lanes[index] = new Lane(laneThreadFactory);
+        }
+        logger.info("Transaction processor started with " + laneCount + " lanes on " + blockingExecution.getMode().name().toLowerCase() 
+                + " threads and batches of " + batchSize);
+    }
+
+    @PreDestroy
+    void stopLanes() {
+        for (Lane lane : lanes) {
+            lane.stop();
+        }
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public void process(Queue<Transaction> transactions) {
+        List<CompletableFuture<Void>> submitted = new ArrayList<>(transactions.size());
+        Transaction transaction;
+        while ((transaction = transactions.poll()) != null) {
+            LaneItem item = new LaneItem(transaction);
+            laneOf(transaction).submit(item);
+            submitted.add(item.done);
+        }
+        CompletableFuture.allOf(submitted.toArray(new CompletableFuture[0])).join();
+    }
+
+    private Lane laneOf(Transaction transaction) {
+        long accountId = transaction.getAccountId() != null ? transaction.getAccountId() : 0L;
+        return lanes[Math.floorMod(Long.hashCode(accountId), lanes.length)];
+    }
+
+    private void processBatch(List<LaneItem> batch) {
+        ManagedContext requestContext = Arc.container().requestContext();
+        requestContext.activate();
+        try {
+            blockingExecution.runWithDbPermit(() -> {
+                if (batch.size() == 1) {
+                    processAlone(batch.get(0).transaction);
+                } else {
+                    processTogether(batch);
+                }
+            });
+        } finally {
+            requestContext.terminate();
+            batch.forEach(item -> item.done.complete(null));
+        }
+    }
+
+    private void processTogether(List<LaneItem> batch) {
+        try {
+            transactionService.processTransactions(batch.stream()
+                    .map(item -> item.transaction)
+                    .collect(Collectors.toList()));
+        } catch (RuntimeException exception) {
+            logger.warn("Batch of " + batch.size() + " transactions rolled back, processing them one by one: " + exception.getMessage());
+            batch.forEach(item -> processAlone(item.transaction));
+        }
+    }
+
+    private void processAlone(Transaction transaction) {
+        try {
+            transactionService.processTransaction(transaction);
+        } catch (RuntimeException exception) {
+            logger.error("Transaction " + transaction.getId() + " processing failed: " + exception.getMessage(), exception);
+        }
+    }
+
+    private static final class LaneItem {
+        private final Transaction transaction;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private LaneItem(Transaction transaction) {
+            this.transaction = transaction;
+        }
+    }
+
+    private final class Lane implements Runnable {
+        private final BlockingQueue<LaneItem> pending = new LinkedBlockingQueue<>();
+        private final Thread worker;
+
+        private Lane(ThreadFactory threadFactory) {
+            worker = threadFactory.newThread(this);
+            worker.start();
+        }
+
+        private void submit(LaneItem item) {
+            pending.add(item);
+        }
+
+        private void stop() {
+            worker.interrupt();
+        }
+
+        @Override
+        public void run() {
+            List<LaneItem> batch = new ArrayList<>(batchSize);
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    batch.add(pending.take());
+                    fillBatch(batch);
+                    processBatch(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void fillBatch(List<LaneItem> batch) throws InterruptedException {
+            pending.drainTo(batch, batchSize - batch.size());
+            long deadline = System.nanoTime() + batchWindow.toNanos();
+            while (batch.size() < batchSize) {
+                LaneItem next = pending.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    return;
+                }
+                batch.add(next);
+                pending.drainTo(batch, batchSize - batch.size());
+            }
+        }
+    }
+}
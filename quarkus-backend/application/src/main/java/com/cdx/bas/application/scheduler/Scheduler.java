@@ -1,5 +1,17 @@
 package com.cdx.bas.application.scheduler;
 
+import java.util.Optional;
+
 public interface Scheduler {
     public void processQueue();
+
+    /**
+     * @return owner of the leases of the claimed transactions, empty when the transactions are not claimed
+     */
+    public Optional<String> getLeaseOwner();
+
+    /**
+     * request an asynchronous processing of the queue, requests received while processing are coalesced
+     */
+    public void wakeUp();
 }
@@ -1,18 +1,35 @@
 package com.cdx.bas.application.scheduler;
 
-import java.util.PriorityQueue;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import com.cdx.bas.domain.transaction.Transaction;
 import com.cdx.bas.domain.transaction.TransactionPersistencePort;
-import com.cdx.bas.domain.transaction.TransactionServicePort;
+import com.cdx.bas.domain.transaction.TransactionQueuedEvent;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
 import io.quarkus.runtime.Startup;
 import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
 
 @Startup
 @Singleton
@@ -20,28 +37,124 @@ public class SchedulerImpl implements Scheduler {
 
     private static final Logger logger = Logger.getLogger(SchedulerImpl.class);
 
-    private static PriorityQueue<Transaction> currentQueue = new PriorityQueue<>();
+    private static final Comparator<Transaction> KEYSET_ORDER = Comparator.comparing(Transaction::getDate)
+            .thenComparing(Transaction::getId);
 
     @Inject
-    TransactionServicePort transactionService;
+    TransactionProcessor transactionProcessor;
 
     @Inject
     TransactionPersistencePort transactionRepository;
 
-    public PriorityQueue<Transaction> getCurrentQueue() {
-        return currentQueue;
+    @ConfigProperty(name = "scheduler.page-size", defaultValue = "500")
+    int pageSize;
+
+    @ConfigProperty(name = "scheduler.claim.enabled", defaultValue = "false")
+    boolean claimEnabled;
+
+    @ConfigProperty(name = "scheduler.claim.limit", defaultValue = "500")
+    int claimLimit;
+
+    @ConfigProperty(name = "scheduler.claim.lease", defaultValue = "PT1M")
+    Duration claimLease;
+
+    @ConfigProperty(name = "scheduler.node-id")
+    Optional<String> nodeIdProperty;
+
+    private final ReentrantLock processingLock = new ReentrantLock();
+
+    private final AtomicBoolean wakeUpRequested = new AtomicBoolean();
+
+    private ExecutorService wakeUpExecutor;
+
+    private String nodeId;
+
+    @PostConstruct
+    void init() {
+        nodeId = nodeIdProperty.orElseGet(() -> UUID.randomUUID().toString());
+        wakeUpExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "scheduler-wake-up"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        wakeUpExecutor.shutdownNow();
     }
 
-    @Scheduled(every = "5s")
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public Optional<String> getLeaseOwner() {
+        return claimEnabled ? Optional.of(nodeId) : Optional.empty();
+    }
+
+    @Scheduled(every = "{scheduler.sweep-interval}", concurrentExecution = ConcurrentExecution.SKIP)
     public void processQueue() {
-        logger.info("Scheduler start");
-        if (getCurrentQueue().isEmpty()) {
-            getCurrentQueue().addAll(transactionRepository.findUnprocessedTransactions());
-            logger.info("Queue size: " + currentQueue.size());
-            getCurrentQueue().forEach(transaction -> {
-                transactionService.processTransaction(transaction);
-            });
+        processingLock.lock();
+        try {
+            logger.info("Scheduler start");
+            if (claimEnabled) {
+                processClaimedQueues();
+            } else {
+                processPagedQueues();
+            }
+            logger.info("Scheduler end");
+        } finally {
+            processingLock.unlock();
+        }
+    }
+
+    @Override
+    public void wakeUp() {
+        if (wakeUpRequested.compareAndSet(false, true)) {
+            wakeUpExecutor.execute(this::processOnWakeUp);
         }
-        logger.info("Scheduler end");
     }
-}
\ No newline at end of file
+
+    void onTransactionQueued(@Observes(during = TransactionPhase.AFTER_SUCCESS) TransactionQueuedEvent event) {
+        wakeUp();
+    }
+
+    private void processOnWakeUp() {
+        wakeUpRequested.set(false);
+        ManagedContext requestContext = Arc.container().requestContext();
+        requestContext.activate();
+        try {
+            processQueue();
+        } catch (RuntimeException exception) {
+            logger.error("Scheduler wake up processing failed: " + exception.getMessage(), exception);
+        } finally {
+            requestContext.terminate();
+        }
+    }
+
+    private void processPagedQueues() {
+        Instant afterDate = null;
+        Long afterId = null;
+        int queueSize;
+        do {
+            Queue<Transaction> currentQueue = transactionRepository.findUnprocessedTransactions(afterDate, afterId, pageSize);
+            queueSize = currentQueue.size();
+            logger.info("Queue size: " + queueSize);
+            Optional<Transaction> lastTransaction = currentQueue.stream().max(KEYSET_ORDER);
+            if (lastTransaction.isPresent()) {
+                afterDate = lastTransaction.get().getDate();
+                afterId = lastTransaction.get().getId();
+                transactionProcessor.process(currentQueue);
+            }
+        } while (queueSize >= pageSize);
+    }
+
+    private void processClaimedQueues() {
+        int claimedSize;
+        do {
+            Queue<Transaction> claimedQueue = transactionRepository.claimUnprocessedTransactions(nodeId, claimLimit, claimLease);
+            claimedSize = claimedQueue.size();
+            logger.info("Claimed queue size: " + claimedSize);
+            if (claimedSize > 0) {
+                transactionProcessor.process(claimedQueue);
+            }
+        } while (claimedSize >= claimLimit);
+    }
+}
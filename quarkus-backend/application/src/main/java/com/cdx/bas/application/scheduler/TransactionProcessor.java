@@ -0,0 +1,15 @@
+package com.cdx.bas.application.scheduler;
+
+import java.util.Queue;
+
+import com.cdx.bas.domain.transaction.Transaction;
+
+public interface TransactionProcessor {
+
+    /**
+     * process all the transactions of the queue, keeping the queue order for each account
+     *
+     * @param transactions ordered queue of transactions to process
+     */
+    public void process(Queue<Transaction> transactions);
+}
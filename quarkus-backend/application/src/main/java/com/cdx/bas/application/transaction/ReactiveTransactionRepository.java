@@ -0,0 +1,190 @@
+package com.cdx.bas.application.transaction;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
+
+import com.cdx.bas.application.archive.TransactionArchive;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionQueuedEvent;
+import com.cdx.bas.domain.transaction.TransactionReactivePersistencePort;
+import com.cdx.bas.domain.transaction.TransactionStatus;
+import com.cdx.bas.domain.transaction.TransactionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.hibernate.MappingException;
+import org.jboss.logging.Logger;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.core.json.JsonObject;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import io.vertx.sqlclient.data.Numeric;
+
+/***
+ * non-blocking persistence implementation for Transaction, on the reactive Postgres client,
+ * used by the endpoints when the build property persistence.reactive.enabled is set
+ * 
+ * @author Clément Gibert
+ *
+ */
+@ApplicationScoped
+public class ReactiveTransactionRepository implements TransactionReactivePersistencePort {
+    
+    private static final Logger logger = Logger.getLogger(ReactiveTransactionRepository.class);
+    
+    private static final String COLUMNS = "transaction_id, account_id, type, amount, status, date, label, CAST(metadatas AS text)";
+    
+    private static final String FIND_BY_ID_QUERY = "SELECT " + COLUMNS + " FROM basapp.transactions WHERE transaction_id = $1";
+    
+    private static final String FIND_HISTORY_QUERY = "SELECT " + COLUMNS + " FROM basapp.transactions WHERE account_id = $1 "
+            + "ORDER BY date DESC, transaction_id DESC LIMIT $2";
+    
+    private static final String FIND_HISTORY_BEFORE_QUERY = "SELECT " + COLUMNS + " FROM basapp.transactions WHERE account_id = $1 "
+            + "AND (date, transaction_id) < ($3, $4) ORDER BY date DESC, transaction_id DESC LIMIT $2";
+    
+    private static final String CREATE_QUERY = "INSERT INTO basapp.transactions (transaction_id, account_id, type, amount, status, date, label, metadatas) "
+            + "VALUES (nextval('basapp.hibernate_sequence'), $1, $2, $3, $4, $5, $6, $7) RETURNING transaction_id";
+    
+    private static final String UPDATE_STATUS_QUERY = "UPDATE basapp.transactions SET status = $1, metadatas = $2 "
+            + "WHERE transaction_id = $3";
+    
+    private static final Comparator<Transaction> HISTORY_ORDER = Comparator.comparing(Transaction::getDate)
+            .thenComparing(Transaction::getId)
+            .reversed();
+    
+    @Inject
+    PgPool client;
+    
+    @Inject
+    TransactionArchive transactionArchive;
+    
+    @Inject
+    ObjectMapper objectMapper;
+    
+    @Inject
+    Event<TransactionQueuedEvent> transactionQueuedEvent;
+    
+    @Override
+    public Uni<Optional<Transaction>> findById(long id) {
+        return client.preparedQuery(FIND_BY_ID_QUERY).execute(Tuple.of(id))
+                .map(rows -> firstRow(rows).map(this::toTransaction));
+    }
+    
+    /**
+     * the page is read from the database, it is completed from the archive on a worker thread 
+     * when it is not full before the end of the archived months
+     */
+    @Override
+    public Multi<Transaction> findHistory(long accountId, Instant beforeDate, Long beforeId, int pageSize) {
+        Uni<RowSet<Row>> rows;
+        if (beforeDate == null || beforeId == null) {
+            rows = client.preparedQuery(FIND_HISTORY_QUERY).execute(Tuple.of(accountId, pageSize));
+        } else {
+            rows = client.preparedQuery(FIND_HISTORY_BEFORE_QUERY).execute(Tuple.of(accountId, pageSize, toLocalDateTime(beforeDate), beforeId));
+        }
+        return rows.map(this::toTransactions)
+                .chain(history -> {
+                    if (transactionArchive.isEmpty() || (history.size() == pageSize
+                            && !history.get(pageSize - 1).getDate().isBefore(transactionArchive.getEnd()))) {
+                        return Uni.createFrom().item(history);
+                    }
+                    return Uni.createFrom().item(() -> transactionArchive.findHistory(accountId, beforeDate, beforeId, pageSize))
+                            .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                            .map(archivedHistory -> {
+                                history.addAll(archivedHistory);
+                                history.sort(HISTORY_ORDER);
+                                return history.size() > pageSize ? history.subList(0, pageSize) : history;
+                            });
+                })
+                .onItem().transformToMulti(history -> Multi.createFrom().iterable(history));
+    }
+    
+    @Override
+    public Multi<Transaction> findRecentTransactions(long accountId, int count) {
+        return client.preparedQuery(FIND_HISTORY_QUERY).execute(Tuple.of(accountId, count))
+                .map(this::toTransactions)
+                .onItem().transformToMulti(history -> Multi.createFrom().iterable(history));
+    }
+    
+    @Override
+    public Uni<Transaction> create(Transaction transaction) {
+        Tuple values = Tuple.tuple()
+                .addLong(transaction.getAccountId())
+                .addString(transaction.getType().name())
+                .addValue(Numeric.create(transaction.getAmount()))
+                .addString(transaction.getStatus().name())
+                .addLocalDateTime(toLocalDateTime(transaction.getDate()))
+                .addString(transaction.getLabel())
+                .addJsonObject(toJson(transaction.getMetadatas()));
+        return client.preparedQuery(CREATE_QUERY).execute(values)
+                .map(rows -> {
+                    transaction.setId(rows.iterator().next().getLong(0));
+                    logger.info("Transaction " + transaction.getId() + " created");
+                    if (TransactionStatus.WAITING.equals(transaction.getStatus())) {
+                        transactionQueuedEvent.fire(new TransactionQueuedEvent(transaction.getAccountId()));
+                    }
+                    return transaction;
+                });
+    }
+    
+    @Override
+    public Uni<Void> updateStatus(long id, TransactionStatus status, Map<String, String> metadatas) {
+        return client.preparedQuery(UPDATE_STATUS_QUERY).execute(Tuple.of(status.name(), toJson(metadatas), id))
+                .invoke(() -> logger.info("Transaction " + id + " " + status))
+                .replaceWithVoid();
+    }
+    
+    private static Optional<Row> firstRow(RowSet<Row> rows) {
+        return rows.size() == 0 ? Optional.empty() : Optional.of(rows.iterator().next());
+    }
+    
+    private List<Transaction> toTransactions(RowSet<Row> rows) {
+        List<Transaction> transactions = new ArrayList<>(rows.size());
+        rows.forEach(row -> transactions.add(toTransaction(row)));
+        return transactions;
+    }
+    
+    private Transaction toTransaction(Row row) {
+        Transaction transaction = new Transaction();
+        transaction.setId(row.getLong(0));
+        transaction.setAccountId(row.getLong(1));
+        transaction.setType(TransactionType.valueOf(row.getString(2)));
+        transaction.setAmount(row.getBigDecimal(3).longValue());
+        transaction.setStatus(TransactionStatus.valueOf(row.getString(4)));
+        transaction.setDate(row.getLocalDateTime(5).atZone(ZoneId.systemDefault()).toInstant());
+        transaction.setLabel(row.getString(6));
+        try {
+            transaction.setMetadatas(row.getString(7) != null
+                    ? objectMapper.readValue(row.getString(7), new TypeReference<Map<String, String>>() {})
+                    : new HashMap<>());
+        } catch (JsonProcessingException exception) {
+            throw new MappingException("An error occured while parsing JSON String to Map<String, String>", exception);
+        }
+        return transaction;
+    }
+    
+    private static JsonObject toJson(Map<String, String> metadatas) {
+        return metadatas.isEmpty() ? null : new JsonObject(new HashMap<>(metadatas));
+    }
+    
+    static LocalDateTime toLocalDateTime(Instant date) {
+        return LocalDateTime.ofInstant(date, ZoneId.systemDefault());
+    }
+}
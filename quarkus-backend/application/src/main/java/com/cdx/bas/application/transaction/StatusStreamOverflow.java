@@ -0,0 +1,15 @@
+package com.cdx.bas.application.transaction;
+
+/**
+ * what happens to a subscriber whose buffer of status changes is full
+ */
+public enum StatusStreamOverflow {
+    /**
+     * the oldest buffered change is dropped to make room for the new one
+     */
+    DROP_OLDEST,
+    /**
+     * the subscriber is disconnected, it reads the current statuses again when it reconnects
+     */
+    DISCONNECT
+}
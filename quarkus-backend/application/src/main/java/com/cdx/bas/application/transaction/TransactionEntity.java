@@ -12,7 +12,6 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
-import javax.persistence.JoinTable;
 import javax.persistence.ManyToOne;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
@@ -31,7 +30,15 @@ import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 
 @Entity
 @Table(schema = "basapp", name = "transactions", uniqueConstraints = @UniqueConstraint(columnNames = "transaction_id"))
-@NamedQueries(@NamedQuery(name = "TransactionEntity.findUnprocessed", query = "SELECT t FROM TransactionEntity t WHERE t.status = :status ORDER BY t.date ASC"))
+@NamedQueries({
+    @NamedQuery(name = "TransactionEntity.findUnprocessed", query = "SELECT t FROM TransactionEntity t WHERE t.status = :status ORDER BY t.date ASC, t.id ASC"),
+    @NamedQuery(name = "TransactionEntity.findUnprocessedAfter", query = "SELECT t FROM TransactionEntity t WHERE t.status = :status "
+            + "AND (t.date > :date OR (t.date = :date AND t.id > :id)) ORDER BY t.date ASC, t.id ASC"),
+    @NamedQuery(name = "TransactionEntity.findHistory", query = "SELECT t FROM TransactionEntity t WHERE t.account.id = :accountId "
+            + "ORDER BY t.date DESC, t.id DESC"),
+    @NamedQuery(name = "TransactionEntity.findHistoryBefore", query = "SELECT t FROM TransactionEntity t WHERE t.account.id = :accountId "
+            + "AND (t.date < :date OR (t.date = :date AND t.id < :id)) ORDER BY t.date DESC, t.id DESC")
+})
 @TypeDef(name = "jsonb", typeClass = JsonType.class)
 public class TransactionEntity extends PanacheEntityBase {
     
@@ -41,7 +48,7 @@ public class TransactionEntity extends PanacheEntityBase {
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinTable(name = "bank_accounts_transactions", joinColumns = @JoinColumn(name = "transaction_id"), inverseJoinColumns = @JoinColumn(name = "account_id"))
+    @JoinColumn(name = "account_id", nullable = false)
     private BankAccountEntity account;
     
     @Column(name = "amount", nullable = false)
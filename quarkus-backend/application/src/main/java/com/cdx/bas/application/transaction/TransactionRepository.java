@@ -1,20 +1,52 @@
 package com.cdx.bas.application.transaction;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
+import javax.persistence.Query;
+import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
 
+import com.cdx.bas.application.archive.TransactionArchive;
 import com.cdx.bas.application.mapper.DtoEntityMapper;
 import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionException;
+import com.cdx.bas.domain.transaction.TransactionHistoryFilter;
 import com.cdx.bas.domain.transaction.TransactionPersistencePort;
+import com.cdx.bas.domain.transaction.TransactionQueuedEvent;
 import com.cdx.bas.domain.transaction.TransactionStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.MappingException;
+import org.hibernate.Session;
+import org.hibernate.jpa.TypedParameterValue;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StringType;
 import org.jboss.logging.Logger;
 
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import io.quarkus.panache.common.Parameters;
 
@@ -29,9 +61,61 @@ public class TransactionRepository implements TransactionPersistencePort, Panach
     
     private static final Logger logger = Logger.getLogger(TransactionRepository.class);
     
+    private static final String CLAIM_UNPROCESSED_QUERY = "UPDATE basapp.transactions "
+            + "SET lease_owner = :owner, lease_expiration = now() + make_interval(secs => :leaseSeconds) "
+            + "WHERE transaction_id IN (SELECT transaction_id FROM basapp.transactions "
+            + "WHERE status = 'WAITING' AND (lease_expiration IS NULL OR lease_expiration < now()) "
+            + "ORDER BY date, transaction_id LIMIT :limit FOR UPDATE SKIP LOCKED) "
+            + "RETURNING transaction_id";
+    
+    private static final String LOCK_FOR_PROCESSING_QUERY = "SELECT transaction_id FROM basapp.transactions "
+            + "WHERE transaction_id = :id AND status = 'WAITING' AND (CAST(:owner AS varchar) IS NULL OR lease_owner = :owner) "
+            + "FOR UPDATE";
+    
+    private static final String UPDATE_STATUS_QUERY = "UPDATE basapp.transactions "
+            + "SET status = :status, metadatas = CAST(:metadatas AS jsonb) "
+            + "WHERE transaction_id = :id";
+    
+    private static final Comparator<Transaction> HISTORY_ORDER = Comparator.comparing(Transaction::getDate)
+            .thenComparing(Transaction::getId)
+            .reversed();
+    
+    private static final String LOCK_IDEMPOTENCY_KEY_QUERY = "SELECT count(*) FROM pg_advisory_xact_lock(hashtext(:key))";
+    
+    private static final String FIND_IDEMPOTENCY_KEY_QUERY = "SELECT transaction_id FROM basapp.transaction_idempotency_keys "
+            + "WHERE idempotency_key = :key";
+    
+    private static final String SAVE_IDEMPOTENCY_KEY_QUERY = "INSERT INTO basapp.transaction_idempotency_keys (idempotency_key, transaction_id) "
+            + "VALUES (:key, :id)";
+    
+    /**
+     * the ids are bound as one array, whatever their number, instead of one parameter each
+     */
+    private static final String FIND_EXISTING_ACCOUNTS_QUERY = "SELECT account_id FROM basapp.bank_accounts WHERE account_id = ANY(?)";
+    
+    private static final String NEXT_IDS_QUERY = "SELECT nextval('basapp.hibernate_sequence') FROM generate_series(1, :count)";
+    
+    private static final String INSERT_QUERY = "INSERT INTO basapp.transactions (transaction_id, account_id, type, amount, status, date, label, metadatas) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    
     @Inject
     private DtoEntityMapper<Transaction, TransactionEntity> transactionMapper;
 
+    @Inject
+    Event<TransactionQueuedEvent> transactionQueuedEvent;
+
+    @Inject
+    TransactionArchive transactionArchive;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    TransactionRowMapper transactionRowMapper;
+
+    @ConfigProperty(name = "quarkus.hibernate-orm.jdbc.statement-batch-size", defaultValue = "50")
+    int batchSize;
+
     @Override
     public Optional<Transaction> findById(long id) {
         return findByIdOptional(id).map(transactionMapper::toDto);
@@ -45,10 +129,294 @@ public class TransactionRepository implements TransactionPersistencePort, Panach
                 .collect(Collectors.toCollection(PriorityQueue::new));
     }
 
+    @Override
+    public Queue<Transaction> findUnprocessedTransactions(Instant afterDate, Long afterId, int pageSize) {
+        PanacheQuery<TransactionEntity> query;
+        if (afterDate == null || afterId == null) {
+            query = find("#TransactionEntity.findUnprocessed", Parameters.with("status", TransactionStatus.WAITING).map());
+        } else {
+            query = find("#TransactionEntity.findUnprocessedAfter", Parameters.with("status", TransactionStatus.WAITING)
+                    .and("date", afterDate)
+                    .and("id", afterId).map());
+        }
+        return query.range(0, pageSize - 1).list()
+                .stream().map(transactionMapper::toDto)
+                .collect(Collectors.toCollection(PriorityQueue::new));
+    }
+
+    @Override
+    public List<Transaction> findHistory(long accountId, Instant beforeDate, Long beforeId, int pageSize) {
+        List<Transaction> history = findStoredHistory(accountId, beforeDate, beforeId, pageSize);
+        return completeWithArchive(history, accountId, TransactionHistoryFilter.ALL, beforeDate, beforeId, pageSize);
+    }
+
+    @Override
+    public List<Transaction> findRecentTransactions(long accountId, int count) {
+        return findStoredHistory(accountId, null, null, count);
+    }
+
+    private List<Transaction> findStoredHistory(long accountId, Instant beforeDate, Long beforeId, int pageSize) {
+        PanacheQuery<TransactionEntity> query;
+        if (beforeDate == null || beforeId == null) {
+            query = find("#TransactionEntity.findHistory", Parameters.with("accountId", accountId).map());
+        } else {
+            query = find("#TransactionEntity.findHistoryBefore", Parameters.with("accountId", accountId)
+                    .and("date", beforeDate)
+                    .and("id", beforeId).map());
+        }
+        return query.range(0, pageSize - 1).list()
+                .stream().map(transactionMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * the filters are added to the query of the page, which stays a range scan of the (account_id, date, transaction_id) index.
+     * Outside of a transaction the page is read in its own one, so that its connection is released once it is read
+     */
+    @Override
+    @Transactional
+    public List<Transaction> findHistory(long accountId, TransactionHistoryFilter filter, Instant beforeDate, Long beforeId, int pageSize) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(TransactionRowMapper.COLUMNS)
+                .append(" FROM basapp.transactions WHERE account_id = :accountId");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("accountId", accountId);
+        if (filter.getFrom() != null) {
+            sql.append(" AND date >= :from");
+            parameters.put("from", Timestamp.from(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND date < :to");
+            parameters.put("to", Timestamp.from(filter.getTo()));
+        }
+        if (!filter.getStatuses().isEmpty()) {
+            sql.append(" AND status IN (:statuses)");
+            parameters.put("statuses", filter.getStatuses().stream().map(TransactionStatus::name).collect(Collectors.toList()));
+        }
+        if (beforeDate != null && beforeId != null) {
+            sql.append(" AND (date < :beforeDate OR (date = :beforeDate AND transaction_id < :beforeId))");
+            parameters.put("beforeDate", Timestamp.from(beforeDate));
+            parameters.put("beforeId", beforeId);
+        }
+        sql.append(" ORDER BY date DESC, transaction_id DESC LIMIT :limit");
+        parameters.put("limit", pageSize);
+        Query query = getEntityManager().createNativeQuery(sql.toString());
+        parameters.forEach(query::setParameter);
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        List<Transaction> history = rows.stream()
+                .map(transactionRowMapper::toDto)
+                .collect(Collectors.toList());
+        return completeWithArchive(history, accountId, filter, beforeDate, beforeId, pageSize);
+    }
+
+    /**
+     * the archive is read when the page is not filled with stored transactions, or when it ends before the last archived month
+     */
+    private List<Transaction> completeWithArchive(List<Transaction> history, long accountId, TransactionHistoryFilter filter, 
+            Instant beforeDate, Long beforeId, int pageSize) {
+        if (transactionArchive.isEmpty() || (history.size() == pageSize
+                && !history.get(pageSize - 1).getDate().isBefore(transactionArchive.getEnd()))) {
+            return history;
+        }
+        history.addAll(transactionArchive.findHistory(accountId, filter, beforeDate, beforeId, pageSize));
+        history.sort(HISTORY_ORDER);
+        return history.size() > pageSize ? new ArrayList<>(history.subList(0, pageSize)) : history;
+    }
+
+    @Override
+    @Transactional(value = TxType.REQUIRES_NEW)
+    public Queue<Transaction> claimUnprocessedTransactions(String owner, int limit, Duration lease) {
+        @SuppressWarnings("unchecked")
+        List<Number> claimedIds = getEntityManager().createNativeQuery(CLAIM_UNPROCESSED_QUERY)
+                .setParameter("owner", owner)
+                .setParameter("leaseSeconds", lease.toMillis() / 1000.0)
+                .setParameter("limit", limit)
+                .getResultList();
+        if (claimedIds.isEmpty()) {
+            return new PriorityQueue<>();
+        }
+        logger.info(claimedIds.size() + " transactions claimed by " + owner);
+        return list("id in ?1", claimedIds.stream().map(Number::longValue).collect(Collectors.toList()))
+                .stream().map(transactionMapper::toDto)
+                .collect(Collectors.toCollection(PriorityQueue::new));
+    }
+
+    /**
+     * the row stays locked until the processing commits, so that a claim by another owner skips it and a concurrent
+     * lock waits for it and then finds it processed
+     */
+    @Override
+    @Transactional(value = TxType.MANDATORY)
+    public boolean lockForProcessing(long id, String owner) {
+        boolean locked = !getEntityManager().createNativeQuery(LOCK_FOR_PROCESSING_QUERY)
+                .setParameter("id", id)
+                .setParameter("owner", new TypedParameterValue(StringType.INSTANCE, owner))
+                .getResultList().isEmpty();
+        if (!locked) {
+            logger.warn("Transaction " + id + " skipped, it is no longer waiting for " + (owner != null ? owner : "processing"));
+        }
+        return locked;
+    }
+
     @Override
     public Transaction create(Transaction transaction) {
         persist(transactionMapper.toEntity(transaction));
         logger.info("Transaction " + transaction.getId() + " created");
+        if (TransactionStatus.WAITING.equals(transaction.getStatus())) {
+            transactionQueuedEvent.fire(new TransactionQueuedEvent(transaction.getAccountId()));
+        }
+        return transaction;
+    }
+
+    @Override
+    public List<Transaction> createAll(List<Transaction> transactions) {
+        transactions.forEach(transaction -> persist(transactionMapper.toEntity(transaction)));
+        logger.info(transactions.size() + " transactions created");
+        transactions.stream()
+                .filter(transaction -> TransactionStatus.WAITING.equals(transaction.getStatus()))
+                .map(Transaction::getAccountId)
+                .distinct()
+                .forEach(accountId -> transactionQueuedEvent.fire(new TransactionQueuedEvent(accountId)));
+        return transactions;
+    }
+
+    /**
+     * the existing bank accounts are checked with one query and the ids are drawn from the sequence with another one,
+     * then the transactions are inserted by JDBC batches of quarkus.hibernate-orm.jdbc.statement-batch-size rows
+     * without going through the persistence context
+     */
+    @Override
+    @Transactional
+    public List<Transaction> createBatch(List<Transaction> transactions) {
+        Set<Long> accountIds = findExistingAccountIds(transactions);
+        List<Transaction> createdTransactions = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            if (accountIds.contains(transaction.getAccountId())) {
+                createdTransactions.add(transaction);
+            } else {
+                transaction.setStatus(TransactionStatus.REFUSED);
+                transaction.getMetadatas().put("error", "bank account " + transaction.getAccountId() + " not found.");
+            }
+        }
+        if (createdTransactions.isEmpty()) {
+            return transactions;
+        }
+        List<Long> ids = nextIds(createdTransactions.size());
+        for (int index = 0; index < createdTransactions.size(); index++) {
+            createdTransactions.get(index).setId(ids.get(index));
+        }
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_QUERY)) {
+                int batchedRows = 0;
+                for (Transaction transaction : createdTransactions) {
+                    bindInsert(statement, transaction);
+                    statement.addBatch();
+                    if (++batchedRows % batchSize == 0) {
+                        statement.executeBatch();
+                    }
+                }
+                if (batchedRows % batchSize != 0) {
+                    statement.executeBatch();
+                }
+            }
+        });
+        logger.info(createdTransactions.size() + " transactions created in batches of " + batchSize);
+        createdTransactions.stream()
+                .map(Transaction::getAccountId)
+                .distinct()
+                .forEach(accountId -> transactionQueuedEvent.fire(new TransactionQueuedEvent(accountId)));
+        return transactions;
+    }
+
+    private Set<Long> findExistingAccountIds(List<Transaction> transactions) {
+        Set<Long> requestedIds = transactions.stream()
+                .map(Transaction::getAccountId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existingIds = new HashSet<>();
+        if (requestedIds.isEmpty()) {
+            return existingIds;
+        }
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(FIND_EXISTING_ACCOUNTS_QUERY)) {
+                statement.setArray(1, connection.createArrayOf("bigint", requestedIds.toArray()));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        existingIds.add(resultSet.getLong(1));
+                    }
+                }
+            }
+        });
+        return existingIds;
+    }
+
+    private List<Long> nextIds(int count) {
+        @SuppressWarnings("unchecked")
+        List<Number> ids = getEntityManager().createNativeQuery(NEXT_IDS_QUERY)
+                .setParameter("count", count)
+                .getResultList();
+        return ids.stream()
+                .map(Number::longValue)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private void bindInsert(PreparedStatement statement, Transaction transaction) throws SQLException {
+        statement.setLong(1, transaction.getId());
+        statement.setLong(2, transaction.getAccountId());
+        statement.setString(3, transaction.getType().name());
+        statement.setLong(4, transaction.getAmount());
+        statement.setString(5, transaction.getStatus().name());
+        statement.setTimestamp(6, Timestamp.from(transaction.getDate()));
+        statement.setString(7, transaction.getLabel());
+        try {
+            if (transaction.getMetadatas().isEmpty()) {
+                statement.setNull(8, Types.OTHER);
+            } else {
+                statement.setObject(8, objectMapper.writeValueAsString(transaction.getMetadatas()), Types.OTHER);
+            }
+        } catch (JsonProcessingException exception) {
+            throw new MappingException("An error occured while parsing Map<String, String> to JSON String", exception);
+        }
+    }
+
+    /**
+     * requests with the same key wait for each other on a transaction-level advisory lock, so that a retry sent
+     * while the first request is still running finds its transaction instead of breaking the unique key constraint
+     */
+    @Override
+    @Transactional
+    public Transaction createOnce(Transaction transaction, String idempotencyKey) {
+        getEntityManager().createNativeQuery(LOCK_IDEMPOTENCY_KEY_QUERY)
+                .setParameter("key", idempotencyKey)
+                .getSingleResult();
+        @SuppressWarnings("unchecked")
+        List<Number> firstIds = getEntityManager().createNativeQuery(FIND_IDEMPOTENCY_KEY_QUERY)
+                .setParameter("key", idempotencyKey)
+                .getResultList();
+        if (!firstIds.isEmpty()) {
+            Transaction firstTransaction = findById(firstIds.get(0).longValue())
+                    .orElseThrow(() -> new TransactionException("idempotency key " + idempotencyKey + " used for transaction " + firstIds.get(0) + " which no longer exists."));
+            if (!Objects.equals(firstTransaction.getAccountId(), transaction.getAccountId())
+                    || firstTransaction.getAmount() != transaction.getAmount()
+                    || firstTransaction.getType() != transaction.getType()) {
+                throw new TransactionException("idempotency key " + idempotencyKey + " already used for transaction " + firstTransaction.getId() + ".");
+            }
+            logger.info("Transaction " + firstTransaction.getId() + " replayed for idempotency key " + idempotencyKey);
+            return firstTransaction;
+        }
+        TransactionEntity entity = transactionMapper.toEntity(transaction);
+        persist(entity);
+        transaction.setId(entity.getId());
+        getEntityManager().createNativeQuery(SAVE_IDEMPOTENCY_KEY_QUERY)
+                .unwrap(NativeQuery.class).addSynchronizedQuerySpace("basapp.transaction_idempotency_keys")
+                .setParameter("key", idempotencyKey)
+                .setParameter("id", entity.getId())
+                .executeUpdate();
+        logger.info("Transaction " + transaction.getId() + " created for idempotency key " + idempotencyKey);
+        if (TransactionStatus.WAITING.equals(transaction.getStatus())) {
+            transactionQueuedEvent.fire(new TransactionQueuedEvent(transaction.getAccountId()));
+        }
         return transaction;
     }
 
@@ -59,6 +427,26 @@ public class TransactionRepository implements TransactionPersistencePort, Panach
         return transaction;
     }
 
+    @Override
+    @Transactional
+    public void updateStatus(long id, TransactionStatus status, Map<String, String> metadatas) {
+        String jsonMetadatas = null;
+        try {
+            if (!metadatas.isEmpty()) {
+                jsonMetadatas = objectMapper.writeValueAsString(metadatas);
+            }
+        } catch (JsonProcessingException exception) {
+            throw new MappingException("An error occured while parsing Map<String, String> to JSON String", exception);
+        }
+        getEntityManager().createNativeQuery(UPDATE_STATUS_QUERY)
+                .unwrap(NativeQuery.class).addSynchronizedEntityClass(TransactionEntity.class)
+                .setParameter("status", status.name())
+                .setParameter("metadatas", new TypedParameterValue(StringType.INSTANCE, jsonMetadatas))
+                .setParameter("id", id)
+                .executeUpdate();
+        logger.info("Transaction " + id + " " + status);
+    }
+
     @Override
     public Optional<Transaction> deleteById(long id) {
         Optional<TransactionEntity> entityOptional = findByIdOptional(id);
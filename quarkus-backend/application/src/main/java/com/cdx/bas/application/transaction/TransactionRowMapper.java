@@ -0,0 +1,52 @@
+package com.cdx.bas.application.transaction;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionStatus;
+import com.cdx.bas.domain.transaction.TransactionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.hibernate.MappingException;
+
+/***
+ * Transactions read by native queries as rows of COLUMNS, without entities in the persistence context.
+ *
+ * @author Clément Gibert
+ *
+ */
+@ApplicationScoped
+public class TransactionRowMapper {
+
+    public static final String COLUMNS = "transaction_id, account_id, type, amount, status, date, label, CAST(metadatas AS text)";
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    public Transaction toDto(Object[] row) {
+        Transaction transaction = new Transaction();
+        transaction.setId(((Number) row[0]).longValue());
+        transaction.setAccountId(((Number) row[1]).longValue());
+        transaction.setType(TransactionType.valueOf((String) row[2]));
+        transaction.setAmount(((BigDecimal) row[3]).longValue());
+        transaction.setStatus(TransactionStatus.valueOf((String) row[4]));
+        transaction.setDate(((Timestamp) row[5]).toInstant());
+        transaction.setLabel((String) row[6]);
+        try {
+            transaction.setMetadatas(row[7] != null
+                    ? objectMapper.readValue((String) row[7], new TypeReference<Map<String, String>>() {})
+                    : new HashMap<>());
+        } catch (JsonProcessingException exception) {
+            throw new MappingException("An error occured while parsing JSON String to Map<String, String>", exception);
+        }
+        return transaction;
+    }
+}
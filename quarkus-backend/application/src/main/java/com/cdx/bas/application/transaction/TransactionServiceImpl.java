@@ -1,17 +1,21 @@
 package com.cdx.bas.application.transaction;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
 import javax.transaction.Transactional.TxType;
 
+import com.cdx.bas.application.scheduler.Scheduler;
 import com.cdx.bas.domain.bank.account.BankAccountServicePort;
 import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionCollection;
 import com.cdx.bas.domain.transaction.TransactionException;
 import com.cdx.bas.domain.transaction.TransactionPersistencePort;
 import com.cdx.bas.domain.transaction.TransactionServicePort;
@@ -32,6 +36,9 @@ public class TransactionServiceImpl implements TransactionServicePort {
     @Inject
     BankAccountServicePort bankAccountService;
     
+    @Inject
+    Scheduler scheduler;
+    
     public List<Transaction> findAll() {
 //        return transactionRepository.findAll().stream().map(null);
         return new ArrayList<>();
@@ -40,6 +47,81 @@ public class TransactionServiceImpl implements TransactionServicePort {
     @Override
     @Transactional(value = TxType.REQUIRES_NEW)
     public void processTransaction(Transaction transaction) {
+        if (lockForProcessing(transaction)) {
+            process(transaction);
+        }
+    }
+    
+    @Override
+    @Transactional(value = TxType.REQUIRES_NEW)
+    public void processTransactions(List<Transaction> transactions) {
+        logger.info("Batch of " + transactions.size() + " transactions processing...");
+        List<Transaction> credits = transactions.stream()
+                .filter(transaction -> TransactionType.CREDIT.equals(transaction.getType()))
+                .filter(this::lockForProcessing)
+                .collect(Collectors.toList());
+        if (!credits.isEmpty()) {
+            bankAccountService.deposits(credits);
+        }
+    }
+    
+    /**
+     * the deposits are grouped by bank account so that the transactions of an account get consecutive ids,
+     * a same date is given to all of them so that each account processes its deposits in request order
+     */
+    @Override
+    public List<Transaction> queueDeposits(List<Transaction> deposits) {
+        Instant date = Instant.now();
+        List<Transaction> transactions = new ArrayList<>(deposits.size());
+        Map<Long, List<Transaction>> depositsByAccount = new LinkedHashMap<>();
+        for (Transaction deposit : deposits) {
+            Transaction transaction = new Transaction();
+            transaction.setAccountId(deposit.getAccountId());
+            transaction.setAmount(deposit.getAmount());
+            transaction.setType(deposit.getType() != null ? deposit.getType() : TransactionType.CREDIT);
+            transaction.setStatus(TransactionStatus.WAITING);
+            transaction.setDate(date);
+            transaction.setLabel(deposit.getLabel() != null ? deposit.getLabel() : "deposit of " + deposit.getAmount());
+            String refusal = findRefusal(transaction);
+            if (refusal != null) {
+                transaction.setStatus(TransactionStatus.REFUSED);
+                transaction.getMetadatas().put("error", refusal);
+            } else {
+                depositsByAccount.computeIfAbsent(transaction.getAccountId(), accountId -> new ArrayList<>()).add(transaction);
+            }
+            transactions.add(transaction);
+        }
+        if (!depositsByAccount.isEmpty()) {
+            transactionRepository.createBatch(depositsByAccount.values().stream()
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList()));
+        }
+        logger.info(deposits.size() + " deposits queued on " + depositsByAccount.size() + " bank accounts");
+        return transactions;
+    }
+    
+    private static String findRefusal(Transaction transaction) {
+        if (transaction.getAccountId() == null) {
+            return "bank account must not be null.";
+        }
+        if (!TransactionType.CREDIT.equals(transaction.getType())) {
+            return "only CREDIT transactions are accepted as deposits.";
+        }
+        if (transaction.getAmount() < 1) {
+            return "amount must be positive and greater than 0.";
+        }
+        return null;
+    }
+    
+    /**
+     * the transaction is checked and locked in the processing transaction, before anything is posted, so that a transaction
+     * claimed again by another scheduler instance once its lease expired is processed only once
+     */
+    private boolean lockForProcessing(Transaction transaction) {
+        return transactionRepository.lockForProcessing(transaction.getId(), scheduler.getLeaseOwner().orElse(null));
+    }
+    
+    private void process(Transaction transaction) {
         if (TransactionType.CREDIT.equals(transaction.getType())) {
             logger.info("Transaction " +  transaction.getAccountId() + " processing...");
             bankAccountService.deposit(transaction);
@@ -47,12 +129,9 @@ public class TransactionServiceImpl implements TransactionServicePort {
     }
 
 	@Override
-	public Transaction extractTransactionFromCollection(Long transactionId, Set<Transaction> transactions) {
-		Transaction extractedTransaction = transactions.stream()
-		.filter(transaction -> transaction.getId().equals(transactionId))
-		.findFirst().orElseThrow(() -> new TransactionException("Transaction " + transactionId + " not found in the bank account."));
-		transactions.remove(extractedTransaction);
-		return extractedTransaction;
+	public Transaction extractTransactionFromCollection(Long transactionId, TransactionCollection transactions) {
+		return transactions.removeById(transactionId)
+		        .orElseThrow(() -> new TransactionException("Transaction " + transactionId + " not found in the bank account."));
 	}
 	
 	@Override
@@ -0,0 +1,266 @@
+package com.cdx.bas.application.transaction;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+
+import com.cdx.bas.application.execution.BlockingExecution;
+import com.cdx.bas.domain.transaction.TransactionStatusChangedEvent;
+import com.cdx.bas.domain.transaction.TransactionStatusStreamPort;
+import com.cdx.bas.domain.transaction.TransactionStatusSubscriber;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+
+/***
+ * Sends the committed status changes of the transactions to the subscribers of their bank account.
+ * Publishing a change never waits for a subscriber: each subscriber has a buffer of at most status-stream.buffer-size changes
+ * sent one at a time, each send being chained on the completion of the previous one so that no thread waits for a subscriber
+ * and a slow subscriber only delays its own changes.
+ * When the buffer of a subscriber is full, status-stream.overflow drops its oldest change or disconnects it,
+ * and a subscriber taking more than status-stream.send-timeout to receive a change is disconnected.
+ * Idle subscribers are sent a keep-alive every status-stream.keep-alive-interval so that lost connections are removed.
+ *
+ * @author Clément Gibert
+ *
+ */
+@ApplicationScoped
+public class TransactionStatusBroadcaster implements TransactionStatusStreamPort {
+
+    private static final Logger logger = Logger.getLogger(TransactionStatusBroadcaster.class);
+
+    @Inject
+    BlockingExecution blockingExecution;
+
+    @ConfigProperty(name = "status-stream.buffer-size", defaultValue = "64")
+    int bufferSize;
+
+    @ConfigProperty(name = "status-stream.overflow", defaultValue = "drop-oldest")
+    StatusStreamOverflow overflow;
+
+    @ConfigProperty(name = "status-stream.send-timeout", defaultValue = "PT30S")
+    Duration sendTimeout;
+
+    private final Map<Long, Set<Subscription>> subscriptionsByAccount = new ConcurrentHashMap<>();
+
+    private ExecutorService deliveryExecutor;
+
+    @PostConstruct
+    void init() {
+        bufferSize = Math.max(1, bufferSize);
+        deliveryExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                blockingExecution.threadFactory("status-stream-"));
+    }
+
+    @PreDestroy
+    void stop() {
+        subscriptionsByAccount.values().forEach(subscriptions -> subscriptions.forEach(Subscription::close));
+        deliveryExecutor.shutdownNow();
+    }
+
+    @Override
+    public void subscribe(long accountId, TransactionStatusSubscriber subscriber) {
+        Subscription subscription = new Subscription(accountId, subscriber);
+        subscriptionsByAccount.compute(accountId, (id, subscriptions) -> {
+            Set<Subscription> accountSubscriptions = subscriptions != null ? subscriptions : ConcurrentHashMap.newKeySet();
+            accountSubscriptions.add(subscription);
+            return accountSubscriptions;
+        });
+        logger.debug("BankAccount " + accountId + " status stream subscribed");
+    }
+
+    @Override
+    public void unsubscribe(long accountId, TransactionStatusSubscriber subscriber) {
+        Set<Subscription> subscriptions = subscriptionsByAccount.get(accountId);
+        if (subscriptions != null) {
+            subscriptions.stream()
+                    .filter(subscription -> subscription.subscriber == subscriber)
+                    .forEach(Subscription::close);
+        }
+    }
+
+    void onTransactionStatusChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) TransactionStatusChangedEvent event) {
+        publish(event);
+    }
+
+    /**
+     * buffer a change for each subscriber of its bank account, without waiting for them
+     */
+    public void publish(TransactionStatusChangedEvent event) {
+        Set<Subscription> subscriptions = subscriptionsByAccount.get(event.getAccountId());
+        if (subscriptions != null) {
+            subscriptions.forEach(subscription -> subscription.offer(event));
+        }
+    }
+
+    @Scheduled(every = "{status-stream.keep-alive-interval}", concurrentExecution = ConcurrentExecution.SKIP)
+    void keepAlive() {
+        subscriptionsByAccount.values().forEach(subscriptions -> subscriptions.forEach(Subscription::keepAlive));
+    }
+
+    public int getSubscriberCount(long accountId) {
+        Set<Subscription> subscriptions = subscriptionsByAccount.get(accountId);
+        return subscriptions != null ? subscriptions.size() : 0;
+    }
+
+    private void remove(Subscription subscription) {
+        subscriptionsByAccount.computeIfPresent(subscription.accountId, (id, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+
+    /**
+     * buffer of a subscriber, at most one change is being sent at a time
+     */
+    private final class Subscription {
+
+        private final long accountId;
+
+        private final TransactionStatusSubscriber subscriber;
+
+        private final Deque<TransactionStatusChangedEvent> buffer = new ArrayDeque<>();
+
+        private boolean delivering;
+
+        private boolean closed;
+
+        private long droppedCount;
+
+        private Subscription(long accountId, TransactionStatusSubscriber subscriber) {
+            this.accountId = accountId;
+            this.subscriber = subscriber;
+        }
+
+        private synchronized void offer(TransactionStatusChangedEvent event) {
+            if (closed) {
+                return;
+            }
+            if (buffer.size() >= bufferSize) {
+                if (overflow == StatusStreamOverflow.DISCONNECT) {
+                    logger.warn("BankAccount " + accountId + " status stream subscriber disconnected, " + bufferSize + " changes are waiting");
+                    close();
+                    return;
+                }
+                buffer.removeFirst();
+                droppedCount++;
+            }
+            buffer.addLast(event);
+            if (!delivering) {
+                delivering = true;
+                deliveryExecutor.execute(() -> deliver(CompletableFuture.completedFuture(null)));
+            }
+        }
+
+        private synchronized void keepAlive() {
+            if (!closed && !delivering) {
+                delivering = true;
+                deliveryExecutor.execute(() -> deliver(call(subscriber::keepAlive)));
+            }
+        }
+
+        /**
+         * send the buffered changes once the previous send is completed, the sends completed at once are followed in a loop
+         * and the others resume the delivery on a delivery thread when they complete
+         *
+         * @param sending previous send
+         */
+        private void deliver(CompletionStage<?> sending) {
+            CompletableFuture<?> sent = withTimeout(sending);
+            while (sent.isDone() && !sent.isCompletedExceptionally()) {
+                TransactionStatusChangedEvent event = next();
+                if (event == null) {
+                    return;
+                }
+                sent = withTimeout(call(() -> subscriber.send(event)));
+            }
+            sent.whenCompleteAsync((result, failure) -> {
+                if (failure != null) {
+                    disconnect(failure);
+                } else {
+                    deliver(CompletableFuture.completedFuture(null));
+                }
+            }, deliveryExecutor);
+        }
+
+        /**
+         * @return completed like the send, or exceptionally with a TimeoutException after status-stream.send-timeout
+         */
+        private CompletableFuture<?> withTimeout(CompletionStage<?> sending) {
+            CompletableFuture<Object> sent = new CompletableFuture<>();
+            sending.whenComplete((result, failure) -> {
+                if (failure != null) {
+                    sent.completeExceptionally(failure);
+                } else {
+                    sent.complete(result);
+                }
+            });
+            return sent.orTimeout(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        private CompletionStage<?> call(Supplier<CompletionStage<?>> send) {
+            try {
+                return send.get();
+            } catch (RuntimeException exception) {
+                return CompletableFuture.failedFuture(exception);
+            }
+        }
+
+        private void disconnect(Throwable failure) {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            if (cause instanceof TimeoutException) {
+                logger.warn("BankAccount " + accountId + " status stream subscriber disconnected, no change received for " + sendTimeout);
+            } else {
+                logger.debug("BankAccount " + accountId + " status stream connection lost: " + cause.getMessage());
+            }
+            close();
+        }
+
+        /**
+         * @return next change to send, null when the buffer is empty and the delivery stops
+         */
+        private synchronized TransactionStatusChangedEvent next() {
+            TransactionStatusChangedEvent event = closed ? null : buffer.pollFirst();
+            delivering = event != null;
+            return event;
+        }
+
+        private synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer.clear();
+            remove(this);
+            if (droppedCount > 0) {
+                logger.info("BankAccount " + accountId + " status stream closed, " + droppedCount + " changes were dropped");
+            }
+            try {
+                subscriber.close();
+            } catch (RuntimeException exception) {
+                logger.debug("BankAccount " + accountId + " status stream already closed: " + exception.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.cdx.bas.application.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+
+import com.cdx.bas.application.bank.account.BankAccountRepository;
+import com.cdx.bas.application.transaction.TransactionRepository;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionHistoryFilter;
+import com.cdx.bas.domain.transaction.TransactionStatus;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class TransactionArchiverTest {
+
+    private static final String INSERT_QUERY = "INSERT INTO basapp.transactions (transaction_id, account_id, type, amount, status, date, label, metadatas) "
+            + "VALUES (:id, :accountId, 'CREDIT', 100, 'COMPLETED', CAST(:date AS timestamp), :label, CAST(:metadatas AS jsonb))";
+
+    @Inject
+    TransactionArchiver transactionArchiver;
+
+    @Inject
+    TransactionArchive transactionArchive;
+
+    @Inject
+    TransactionPartitionRepository partitionRepository;
+
+    @Inject
+    TransactionRepository transactionRepository;
+
+    @Inject
+    BankAccountRepository bankAccountRepository;
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "transactions.archive.directory")
+    Path archiveDirectory;
+
+    @AfterEach
+    public void deleteArchives() throws IOException {
+        try (Stream<Path> files = Files.list(archiveDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        transactionArchive.open();
+    }
+
+    @Test
+    public void createPartitions_should_moveTransactionsOfTheMonth_when_theyAreInDefaultPartition() {
+        insertTransaction(800001L, "2001-02-10 10:00:00");
+
+        transactionArchiver.createPartitions(YearMonth.of(2001, 1));
+
+        assertThat(partitionRepository.findPartitions()).contains(YearMonth.of(2001, 1), YearMonth.of(2001, 2), YearMonth.of(2001, 3));
+        assertThat(countTransactions("transactions_default", 800001L)).isZero();
+        assertThat(countTransactions("transactions_y2001m02", 800001L)).isEqualTo(1L);
+        List.of(YearMonth.of(2001, 1), YearMonth.of(2001, 2), YearMonth.of(2001, 3)).forEach(partitionRepository::dropPartition);
+    }
+
+    @Test
+    public void createPartition_should_returnFalse_when_partitionAlreadyExists() {
+        YearMonth month = YearMonth.of(2002, 1);
+
+        assertThat(partitionRepository.createPartition(month)).isTrue();
+        assertThat(partitionRepository.createPartition(month)).isFalse();
+        partitionRepository.dropPartition(month);
+    }
+
+    @Test
+    public void archive_should_readOnlyTheHistoryOfEachAccount_when_monthHoldsSeveralAccounts() {
+        YearMonth month = YearMonth.of(2000, 2);
+        partitionRepository.createPartition(month);
+        insertTransaction(900011L, 1L, "2000-02-10 10:00:00");
+        insertTransaction(900012L, 3L, "2000-02-11 10:00:00");
+        insertTransaction(900013L, 3L, "2000-02-12 10:00:00");
+        insertTransaction(900014L, 4L, "2000-02-13 10:00:00");
+
+        assertThat(transactionArchiver.archive(month)).isTrue();
+
+        assertThat(transactionArchive.findHistory(1L, null, null, 10)).extracting(Transaction::getId).containsExactly(900011L);
+        assertThat(transactionArchive.findHistory(3L, null, null, 10)).extracting(Transaction::getId).containsExactly(900013L, 900012L);
+        assertThat(transactionArchive.findHistory(4L, null, null, 10)).extracting(Transaction::getId).containsExactly(900014L);
+        assertThat(transactionArchive.findHistory(2L, null, null, 10)).isEmpty();
+        transactionArchive.open();
+        assertThat(transactionArchive.findHistory(3L, null, null, 1)).extracting(Transaction::getId).containsExactly(900013L);
+        assertThat(bankAccountRepository.findById(3L).orElseThrow().getTransactions())
+                .extracting(Transaction::getId).doesNotContain(900012L, 900013L);
+    }
+
+    @Test
+    public void archive_should_keepHistoryReadable_when_partitionIsArchived() {
+        YearMonth month = YearMonth.of(2000, 1);
+        partitionRepository.createPartition(month);
+        insertTransaction(900001L, "2000-01-10 10:00:00");
+        insertTransaction(900002L, "2000-01-20 10:00:00");
+
+        assertThat(transactionArchiver.archive(month)).isTrue();
+
+        assertThat(partitionRepository.findPartitions()).doesNotContain(month);
+        assertThat(transactionArchive.getMonths()).containsExactly(month);
+        List<Transaction> history = transactionRepository.findHistory(4L, null, null, 100);
+        assertThat(history.subList(history.size() - 2, history.size())).extracting(Transaction::getId).containsExactly(900002L, 900001L);
+        Transaction archivedTransaction = history.get(history.size() - 1);
+        assertThat(archivedTransaction.getAccountId()).isEqualTo(4L);
+        assertThat(archivedTransaction.getAmount()).isEqualTo(100L);
+        assertThat(archivedTransaction.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(archivedTransaction.getLabel()).isEqualTo("transaction 900001");
+        assertThat(archivedTransaction.getMetadatas()).isEqualTo(Map.of("amount_after", "100"));
+
+        Transaction lastOfPage = history.get(history.size() - 2);
+        assertThat(transactionRepository.findHistory(4L, lastOfPage.getDate(), lastOfPage.getId(), 10))
+                .extracting(Transaction::getId).containsExactly(900001L);
+        TransactionHistoryFilter filter = new TransactionHistoryFilter(
+                LocalDateTime.parse("2000-01-15T00:00:00").atZone(ZoneId.systemDefault()).toInstant(), null, Set.of(TransactionStatus.COMPLETED));
+        assertThat(transactionRepository.findHistory(4L, filter, null, null, 100))
+                .extracting(Transaction::getId).endsWith(900002L).doesNotContain(900001L);
+    }
+
+    private void insertTransaction(long id, String date) {
+        insertTransaction(id, 4L, date);
+    }
+
+    private void insertTransaction(long id, long accountId, String date) {
+        QuarkusTransaction.run(() -> entityManager.createNativeQuery(INSERT_QUERY)
+                .setParameter("id", id)
+                .setParameter("accountId", accountId)
+                .setParameter("date", date)
+                .setParameter("label", "transaction " + id)
+                .setParameter("metadatas", "{\"amount_after\" : \"100\"}")
+                .executeUpdate());
+    }
+
+    private long countTransactions(String partition, long id) {
+        return QuarkusTransaction.call(() -> ((Number) entityManager.createNativeQuery("SELECT count(*) FROM basapp." + partition
+                + " WHERE transaction_id = :id").setParameter("id", id).getSingleResult()).longValue());
+    }
+}
@@ -1,6 +1,7 @@
 package com.cdx.bas.application.bank.account;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -14,14 +15,17 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 import javax.inject.Inject;
 
 import com.cdx.bas.application.mapper.DtoEntityMapper;
+import com.cdx.bas.application.transaction.TransactionRepository;
 import com.cdx.bas.domain.bank.account.AccountType;
 import com.cdx.bas.domain.bank.account.BankAccount;
 import com.cdx.bas.domain.bank.account.checking.CheckingBankAccount;
+import com.cdx.bas.domain.bank.account.saving.SavingBankAccount;
 import com.cdx.bas.domain.money.Money;
 import com.cdx.bas.domain.transaction.Transaction;
 import com.cdx.bas.domain.transaction.TransactionStatus;
@@ -29,6 +33,8 @@ import com.cdx.bas.domain.transaction.TransactionType;
 
 import org.junit.jupiter.api.Test;
 
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.TestTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.mockito.InjectMock;
 
@@ -38,6 +44,9 @@ public class BankAccountRepositoryTest {
     @Inject
     private BankAccountRepository bankAccountRepository;
     
+    @Inject
+    private TransactionRepository transactionRepository;
+    
     @InjectMock
     private DtoEntityMapper<BankAccount, BankAccountEntity> bankAccountMapper;
     
@@ -63,6 +72,109 @@ public class BankAccountRepositoryTest {
         verifyNoInteractions(bankAccountMapper);
     }
     
+    @Test
+    @TestTransaction
+    public void update_should_keepTransactionsHistory_when_onlyRecentTransactionsAreLoaded() {
+        BankAccount bankAccount = createBankAccount(1L, Instant.now());
+        bankAccount.setBalance(new Money(new BigDecimal("500")));
+        Transaction transaction = new Transaction(1L, 200L, TransactionType.CREDIT);
+        transaction.setLabel("deposit of 200");
+        bankAccount.setTransactions(new HashSet<>(List.of(transaction)));
+        
+        bankAccountRepository.update(bankAccount);
+        
+        assertThat(bankAccountRepository.findBalance(1L)).contains(Money.of(500L));
+        assertThat(transactionRepository.findHistory(1L, null, null, 100)).hasSize(6);
+    }
+    
+    @Test
+    @TestTransaction
+    public void update_should_keepConcurrentBalanceChanges_when_loadedBankAccountIsStale() {
+        SavingBankAccount loadedAccount = new SavingBankAccount();
+        loadedAccount.setId(3L);
+        loadedAccount.setBalance(Money.of(19200L));
+        when(bankAccountMapper.toDto(any())).thenReturn(loadedAccount);
+        BankAccount bankAccount = bankAccountRepository.findById(3L).orElseThrow();
+        bankAccountRepository.addToBalance(3L, Money.of(1000L));
+        bankAccount.setBalance(Money.of(19300L));
+        
+        BankAccount updatedAccount = bankAccountRepository.update(bankAccount);
+        
+        assertThat(updatedAccount.getBalance()).isEqualTo(Money.of(20300L));
+        assertThat(bankAccountRepository.findBalance(3L)).contains(Money.of(20300L));
+    }
+    
+    @Test
+    @TestTransaction
+    public void addToBalance_should_returnNewBalance_when_newBalanceRespectsAccountLimits() {
+        Optional<Money> balance = bankAccountRepository.addToBalance(3L, Money.of(3000L));
+        
+        assertThat(balance).contains(new Money(new BigDecimal("22200")));
+    }
+    
+    @Test
+    @TestTransaction
+    public void addToBalance_should_keepMinorUnits_when_amountHasDecimals() {
+        Optional<Money> balance = bankAccountRepository.addToBalance(3L, new Money(new BigDecimal("0.05")));
+        
+        assertThat(balance).contains(Money.ofMinorUnits(1920005L));
+        assertThat(bankAccountRepository.findBalance(3L).orElseThrow()).hasToString("19200.05");
+    }
+    
+    @Test
+    @TestTransaction
+    public void addToBalance_should_returnEmptyOptional_when_newBalanceExceedsAccountLimits() {
+        Optional<Money> balance = bankAccountRepository.addToBalance(3L, Money.of(4000L));
+        
+        assertThat(balance).isEmpty();
+    }
+    
+    @Test
+    @TestTransaction
+    public void addToBalance_should_returnEmptyOptional_when_newBalanceOverflows() {
+        Optional<Money> balance = bankAccountRepository.addToBalance(3L, Money.ofMinorUnits(Long.MAX_VALUE));
+        
+        assertThat(balance).isEmpty();
+        assertThat(bankAccountRepository.findBalance(3L)).contains(Money.of(19200L));
+    }
+    
+    @Test
+    public void addToBalance_should_throwNoSuchElementException_when_accountIsNotFound() {
+        assertThatThrownBy(() -> bankAccountRepository.addToBalance(99999L, Money.of(100L)))
+            .isInstanceOf(NoSuchElementException.class)
+            .hasMessage("bank account 99999 not found.");
+    }
+    
+    @Test
+    @TestTransaction
+    public void findBalanceAt_should_returnBalanceWithoutLaterPostings_when_dateIsBeforeThem() {
+        Instant beforePosting = Instant.now().minusMillis(1);
+        bankAccountRepository.addToBalance(2L, Money.of(100L));
+        
+        assertThat(bankAccountRepository.findBalanceAt(2L, beforePosting)).contains(Money.of(1600L));
+        assertThat(bankAccountRepository.findBalanceAt(2L, Instant.now())).contains(Money.of(1700L));
+        assertThat(bankAccountRepository.findBalanceAt(2L, Instant.parse("2000-01-01T00:00:00Z"))).isEmpty();
+    }
+    
+    @Test
+    public void snapshot_should_keepBalances_when_postingsAreSnapshotted() throws InterruptedException {
+        bankAccountRepository.addToBalance(4L, Money.of(100L));
+        Thread.sleep(1);
+        Instant betweenPostings = Instant.now();
+        Thread.sleep(1);
+        bankAccountRepository.addToBalance(4L, Money.of(-100L));
+        
+        assertThat(bankAccountRepository.findAccountsToSnapshot(2)).contains(4L);
+        assertThat(bankAccountRepository.snapshot(4L)).isTrue();
+        assertThat(bankAccountRepository.snapshot(4L)).isFalse();
+        
+        assertThat(bankAccountRepository.findAccountsToSnapshot(1)).doesNotContain(4L);
+        assertThat(bankAccountRepository.findBalance(4L)).contains(Money.of(65000L));
+        assertThat(bankAccountRepository.findBalanceAt(4L, betweenPostings)).contains(Money.of(65100L));
+        assertThat(QuarkusTransaction.call(() -> bankAccountRepository.findByIdOptional(4L).orElseThrow().getBalance()))
+            .isEqualTo(Money.of(65000L));
+    }
+    
     private BankAccount createBankAccount(long accountId, Instant instantDate) {
         BankAccount bankAccount = new CheckingBankAccount();
         bankAccount.setId(accountId);
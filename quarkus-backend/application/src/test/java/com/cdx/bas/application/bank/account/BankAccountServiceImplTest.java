@@ -6,8 +6,6 @@ import static com.cdx.bas.domain.transaction.TransactionStatus.REFUSED;
 import static com.cdx.bas.domain.transaction.TransactionStatus.WAITING;
 import static com.cdx.bas.domain.transaction.TransactionType.CREDIT;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -21,19 +19,24 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
+import com.cdx.bas.application.transaction.TransactionStatusBroadcaster;
 import com.cdx.bas.domain.bank.account.AccountType;
 import com.cdx.bas.domain.bank.account.BankAccount;
-import com.cdx.bas.domain.bank.account.BankAccountException;
 import com.cdx.bas.domain.bank.account.BankAccountPersistencePort;
 import com.cdx.bas.domain.bank.account.BankAccountServicePort;
-import com.cdx.bas.domain.bank.account.BankAccountValidator;
 import com.cdx.bas.domain.bank.account.checking.CheckingBankAccount;
 import com.cdx.bas.domain.money.Money;
 import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionPersistencePort;
 import com.cdx.bas.domain.transaction.TransactionStatus;
+import com.cdx.bas.domain.transaction.TransactionStatusChangedEvent;
+import com.cdx.bas.domain.transaction.TransactionStatusSubscriber;
 import com.cdx.bas.domain.transaction.TransactionType;
 
 import org.junit.jupiter.api.Test;
@@ -50,25 +53,29 @@ public class BankAccountServiceImplTest {
     @InjectMock
     BankAccountPersistencePort bankAccountPersistence;
     
+    @InjectMock
+    TransactionPersistencePort transactionPersistence;
+    
     @Inject
-    BankAccountValidator bankAccountValidator;
+    TransactionStatusBroadcaster transactionStatusBroadcaster;
 
     @Test
-    public void deposit_should_throwNoSuchElementException_when_accountIsFound() {
+    public void deposit_should_returnErroredTransaction_when_accountIsNotFound() {
         long accountId = 99L;
         Money amountOfMoney = Money.of(1000L);
         Instant date = Instant.now();
         Map<String, String> metadatas = new HashMap<>();
-        metadatas.put("error", "bank account 99 is not found.");
-        Transaction transaction = createTransaction(accountId, amountOfMoney.getAmount().longValue(), CREDIT, WAITING, date, metadatas);
-        when(bankAccountPersistence.findById(accountId)).thenThrow(new NoSuchElementException("bank account 99 is not found."));
+        metadatas.put("error", "bank account 99 not found.");
+        Transaction transaction = createTransaction(accountId, amountOfMoney.getAmount().longValue(), CREDIT, WAITING, date, new HashMap<>());
+        when(bankAccountPersistence.addToBalance(accountId, amountOfMoney)).thenThrow(new NoSuchElementException("bank account 99 not found."));
         
         Transaction returnedTransaction =  bankAccountService.deposit(transaction);
         
         assertThat(returnedTransaction).usingRecursiveComparison()
         .isEqualTo(createTransaction(accountId, amountOfMoney.getAmount().longValue(), CREDIT, ERROR, date, metadatas));
-        verify(bankAccountPersistence).findById(eq(accountId));
-        verifyNoMoreInteractions(bankAccountPersistence);
+        verify(bankAccountPersistence).addToBalance(accountId, amountOfMoney);
+        verify(transactionPersistence).updateStatus(1L, ERROR, metadatas);
+        verifyNoMoreInteractions(bankAccountPersistence, transactionPersistence);
     }
     
     @Test
@@ -79,47 +86,180 @@ public class BankAccountServiceImplTest {
         Map<String, String> metadatas = new HashMap<>();
         metadatas.put("amount_before", "100");
         metadatas.put("amount_after", "1100");
-        Transaction transaction = createTransaction(accountId, amountOfMoney.getAmount().longValue(), CREDIT, WAITING, date, metadatas);
-        BankAccount bankAccount = createBankAccount(accountId);
-        when(bankAccountPersistence.findById(anyLong())).thenReturn(Optional.of(bankAccount));
-        BankAccount bankAccountAfterDeposit = createBankAccount(accountId);
-        bankAccountAfterDeposit.getBalance().plus(amountOfMoney);
+        Transaction transaction = createTransaction(accountId, amountOfMoney.getAmount().longValue(), CREDIT, WAITING, date, new HashMap<>());
+        when(bankAccountPersistence.addToBalance(accountId, amountOfMoney)).thenReturn(Optional.of(Money.of(1100L)));
         
         Transaction returnedTransaction =  bankAccountService.deposit(transaction);
         
         assertThat(returnedTransaction).usingRecursiveComparison()
         .isEqualTo(createTransaction(accountId, amountOfMoney.getAmount().longValue(), CREDIT, COMPLETED, date, metadatas));
-        verify(bankAccountPersistence).findById(eq(accountId));
-        verify(bankAccountPersistence).update(eq(bankAccount));
+        verify(bankAccountPersistence).addToBalance(accountId, amountOfMoney);
+        verify(transactionPersistence).updateStatus(1L, COMPLETED, metadatas);
+        verifyNoMoreInteractions(bankAccountPersistence, transactionPersistence);
     }
     
     @Test
-    public void deposit_should_returnErroredTransaction_when_bankAccountValidatorThrowsException() {
+    public void deposit_should_returnRefusedTransaction_when_balanceUpdateIsRefused() {
         long accountId = 99L;
         Money amountOfMoney = Money.of(1000L);
         Instant date = Instant.now();
-  
-        Money moneyBefore = new Money(new BigDecimal("100000"));
         BankAccount bankAccount = createBankAccount(accountId);
-        bankAccount.setBalance(moneyBefore); 
-        BankAccount bankAccountAfterDeposit = createBankAccount(accountId);
-        bankAccountAfterDeposit.setBalance(moneyBefore); 
-        BankAccountException violationException = new BankAccountException("balance amount must be between -600 and 100000.\n");
-        Map<String, String> metadatasBefore = new HashMap<>();
-        metadatasBefore.put("amount_before", "100000");
-        metadatasBefore.put("error", violationException.getMessage());
-        Transaction transaction = createTransaction(accountId, amountOfMoney.getAmount().longValue(), CREDIT, WAITING, date, metadatasBefore);
-        
-        when(bankAccountPersistence.findById(anyLong())).thenReturn(Optional.of(bankAccount));
+        bankAccount.setBalance(new Money(new BigDecimal("100000")));
+        Transaction transaction = createTransaction(accountId, amountOfMoney.getAmount().longValue(), CREDIT, WAITING, date, new HashMap<>());
+        when(bankAccountPersistence.addToBalance(accountId, amountOfMoney)).thenReturn(Optional.empty());
+        when(bankAccountPersistence.findById(accountId)).thenReturn(Optional.of(bankAccount));
         
         Transaction returnedTransaction =  bankAccountService.deposit(transaction);
         
-        Map<String, String> metadatasAfter = new HashMap<>();
-        metadatasAfter.put("amount_before", "100000");
-        metadatasAfter.put("error", violationException.getMessage());
+        Map<String, String> metadatas = new HashMap<>();
+        metadatas.put("amount_before", "100000");
+        metadatas.put("error", "balance amount must be between -600 and 100000.\n");
         assertThat(returnedTransaction).usingRecursiveComparison()
-        .isEqualTo(createTransaction(accountId, amountOfMoney.getAmount().longValue(), CREDIT, REFUSED, date, metadatasAfter));
-        verify(bankAccountPersistence).findById(eq(accountId));
+        .isEqualTo(createTransaction(accountId, amountOfMoney.getAmount().longValue(), CREDIT, REFUSED, date, metadatas));
+        verify(bankAccountPersistence).addToBalance(accountId, amountOfMoney);
+        verify(bankAccountPersistence).findById(accountId);
+        verify(transactionPersistence).updateStatus(1L, REFUSED, metadatas);
+        verifyNoMoreInteractions(bankAccountPersistence, transactionPersistence);
+    }
+    
+    @Test
+    public void deposit_should_sendStatusChange_when_accountHasSubscribers() throws Exception {
+        long accountId = 98L;
+        Money amountOfMoney = Money.of(1000L);
+        Transaction transaction = createTransaction(accountId, amountOfMoney.getAmount().longValue(), CREDIT, WAITING, Instant.now(), new HashMap<>());
+        when(bankAccountPersistence.addToBalance(accountId, amountOfMoney)).thenReturn(Optional.of(Money.of(1100L)));
+        CompletableFuture<TransactionStatusChangedEvent> sentEvent = new CompletableFuture<>();
+        TransactionStatusSubscriber subscriber = new TransactionStatusSubscriber() {
+            @Override
+            public CompletionStage<?> send(TransactionStatusChangedEvent event) {
+                sentEvent.complete(event);
+                return CompletableFuture.completedFuture(null);
+            }
+
+            @Override
+            public CompletionStage<?> keepAlive() {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            @Override
+            public void close() {
+                sentEvent.cancel(false);
+            }
+        };
+        transactionStatusBroadcaster.subscribe(accountId, subscriber);
+        try {
+            bankAccountService.deposit(transaction);
+            
+            TransactionStatusChangedEvent event = sentEvent.get(10, TimeUnit.SECONDS);
+            assertThat(event.getTransactionId()).isEqualTo(1L);
+            assertThat(event.getAccountId()).isEqualTo(accountId);
+            assertThat(event.getStatus()).isEqualTo(COMPLETED);
+            assertThat(event.getMetadatas()).containsEntry("amount_after", "1100");
+        } finally {
+            transactionStatusBroadcaster.unsubscribe(accountId, subscriber);
+        }
+    }
+    
+    @Test
+    public void deposit_should_returnRefusedTransaction_when_amountOverflowsMinorUnits() {
+        long accountId = 99L;
+        Instant date = Instant.now();
+        Transaction transaction = createTransaction(accountId, Long.MAX_VALUE, CREDIT, WAITING, date, new HashMap<>());
+        
+        Transaction returnedTransaction = bankAccountService.deposit(transaction);
+        
+        Map<String, String> metadatas = Map.of("error", "amount " + Long.MAX_VALUE + " is out of the range of a balance.");
+        assertThat(returnedTransaction).usingRecursiveComparison()
+        .isEqualTo(createTransaction(accountId, Long.MAX_VALUE, CREDIT, REFUSED, date, metadatas));
+        verify(transactionPersistence).updateStatus(1L, REFUSED, metadatas);
+        verifyNoMoreInteractions(bankAccountPersistence, transactionPersistence);
+    }
+    
+    @Test
+    public void deposits_should_depositTransactionsOneByOne_when_netAmountOverflows() {
+        long accountId = 99L;
+        long amount = Long.MAX_VALUE / 100;
+        Instant date = Instant.now();
+        Transaction firstTransaction = createTransaction(2L, accountId, amount, CREDIT, WAITING, date, new HashMap<>());
+        Transaction secondTransaction = createTransaction(3L, accountId, amount, CREDIT, WAITING, date, new HashMap<>());
+        when(bankAccountPersistence.addToBalance(accountId, Money.of(amount))).thenReturn(Optional.empty());
+        when(bankAccountPersistence.findById(accountId)).thenReturn(Optional.of(createBankAccount(accountId)));
+        
+        List<Transaction> returnedTransactions = bankAccountService.deposits(List.of(firstTransaction, secondTransaction));
+        
+        assertThat(returnedTransactions).extracting(Transaction::getStatus).containsExactly(REFUSED, REFUSED);
+        assertThat(returnedTransactions).extracting(transaction -> transaction.getMetadatas().get("error"))
+            .containsOnly("amount " + amount + " is out of the range of a balance.");
+        verify(transactionPersistence).updateStatus(2L, REFUSED, returnedTransactions.get(0).getMetadatas());
+        verify(transactionPersistence).updateStatus(3L, REFUSED, returnedTransactions.get(1).getMetadatas());
+    }
+    
+    @Test
+    public void deposits_should_netAccountTransactionsIntoOneBalanceUpdate_when_netBalanceIsValid() {
+        long accountId = 99L;
+        Instant date = Instant.now();
+        Transaction firstTransaction = createTransaction(2L, accountId, 1000L, CREDIT, WAITING, date, new HashMap<>());
+        Transaction secondTransaction = createTransaction(3L, accountId, 500L, CREDIT, WAITING, date, new HashMap<>());
+        when(bankAccountPersistence.addToBalance(accountId, Money.of(1500L))).thenReturn(Optional.of(Money.of(1600L)));
+        
+        List<Transaction> returnedTransactions = bankAccountService.deposits(List.of(firstTransaction, secondTransaction));
+        
+        assertThat(returnedTransactions).usingRecursiveFieldByFieldElementComparator().containsExactly(
+                createTransaction(2L, accountId, 1000L, CREDIT, COMPLETED, date, Map.of("amount_before", "100", "amount_after", "1100")),
+                createTransaction(3L, accountId, 500L, CREDIT, COMPLETED, date, Map.of("amount_before", "1100", "amount_after", "1600")));
+        verify(bankAccountPersistence).addToBalance(accountId, Money.of(1500L));
+        verify(transactionPersistence).updateStatus(2L, COMPLETED, Map.of("amount_before", "100", "amount_after", "1100"));
+        verify(transactionPersistence).updateStatus(3L, COMPLETED, Map.of("amount_before", "1100", "amount_after", "1600"));
+        verifyNoMoreInteractions(bankAccountPersistence, transactionPersistence);
+    }
+    
+    @Test
+    public void deposits_should_refuseOnlyInvalidTransaction_when_netBalanceIsRefused() {
+        long accountId = 99L;
+        Instant date = Instant.now();
+        Transaction firstTransaction = createTransaction(2L, accountId, 99000L, CREDIT, WAITING, date, new HashMap<>());
+        Transaction secondTransaction = createTransaction(3L, accountId, 5000L, CREDIT, WAITING, date, new HashMap<>());
+        Transaction thirdTransaction = createTransaction(4L, accountId, 900L, CREDIT, WAITING, date, new HashMap<>());
+        BankAccount bankAccount = createBankAccount(accountId);
+        bankAccount.setBalance(new Money(new BigDecimal("99100")));
+        when(bankAccountPersistence.addToBalance(accountId, Money.of(104900L))).thenReturn(Optional.empty());
+        when(bankAccountPersistence.addToBalance(accountId, Money.of(99000L))).thenReturn(Optional.of(Money.of(99100L)));
+        when(bankAccountPersistence.addToBalance(accountId, Money.of(5000L))).thenReturn(Optional.empty());
+        when(bankAccountPersistence.addToBalance(accountId, Money.of(900L))).thenReturn(Optional.of(Money.of(100000L)));
+        when(bankAccountPersistence.findById(accountId)).thenReturn(Optional.of(bankAccount));
+        
+        List<Transaction> returnedTransactions = bankAccountService.deposits(List.of(firstTransaction, secondTransaction, thirdTransaction));
+        
+        assertThat(returnedTransactions).usingRecursiveFieldByFieldElementComparator().containsExactly(
+                createTransaction(2L, accountId, 99000L, CREDIT, COMPLETED, date, Map.of("amount_before", "100", "amount_after", "99100")),
+                createTransaction(3L, accountId, 5000L, CREDIT, REFUSED, date, 
+                        Map.of("amount_before", "99100", "error", "balance amount must be between -600 and 100000.\n")),
+                createTransaction(4L, accountId, 900L, CREDIT, COMPLETED, date, Map.of("amount_before", "99100", "amount_after", "100000")));
+        verify(bankAccountPersistence).addToBalance(accountId, Money.of(104900L));
+        verify(bankAccountPersistence).addToBalance(accountId, Money.of(99000L));
+        verify(bankAccountPersistence).addToBalance(accountId, Money.of(5000L));
+        verify(bankAccountPersistence).addToBalance(accountId, Money.of(900L));
+        verify(bankAccountPersistence).findById(accountId);
+        verifyNoMoreInteractions(bankAccountPersistence);
+    }
+    
+    @Test
+    public void deposits_should_returnErroredTransactions_when_accountIsNotFound() {
+        long accountId = 99L;
+        Instant date = Instant.now();
+        Transaction firstTransaction = createTransaction(2L, accountId, 1000L, CREDIT, WAITING, date, new HashMap<>());
+        Transaction secondTransaction = createTransaction(3L, accountId, 500L, CREDIT, WAITING, date, new HashMap<>());
+        when(bankAccountPersistence.addToBalance(accountId, Money.of(1500L))).thenThrow(new NoSuchElementException("bank account 99 not found."));
+        
+        List<Transaction> returnedTransactions = bankAccountService.deposits(List.of(firstTransaction, secondTransaction));
+        
+        assertThat(returnedTransactions).usingRecursiveFieldByFieldElementComparator().containsExactly(
+                createTransaction(2L, accountId, 1000L, CREDIT, ERROR, date, Map.of("error", "bank account 99 not found.")),
+                createTransaction(3L, accountId, 500L, CREDIT, ERROR, date, Map.of("error", "bank account 99 not found.")));
+        verify(bankAccountPersistence).addToBalance(accountId, Money.of(1500L));
+        verify(transactionPersistence).updateStatus(2L, ERROR, Map.of("error", "bank account 99 not found."));
+        verify(transactionPersistence).updateStatus(3L, ERROR, Map.of("error", "bank account 99 not found."));
+        verifyNoMoreInteractions(bankAccountPersistence, transactionPersistence);
     }
     
     private static BankAccount createBankAccount(long accountId) {
@@ -138,9 +278,14 @@ public class BankAccountServiceImplTest {
     }
     
     private static Transaction createTransaction(long accountId, long amount, TransactionType type, 
+            TransactionStatus status, Instant date, Map<String, String> metadatas) {
+        return createTransaction(1L, accountId, amount, type, status, date, metadatas);
+    }
+    
+    private static Transaction createTransaction(long id, long accountId, long amount, TransactionType type, 
             TransactionStatus status, Instant date, Map<String, String> metadatas) {
 		Transaction transaction = new Transaction();
-		transaction.setId(1L);
+		transaction.setId(id);
 		transaction.setAmount(amount);
 		transaction.setAccountId(accountId);
 		transaction.setType(type);
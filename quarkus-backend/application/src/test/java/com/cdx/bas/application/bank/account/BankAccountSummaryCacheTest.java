@@ -0,0 +1,137 @@
+package com.cdx.bas.application.bank.account;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import com.cdx.bas.domain.bank.account.AccountType;
+import com.cdx.bas.domain.bank.account.BankAccount;
+import com.cdx.bas.domain.bank.account.BankAccountPersistencePort;
+import com.cdx.bas.domain.bank.account.BankAccountSummary;
+import com.cdx.bas.domain.bank.account.checking.CheckingBankAccount;
+import com.cdx.bas.domain.cache.CacheStatistics;
+import com.cdx.bas.domain.money.Money;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BankAccountSummaryCacheTest {
+
+    BankAccountSummaryCache summaryCache;
+
+    BankAccountPersistencePort bankAccountPersistence;
+
+    long now;
+
+    @BeforeEach
+    public void createCache() {
+        bankAccountPersistence = mock(BankAccountPersistencePort.class);
+        summaryCache = new BankAccountSummaryCache();
+        summaryCache.bankAccountRepository = bankAccountPersistence;
+        summaryCache.maxSize = 2;
+        summaryCache.expiration = Duration.ofSeconds(10);
+        summaryCache.nanoClock = () -> now;
+        summaryCache.init();
+    }
+
+    @Test
+    public void findSummary_should_readSummaryFromCache_when_summaryIsLoaded() {
+        when(bankAccountPersistence.findById(1L)).thenReturn(Optional.of(createBankAccount(1L, 2L, 3L)));
+
+        BankAccountSummary loadedSummary = summaryCache.findSummary(1L).orElseThrow();
+        BankAccountSummary cachedSummary = summaryCache.findSummary(1L).orElseThrow();
+
+        assertThat(cachedSummary).isSameAs(loadedSummary);
+        assertThat(cachedSummary.getType()).isEqualTo(AccountType.CHECKING);
+        assertThat(cachedSummary.getBalance()).isEqualTo(Money.of(100L));
+        assertThat(cachedSummary.getCustomersId()).containsExactly(1L);
+        assertThat(cachedSummary.getLastTransactionId()).isEqualTo(3L);
+        verify(bankAccountPersistence, times(1)).findById(1L);
+        CacheStatistics statistics = summaryCache.getCacheStatistics();
+        assertThat(statistics.getHitCount()).isEqualTo(1);
+        assertThat(statistics.getMissCount()).isEqualTo(1);
+        assertThat(statistics.getPutCount()).isEqualTo(1);
+        assertThat(statistics.getEvictionCount()).isZero();
+        assertThat(statistics.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void findSummary_should_reloadSummary_when_summaryHasExpiredOrIsInvalidated() {
+        when(bankAccountPersistence.findById(1L)).thenReturn(Optional.of(createBankAccount(1L)));
+        summaryCache.findSummary(1L);
+        now += Duration.ofSeconds(10).toNanos();
+        summaryCache.findSummary(1L);
+        summaryCache.invalidate(1L);
+        summaryCache.findSummary(1L);
+
+        verify(bankAccountPersistence, times(3)).findById(1L);
+        CacheStatistics statistics = summaryCache.getCacheStatistics();
+        assertThat(statistics.getHitCount()).isZero();
+        assertThat(statistics.getMissCount()).isEqualTo(3);
+        assertThat(statistics.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void findSummary_should_evictSummary_when_cacheIsFull() {
+        when(bankAccountPersistence.findById(1L)).thenReturn(Optional.of(createBankAccount(1L)));
+        when(bankAccountPersistence.findById(2L)).thenReturn(Optional.of(createBankAccount(2L)));
+        when(bankAccountPersistence.findById(3L)).thenReturn(Optional.of(createBankAccount(3L)));
+        summaryCache.findSummary(1L);
+        summaryCache.findSummary(2L);
+        summaryCache.findSummary(3L);
+
+        CacheStatistics statistics = summaryCache.getCacheStatistics();
+        assertThat(statistics.getPutCount()).isEqualTo(3);
+        assertThat(statistics.getEvictionCount()).isEqualTo(1);
+        assertThat(statistics.getSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void findSummary_should_notCacheSummary_when_bankAccountChangesWhileItIsLoaded() {
+        when(bankAccountPersistence.findById(1L)).thenAnswer(invocation -> {
+            summaryCache.invalidate(1L);
+            return Optional.of(createBankAccount(1L));
+        });
+
+        assertThat(summaryCache.findSummary(1L)).isPresent();
+        summaryCache.findSummary(1L);
+
+        verify(bankAccountPersistence, times(2)).findById(1L);
+        assertThat(summaryCache.getCacheStatistics().getPutCount()).isZero();
+    }
+
+    @Test
+    public void findSummary_should_notCacheMissingBankAccount() {
+        when(bankAccountPersistence.findById(99L)).thenReturn(Optional.empty());
+
+        assertThat(summaryCache.findSummary(99L)).isEmpty();
+
+        assertThat(summaryCache.getCacheStatistics().getSize()).isZero();
+    }
+
+    private static BankAccount createBankAccount(long id, long... transactionIds) {
+        BankAccount bankAccount = new CheckingBankAccount();
+        bankAccount.setId(id);
+        bankAccount.setType(AccountType.CHECKING);
+        bankAccount.setBalance(Money.of(100L));
+        bankAccount.setCustomersId(new ArrayList<>(List.of(1L)));
+        Instant date = Instant.parse("2022-12-01T00:00:00Z");
+        for (long transactionId : transactionIds) {
+            Transaction transaction = new Transaction(id, 10L, TransactionType.CREDIT);
+            transaction.setId(transactionId);
+            transaction.setDate(date.plusSeconds(transactionId));
+            bankAccount.getTransactions().add(transaction);
+        }
+        return bankAccount;
+    }
+}
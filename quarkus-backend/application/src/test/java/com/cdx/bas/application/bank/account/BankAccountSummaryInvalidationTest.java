@@ -0,0 +1,55 @@
+package com.cdx.bas.application.bank.account;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.inject.Inject;
+
+import com.cdx.bas.domain.bank.account.BankAccountSummary;
+import com.cdx.bas.domain.cache.CacheStatistics;
+import com.cdx.bas.domain.money.Money;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class BankAccountSummaryInvalidationTest {
+
+    @Inject
+    BankAccountSummaryCache bankAccountSummaryCache;
+
+    @Inject
+    BankAccountRepository bankAccountRepository;
+
+    @Test
+    public void addToBalance_should_invalidateSummary_when_balanceIsUpdated() {
+        Money balanceBefore = findSummaryInTransaction(2L).getBalance();
+        long hitsBefore = bankAccountSummaryCache.getCacheStatistics().getHitCount();
+        assertThat(findSummaryInTransaction(2L).getBalance()).isEqualTo(balanceBefore);
+        assertThat(bankAccountSummaryCache.getCacheStatistics().getHitCount()).isEqualTo(hitsBefore + 1);
+
+        assertThat(bankAccountRepository.addToBalance(2L, Money.of(100L))).isPresent();
+        long missesBefore = bankAccountSummaryCache.getCacheStatistics().getMissCount();
+        Money balanceAfter = findSummaryInTransaction(2L).getBalance();
+        bankAccountRepository.addToBalance(2L, Money.of(-100L));
+
+        assertThat(bankAccountSummaryCache.getCacheStatistics().getMissCount()).isEqualTo(missesBefore + 1);
+        assertThat(balanceAfter.getMinorUnits()).isEqualTo(balanceBefore.getMinorUnits() + Money.of(100L).getMinorUnits());
+        assertThat(findSummaryInTransaction(2L).getBalance()).isEqualTo(balanceBefore);
+        assertThat(bankAccountSummaryCache.getStatistics()).extracting(CacheStatistics::getName)
+                .containsExactly(BankAccountSummaryCache.NAME);
+    }
+
+    /**
+     * outside of a transaction the bank accounts loaded by the test are kept by its request scoped session
+     */
+    private BankAccountSummary findSummaryInTransaction(long id) {
+        QuarkusTransaction.begin();
+        try {
+            return bankAccountSummaryCache.findSummary(id).orElseThrow();
+        } finally {
+            QuarkusTransaction.commit();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.cdx.bas.application.bank.account;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.NoSuchElementException;
+
+import javax.inject.Inject;
+
+import com.cdx.bas.domain.bank.account.AccountType;
+import com.cdx.bas.domain.bank.account.BankAccount;
+import com.cdx.bas.domain.money.Money;
+import com.cdx.bas.domain.transaction.Transaction;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class ReactiveBankAccountRepositoryTest {
+
+    @Inject
+    ReactiveBankAccountRepository reactiveBankAccountRepository;
+
+    @Inject
+    BankAccountRepository bankAccountRepository;
+
+    @Test
+    public void findById_should_returnBankAccountWithCustomersAndHistory_when_accountIsFound() {
+        BankAccount bankAccount = reactiveBankAccountRepository.findById(2L).await().indefinitely().orElseThrow();
+
+        assertThat(bankAccount.getType()).isEqualTo(AccountType.CHECKING);
+        assertThat(bankAccount.getBalance()).isEqualTo(bankAccountRepository.findBalance(2L).orElseThrow());
+        assertThat(bankAccount.getCustomersId()).containsExactly(2L, 3L);
+        assertThat(bankAccount.getTransactions()).extracting(Transaction::getAccountId).containsOnly(2L);
+    }
+
+    @Test
+    public void findById_should_returnEmptyOptional_when_accountIsNotFound() {
+        assertThat(reactiveBankAccountRepository.findById(99999L).await().indefinitely()).isEmpty();
+    }
+
+    @Test
+    public void addToBalance_should_appendToTheLedgerOfBlockingRepository_when_newBalanceRespectsAccountLimits() {
+        Money balance = bankAccountRepository.findBalance(3L).orElseThrow();
+
+        assertThat(reactiveBankAccountRepository.addToBalance(3L, Money.of(1000L)).await().indefinitely())
+            .contains(Money.ofMinorUnits(balance.getMinorUnits() + Money.of(1000L).getMinorUnits()));
+        assertThat(reactiveBankAccountRepository.addToBalance(3L, Money.of(10000L)).await().indefinitely()).isEmpty();
+        assertThat(reactiveBankAccountRepository.addToBalance(3L, Money.of(-1000L)).await().indefinitely())
+            .contains(balance);
+        assertThat(reactiveBankAccountRepository.findBalance(3L).await().indefinitely()).contains(balance);
+    }
+
+    @Test
+    public void addToBalance_should_fail_when_accountIsNotFound() {
+        assertThatThrownBy(() -> reactiveBankAccountRepository.addToBalance(99999L, Money.of(100L)).await().indefinitely())
+            .isInstanceOf(NoSuchElementException.class)
+            .hasMessage("bank account 99999 not found.");
+    }
+}
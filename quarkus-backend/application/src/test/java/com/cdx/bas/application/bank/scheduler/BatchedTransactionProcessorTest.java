@@ -0,0 +1,77 @@
+package com.cdx.bas.application.bank.scheduler;
+
+import static com.cdx.bas.application.bank.scheduler.WaitingTransactions.waitingCredit;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+import javax.inject.Inject;
+
+import com.cdx.bas.application.scheduler.PartitionedTransactionProcessor;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionServicePort;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.junit.mockito.InjectMock;
+
+@QuarkusTest
+@TestProfile(BatchedTransactionProcessorTest.BatchProfile.class)
+public class BatchedTransactionProcessorTest {
+
+    @Inject
+    PartitionedTransactionProcessor transactionProcessor;
+
+    @InjectMock
+    TransactionServicePort transactionService;
+
+    @Test
+    public void process_should_commitTransactionsTogether_when_batchSizeIsGreaterThanOne() {
+        Transaction firstTransaction = waitingCredit(1L, 10L);
+        Transaction secondTransaction = waitingCredit(2L, 20L);
+        Transaction thirdTransaction = waitingCredit(3L, 10L);
+        Queue<Transaction> queue = new PriorityQueue<>(List.of(thirdTransaction, firstTransaction, secondTransaction));
+
+        transactionProcessor.process(queue);
+
+        assertThat(transactionProcessor.getBatchSize()).isEqualTo(10);
+        verify(transactionService).processTransactions(List.of(firstTransaction, secondTransaction, thirdTransaction));
+        verifyNoMoreInteractions(transactionService);
+    }
+
+    @Test
+    public void process_should_processTransactionsOneByOne_when_batchIsRolledBack() {
+        Transaction firstTransaction = waitingCredit(1L, 10L);
+        Transaction secondTransaction = waitingCredit(2L, 10L);
+        Queue<Transaction> queue = new PriorityQueue<>(List.of(secondTransaction, firstTransaction));
+        doThrow(new IllegalStateException("transaction rolled back")).when(transactionService).processTransactions(anyList());
+        doThrow(new IllegalStateException("constraint violation")).when(transactionService).processTransaction(firstTransaction);
+
+        transactionProcessor.process(queue);
+
+        InOrder inOrder = inOrder(transactionService);
+        inOrder.verify(transactionService).processTransactions(List.of(firstTransaction, secondTransaction));
+        inOrder.verify(transactionService).processTransaction(firstTransaction);
+        inOrder.verify(transactionService).processTransaction(secondTransaction);
+        verifyNoMoreInteractions(transactionService);
+    }
+
+    public static class BatchProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("scheduler.lanes", "1", "scheduler.batch.size", "10", "scheduler.batch.window", "PT0.2S");
+        }
+    }
+}
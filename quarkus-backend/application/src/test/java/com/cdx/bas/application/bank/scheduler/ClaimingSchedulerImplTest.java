@@ -0,0 +1,69 @@
+package com.cdx.bas.application.bank.scheduler;
+
+import static com.cdx.bas.application.bank.scheduler.WaitingTransactions.waitingCredit;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import javax.inject.Inject;
+
+import com.cdx.bas.application.scheduler.Scheduler;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionPersistencePort;
+import com.cdx.bas.domain.transaction.TransactionServicePort;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.junit.mockito.InjectMock;
+
+@QuarkusTest
+@TestProfile(ClaimingSchedulerImplTest.ClaimProfile.class)
+public class ClaimingSchedulerImplTest {
+
+    @Inject
+    Scheduler scheduler;
+
+    @InjectMock
+    TransactionServicePort transactionService;
+
+    @InjectMock
+    TransactionPersistencePort transactionRepository;
+
+    @Test
+    public void processQueue_should_claimPagesUntilAPageIsNotFull_when_claimIsEnabled() {
+        Transaction firstTransaction = waitingCredit(1L, 99L);
+        Transaction secondTransaction = waitingCredit(2L, 99L);
+        Transaction thirdTransaction = waitingCredit(3L, 99L);
+        when(transactionRepository.claimUnprocessedTransactions(eq("node-test"), anyInt(), any()))
+            .thenReturn(new PriorityQueue<>(List.of(firstTransaction, secondTransaction)))
+            .thenReturn(new PriorityQueue<>(List.of(thirdTransaction)));
+
+        scheduler.processQueue();
+
+        verify(transactionRepository, times(2)).claimUnprocessedTransactions("node-test", 2, Duration.ofSeconds(30));
+        verify(transactionService).processTransaction(firstTransaction);
+        verify(transactionService).processTransaction(secondTransaction);
+        verify(transactionService).processTransaction(thirdTransaction);
+        verifyNoMoreInteractions(transactionRepository, transactionService);
+    }
+
+    public static class ClaimProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("scheduler.claim.enabled", "true", "scheduler.claim.limit", "2",
+                    "scheduler.claim.lease", "PT30S", "scheduler.node-id", "node-test");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.cdx.bas.application.bank.scheduler;
+
+import static com.cdx.bas.application.bank.scheduler.WaitingTransactions.waitingCredit;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+import javax.inject.Inject;
+
+import com.cdx.bas.application.scheduler.PartitionedTransactionProcessor;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionServicePort;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+
+@QuarkusTest
+public class PartitionedTransactionProcessorTest {
+
+    @Inject
+    PartitionedTransactionProcessor transactionProcessor;
+
+    @InjectMock
+    TransactionServicePort transactionService;
+
+    @Test
+    public void process_should_keepAccountOrder_when_transactionsOfSeveralAccountsAreInterleaved() {
+        Queue<Transaction> queue = new PriorityQueue<>();
+        queue.add(waitingCredit(1L, 10L));
+        queue.add(waitingCredit(2L, 20L));
+        queue.add(waitingCredit(3L, 10L));
+        queue.add(waitingCredit(4L, 20L));
+        queue.add(waitingCredit(5L, 10L));
+
+        transactionProcessor.process(queue);
+
+        InOrder firstAccountOrder = inOrder(transactionService);
+        firstAccountOrder.verify(transactionService).processTransaction(argThat(transaction -> transaction.getId() == 1L));
+        firstAccountOrder.verify(transactionService).processTransaction(argThat(transaction -> transaction.getId() == 3L));
+        firstAccountOrder.verify(transactionService).processTransaction(argThat(transaction -> transaction.getId() == 5L));
+        InOrder secondAccountOrder = inOrder(transactionService);
+        secondAccountOrder.verify(transactionService).processTransaction(argThat(transaction -> transaction.getId() == 2L));
+        secondAccountOrder.verify(transactionService).processTransaction(argThat(transaction -> transaction.getId() == 4L));
+        assertThat(queue).isEmpty();
+        verify(transactionService, times(5)).processTransaction(any());
+        verifyNoMoreInteractions(transactionService);
+    }
+
+    @Test
+    public void process_should_processFollowingTransactions_when_aTransactionProcessingFails() {
+        Transaction failingTransaction = waitingCredit(1L, 10L);
+        Transaction nextTransaction = waitingCredit(2L, 10L);
+        Queue<Transaction> queue = new PriorityQueue<>();
+        queue.add(failingTransaction);
+        queue.add(nextTransaction);
+        doThrow(new IllegalStateException("database unavailable")).when(transactionService).processTransaction(failingTransaction);
+
+        transactionProcessor.process(queue);
+
+        verify(transactionService).processTransaction(failingTransaction);
+        verify(transactionService).processTransaction(nextTransaction);
+        verifyNoMoreInteractions(transactionService);
+    }
+
+    @Test
+    public void getLaneCount_should_returnAtLeastOneLane() {
+        assertThat(transactionProcessor.getLaneCount()).isPositive();
+    }
+}
@@ -4,6 +4,9 @@ import static com.cdx.bas.domain.transaction.TransactionStatus.WAITING;
 import static com.cdx.bas.domain.transaction.TransactionType.CREDIT;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -16,11 +19,13 @@ import java.time.ZoneId;
 import java.util.PriorityQueue;
 import java.util.Queue;
 
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 
 import com.cdx.bas.application.scheduler.Scheduler;
 import com.cdx.bas.domain.transaction.Transaction;
 import com.cdx.bas.domain.transaction.TransactionPersistencePort;
+import com.cdx.bas.domain.transaction.TransactionQueuedEvent;
 import com.cdx.bas.domain.transaction.TransactionServicePort;
 import com.cdx.bas.domain.transaction.TransactionStatus;
 import com.cdx.bas.domain.transaction.TransactionType;
@@ -29,6 +34,7 @@ import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.mockito.InOrder;
 
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.mockito.InjectMock;
@@ -39,6 +45,9 @@ public class SchedulerImplTest {
     @Inject
     Scheduler scheduler;
 
+    @Inject
+    Event<TransactionQueuedEvent> transactionQueuedEvent;
+
     @InjectMock
     TransactionServicePort transactionService;
 
@@ -48,40 +57,44 @@ public class SchedulerImplTest {
     @Test
     @Order(1)
     public void processQueue_should_tryToFillTheQueue_when_QueueWasEmpty() {
-        when(transactionRepository.findUnprocessedTransactions()).thenReturn(new PriorityQueue<>());
+        when(transactionRepository.findUnprocessedTransactions(null, null, 500)).thenReturn(new PriorityQueue<>());
         scheduler.processQueue();
 
-        verify(transactionRepository).findUnprocessedTransactions();
+        verify(transactionRepository).findUnprocessedTransactions(null, null, 500);
         verifyNoMoreInteractions(transactionRepository);
         verifyNoInteractions(transactionService);
     }
 
     @Test
     @Order(2)
-    public void processQueue_should_runScheduleProcessOrderedQueues_when_WaitingForSchedulerAndQueuehasBeenFilled() throws InterruptedException {
+    public void processQueue_should_processOrderedQueue_when_QueueHasBeenFilled() {
         Queue<Transaction> queue = createDepositTransactions();
-        when(transactionRepository.findUnprocessedTransactions()).thenReturn(queue);
-        Clock clock;
-        Thread.sleep(5000);
+        when(transactionRepository.findUnprocessedTransactions(null, null, 500)).thenReturn(queue);
+        scheduler.processQueue();
 
-        verify(transactionRepository).findUnprocessedTransactions();
-        assertThat(queue.peek()).usingRecursiveComparison().isEqualTo(createTransaction(5L, 59L, 99L, CREDIT, WAITING, Instant.MIN, "Fifth transaction"));
-        verify(transactionService).processTransaction(queue.poll());
-        clock = Clock.fixed(Instant.parse("2022-12-06T10:14:00Z"), ZoneId.of("UTC"));
-        assertThat(queue.peek()).usingRecursiveComparison().isEqualTo(createTransaction(3L, 150, 99L, CREDIT, WAITING, Instant.now(clock), "Third transaction"));
-        verify(transactionService).processTransaction(queue.poll());
-        clock = Clock.fixed(Instant.parse("2022-12-07T10:14:00Z"), ZoneId.of("UTC"));
-        assertThat(queue.peek()).usingRecursiveComparison().isEqualTo(createTransaction(2L, 399L, 99L, CREDIT, WAITING, Instant.now(clock), "Second transaction"));
-        verify(transactionService).processTransaction(queue.poll());
-        clock = Clock.fixed(Instant.parse("2022-12-07T10:18:00Z"), ZoneId.of("UTC"));
-        assertThat(queue.peek()).usingRecursiveComparison().isEqualTo(createTransaction(4L, 1000L, 99L, CREDIT, WAITING, Instant.now(clock), "Fourth transaction"));
-        verify(transactionService).processTransaction(queue.poll());
+        InOrder inOrder = inOrder(transactionService);
+        inOrder.verify(transactionService).processTransaction(argThat(transaction -> transaction.getId() == 5L));
+        inOrder.verify(transactionService).processTransaction(argThat(transaction -> transaction.getId() == 3L));
+        inOrder.verify(transactionService).processTransaction(argThat(transaction -> transaction.getId() == 2L));
+        inOrder.verify(transactionService).processTransaction(argThat(transaction -> transaction.getId() == 4L));
+        inOrder.verify(transactionService).processTransaction(argThat(transaction -> transaction.getId() == 1L));
+        assertThat(queue).isEmpty();
 
-        verify(transactionRepository).findUnprocessedTransactions();
+        verify(transactionRepository).findUnprocessedTransactions(null, null, 500);
         verify(transactionService, times(5)).processTransaction(any());
         verifyNoMoreInteractions(transactionRepository, transactionService);
     }
 
+    @Test
+    @Order(3)
+    public void onTransactionQueued_should_processQueue_when_aTransactionIsQueued() {
+        when(transactionRepository.findUnprocessedTransactions(null, null, 500)).thenReturn(new PriorityQueue<>());
+        transactionQueuedEvent.fire(new TransactionQueuedEvent(99L));
+
+        verify(transactionRepository, timeout(2000)).findUnprocessedTransactions(null, null, 500);
+        verifyNoInteractions(transactionService);
+    }
+
     static Queue<Transaction> createDepositTransactions() {
         Clock clock;
         Queue<Transaction> queue = new PriorityQueue<Transaction>();
@@ -0,0 +1,27 @@
+package com.cdx.bas.application.bank.scheduler;
+
+import static com.cdx.bas.domain.transaction.TransactionType.CREDIT;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import com.cdx.bas.domain.transaction.Transaction;
+
+/**
+ * WAITING credits queued by the scheduler tests, a transaction is dated one minute after the one with the previous id
+ */
+final class WaitingTransactions {
+
+    private static final Instant FIRST_DATE = Instant.parse("2022-12-06T10:00:00Z");
+
+    private WaitingTransactions() {
+    }
+
+    static Transaction waitingCredit(long id, long accountId) {
+        Transaction transaction = new Transaction(accountId, 100L, CREDIT);
+        transaction.setId(id);
+        transaction.setDate(FIRST_DATE.plus(Duration.ofMinutes(id - 1)));
+        transaction.setLabel("transaction " + id);
+        return transaction;
+    }
+}
@@ -0,0 +1,71 @@
+package com.cdx.bas.application.bank.transaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import com.cdx.bas.application.transaction.ReactiveTransactionRepository;
+import com.cdx.bas.application.transaction.TransactionRepository;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionStatus;
+import com.cdx.bas.domain.transaction.TransactionType;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class ReactiveTransactionRepositoryTest {
+
+    @Inject
+    ReactiveTransactionRepository reactiveTransactionRepository;
+
+    @Inject
+    TransactionRepository transactionRepository;
+
+    @Test
+    public void findHistory_should_returnSamePagesAsBlockingRepository_when_positionIsGiven() {
+        List<Transaction> firstPage = reactiveTransactionRepository.findHistory(1L, null, null, 2).collect().asList().await().indefinitely();
+        Transaction lastOfFirstPage = firstPage.get(firstPage.size() - 1);
+        List<Transaction> secondPage = reactiveTransactionRepository.findHistory(1L, lastOfFirstPage.getDate(), lastOfFirstPage.getId(), 2)
+                .collect().asList().await().indefinitely();
+
+        assertThat(firstPage).extracting(Transaction::getId).containsExactly(12L, 10L);
+        assertThat(secondPage).extracting(Transaction::getId).containsExactly(7L, 3L);
+        assertThat(firstPage).usingRecursiveFieldByFieldElementComparator()
+            .containsExactlyElementsOf(transactionRepository.findHistory(1L, null, null, 2));
+    }
+
+    @Test
+    public void create_should_storeTransaction_when_itIsFoundAndUpdatedAfterwards() {
+        Transaction transaction = new Transaction(4L, 250L, TransactionType.CREDIT);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setDate(Instant.now().truncatedTo(ChronoUnit.MICROS));
+        transaction.setLabel("reactive deposit of 250");
+        transaction.getMetadatas().put("amount_after", "65250");
+
+        Transaction createdTransaction = reactiveTransactionRepository.create(transaction).await().indefinitely();
+        reactiveTransactionRepository.updateStatus(createdTransaction.getId(), TransactionStatus.REFUSED, Map.of("error", "refused"))
+            .await().indefinitely();
+        Transaction foundTransaction = reactiveTransactionRepository.findById(createdTransaction.getId()).await().indefinitely().orElseThrow();
+
+        assertThat(createdTransaction.getId()).isNotNull();
+        assertThat(foundTransaction.getAccountId()).isEqualTo(4L);
+        assertThat(foundTransaction.getAmount()).isEqualTo(250L);
+        assertThat(foundTransaction.getDate()).isEqualTo(transaction.getDate());
+        assertThat(foundTransaction.getLabel()).isEqualTo("reactive deposit of 250");
+        assertThat(foundTransaction.getStatus()).isEqualTo(TransactionStatus.REFUSED);
+        assertThat(foundTransaction.getMetadatas()).isEqualTo(Map.of("error", "refused"));
+        assertThat(transactionRepository.findById(createdTransaction.getId().longValue())).isPresent();
+    }
+
+    @Test
+    public void findById_should_returnEmptyOptional_when_transactionIsNotFound() {
+        assertThat(reactiveTransactionRepository.findById(99999L).await().indefinitely()).isEmpty();
+    }
+}
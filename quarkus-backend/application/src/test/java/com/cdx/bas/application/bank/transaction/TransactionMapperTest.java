@@ -19,6 +19,7 @@ import com.cdx.bas.application.bank.account.BankAccountRepository;
 import com.cdx.bas.application.transaction.TransactionEntity;
 import com.cdx.bas.application.transaction.TransactionMapper;
 import com.cdx.bas.domain.bank.account.AccountType;
+import com.cdx.bas.domain.money.Money;
 import com.cdx.bas.domain.transaction.Transaction;
 import com.cdx.bas.domain.transaction.TransactionStatus;
 import com.cdx.bas.domain.transaction.TransactionType;
@@ -159,7 +160,7 @@ public class TransactionMapperTest {
         BankAccountEntity bankAccountEntity = new BankAccountEntity();
         bankAccountEntity.setId(id);
         bankAccountEntity.setType(AccountType.CHECKING);
-        bankAccountEntity.setBalance(new BigDecimal("100"));
+        bankAccountEntity.setBalance(Money.of(100L));
         HashSet<Long> customersId = new HashSet<>();
         customersId.add(99L);
         return bankAccountEntity;
@@ -0,0 +1,239 @@
+package com.cdx.bas.application.bank.transaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+
+import com.cdx.bas.application.transaction.TransactionRepository;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionException;
+import com.cdx.bas.domain.transaction.TransactionHistoryFilter;
+import com.cdx.bas.domain.transaction.TransactionStatus;
+import com.cdx.bas.domain.transaction.TransactionType;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class TransactionRepositoryTest {
+
+    @Inject
+    TransactionRepository transactionRepository;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Test
+    public void findUnprocessedTransactions_should_returnNextPage_when_previousPagePositionIsGiven() {
+        Queue<Transaction> firstPage = transactionRepository.findUnprocessedTransactions(null, null, 2);
+        Transaction lastOfFirstPage = firstPage.stream().filter(transaction -> transaction.getId() == 10L).findFirst().orElseThrow();
+        Queue<Transaction> secondPage = transactionRepository.findUnprocessedTransactions(lastOfFirstPage.getDate(), lastOfFirstPage.getId(), 2);
+        Transaction lastOfSecondPage = secondPage.stream().filter(transaction -> transaction.getId() == 12L).findFirst().orElseThrow();
+        Queue<Transaction> lastPage = transactionRepository.findUnprocessedTransactions(lastOfSecondPage.getDate(), lastOfSecondPage.getId(), 2);
+
+        assertThat(firstPage).extracting(Transaction::getId).containsExactlyInAnyOrder(9L, 10L);
+        assertThat(secondPage).extracting(Transaction::getId).containsExactlyInAnyOrder(11L, 12L);
+        assertThat(lastPage).extracting(Transaction::getId).containsExactly(13L);
+    }
+
+    @Test
+    public void findHistory_should_returnPreviousPage_when_nextPagePositionIsGiven() {
+        List<Transaction> firstPage = transactionRepository.findHistory(1L, null, null, 2);
+        Transaction lastOfFirstPage = firstPage.get(firstPage.size() - 1);
+        List<Transaction> secondPage = transactionRepository.findHistory(1L, lastOfFirstPage.getDate(), lastOfFirstPage.getId(), 2);
+        Transaction lastOfSecondPage = secondPage.get(secondPage.size() - 1);
+        List<Transaction> lastPage = transactionRepository.findHistory(1L, lastOfSecondPage.getDate(), lastOfSecondPage.getId(), 2);
+
+        assertThat(firstPage).extracting(Transaction::getId).containsExactly(12L, 10L);
+        assertThat(secondPage).extracting(Transaction::getId).containsExactly(7L, 3L);
+        assertThat(lastPage).extracting(Transaction::getId).containsExactly(2L);
+    }
+
+    @Test
+    public void findHistory_should_returnFilteredPages_when_filterIsGiven() {
+        TransactionHistoryFilter filter = new TransactionHistoryFilter(localDate("2022-07-01T00:00:00"), localDate("2022-12-01T00:00:00"), 
+                Set.of(TransactionStatus.COMPLETED, TransactionStatus.WAITING));
+
+        List<Transaction> firstPage = transactionRepository.findHistory(1L, filter, null, null, 1);
+        Transaction lastOfFirstPage = firstPage.get(0);
+        List<Transaction> secondPage = transactionRepository.findHistory(1L, filter, lastOfFirstPage.getDate(), lastOfFirstPage.getId(), 1);
+        Transaction lastOfSecondPage = secondPage.get(0);
+        List<Transaction> lastPage = transactionRepository.findHistory(1L, filter, lastOfSecondPage.getDate(), lastOfSecondPage.getId(), 1);
+
+        assertThat(firstPage).extracting(Transaction::getId).containsExactly(10L);
+        assertThat(secondPage).extracting(Transaction::getId).containsExactly(3L);
+        assertThat(lastPage).isEmpty();
+        assertThat(lastOfSecondPage.getMetadatas()).isEqualTo(Map.of("amount_before", "350", "amount_after", "300"));
+        assertThat(transactionRepository.findHistory(1L, TransactionHistoryFilter.ALL, null, null, 10))
+                .extracting(Transaction::getId).containsExactly(12L, 10L, 7L, 3L, 2L);
+    }
+
+    @Test
+    public void claimUnprocessedTransactions_should_returnDisjointTransactions_until_leaseExpires() throws InterruptedException {
+        Duration lease = Duration.ofSeconds(1);
+
+        Queue<Transaction> firstClaim = transactionRepository.claimUnprocessedTransactions("node-1", 2, lease);
+        Queue<Transaction> secondClaim = transactionRepository.claimUnprocessedTransactions("node-2", 10, lease);
+
+        assertThat(firstClaim).extracting(Transaction::getId).containsExactly(9L, 10L);
+        assertThat(secondClaim).extracting(Transaction::getId).containsExactlyInAnyOrder(11L, 12L, 13L);
+        assertThat(secondClaim).allMatch(transaction -> TransactionStatus.WAITING.equals(transaction.getStatus()));
+        assertThat(transactionRepository.claimUnprocessedTransactions("node-3", 10, lease)).isEmpty();
+
+        Thread.sleep(lease.toMillis() + 100);
+        Queue<Transaction> claimAfterExpiration = transactionRepository.claimUnprocessedTransactions("node-3", 10, lease);
+
+        assertThat(claimAfterExpiration).extracting(Transaction::getId).containsExactlyInAnyOrder(9L, 10L, 11L, 12L, 13L);
+    }
+
+    @Test
+    public void lockForProcessing_should_skipTransaction_when_itsExpiredLeaseIsClaimedAgainOrItIsProcessed() throws InterruptedException {
+        Duration lease = Duration.ofSeconds(1);
+        QuarkusTransaction.run(() -> entityManager.createNativeQuery("INSERT INTO basapp.transactions "
+                + "(transaction_id, account_id, type, amount, status, date, label) "
+                + "VALUES (700001, 4, 'CREDIT', 100, 'WAITING', '1999-12-01 10:00:00', 'deposit of 100')").executeUpdate());
+        try {
+            assertThat(transactionRepository.claimUnprocessedTransactions("node-1", 1, lease)).extracting(Transaction::getId).containsExactly(700001L);
+            Thread.sleep(lease.toMillis() + 100);
+            assertThat(transactionRepository.claimUnprocessedTransactions("node-2", 1, lease)).extracting(Transaction::getId).containsExactly(700001L);
+
+            assertThat(QuarkusTransaction.call(() -> transactionRepository.lockForProcessing(700001L, "node-1"))).isFalse();
+            assertThat(QuarkusTransaction.call(() -> {
+                boolean locked = transactionRepository.lockForProcessing(700001L, "node-2");
+                transactionRepository.updateStatus(700001L, TransactionStatus.COMPLETED, Map.of());
+                return locked;
+            })).isTrue();
+            assertThat(QuarkusTransaction.call(() -> transactionRepository.lockForProcessing(700001L, "node-2"))).isFalse();
+            assertThat(QuarkusTransaction.call(() -> transactionRepository.lockForProcessing(700001L, null))).isFalse();
+        } finally {
+            QuarkusTransaction.run(() -> entityManager.createNativeQuery("DELETE FROM basapp.transactions WHERE transaction_id = 700001")
+                    .executeUpdate());
+        }
+    }
+
+    @Test
+    @TestTransaction
+    public void updateStatus_should_updateStatusAndMetadatas_when_transactionIsFound() {
+        Map<String, String> metadatas = Map.of("amount_before", "0", "amount_after", "100");
+
+        transactionRepository.updateStatus(1L, TransactionStatus.COMPLETED, metadatas);
+
+        Transaction transaction = transactionRepository.findById(1L).orElseThrow();
+        assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(transaction.getMetadatas()).isEqualTo(metadatas);
+    }
+
+    @Test
+    @TestTransaction
+    public void createAll_should_createWaitingTransactions_when_accountsExist() {
+        Transaction firstTransaction = new Transaction(2L, 100L, TransactionType.CREDIT);
+        firstTransaction.setLabel("deposit of 100");
+        Transaction secondTransaction = new Transaction(2L, 200L, TransactionType.CREDIT);
+        secondTransaction.setLabel("deposit of 200");
+        int historySize = transactionRepository.findHistory(2L, null, null, 100).size();
+
+        transactionRepository.createAll(List.of(firstTransaction, secondTransaction));
+
+        List<Transaction> history = transactionRepository.findHistory(2L, null, null, 100);
+        assertThat(history).hasSize(historySize + 2);
+        assertThat(history.subList(0, 2)).extracting(Transaction::getLabel).containsExactlyInAnyOrder("deposit of 100", "deposit of 200");
+        assertThat(history.subList(0, 2)).allMatch(transaction -> TransactionStatus.WAITING.equals(transaction.getStatus()));
+    }
+
+    @Test
+    @TestTransaction
+    public void createBatch_should_createWaitingTransactionsAndRefuseOthers_when_someAccountsDoNotExist() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (long amount = 1; amount <= 120; amount++) {
+            Transaction transaction = new Transaction(amount % 2 == 0 ? 2L : 4L, amount, TransactionType.CREDIT);
+            transaction.setLabel("deposit of " + amount);
+            transactions.add(transaction);
+        }
+        Transaction unknownAccountTransaction = new Transaction(999L, 100L, TransactionType.CREDIT);
+        unknownAccountTransaction.setLabel("deposit of 100");
+        transactions.add(unknownAccountTransaction);
+        int historySize = transactionRepository.findHistory(4L, null, null, 200).size();
+
+        List<Transaction> createdTransactions = transactionRepository.createBatch(transactions);
+
+        assertThat(createdTransactions.subList(0, 120)).allMatch(transaction -> transaction.getId() != null
+                && TransactionStatus.WAITING.equals(transaction.getStatus()));
+        assertThat(createdTransactions.subList(0, 120)).extracting(Transaction::getId).doesNotHaveDuplicates()
+                .isSortedAccordingTo(Comparator.naturalOrder());
+        assertThat(unknownAccountTransaction.getId()).isNull();
+        assertThat(unknownAccountTransaction.getStatus()).isEqualTo(TransactionStatus.REFUSED);
+        assertThat(unknownAccountTransaction.getMetadatas()).containsEntry("error", "bank account 999 not found.");
+        assertThat(transactionRepository.findHistory(4L, null, null, 200)).hasSize(historySize + 60);
+        Transaction storedTransaction = transactionRepository.findById(createdTransactions.get(0).getId().longValue()).orElseThrow();
+        assertThat(storedTransaction.getAccountId()).isEqualTo(4L);
+        assertThat(storedTransaction.getAmount()).isEqualTo(1L);
+        assertThat(storedTransaction.getLabel()).isEqualTo("deposit of 1");
+        assertThat(storedTransaction.getStatus()).isEqualTo(TransactionStatus.WAITING);
+    }
+
+    @Test
+    @TestTransaction
+    public void createBatch_should_refuseAllTransactions_when_moreAccountsThanBindParametersDoNotExist() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (long accountId = 100_000L; accountId < 140_000L; accountId++) {
+            Transaction transaction = new Transaction(accountId, 100L, TransactionType.CREDIT);
+            transaction.setLabel("deposit of 100");
+            transactions.add(transaction);
+        }
+
+        List<Transaction> createdTransactions = transactionRepository.createBatch(transactions);
+
+        assertThat(createdTransactions).hasSize(40_000).allMatch(transaction -> transaction.getId() == null
+                && TransactionStatus.REFUSED.equals(transaction.getStatus()));
+    }
+
+    @Test
+    @TestTransaction
+    public void createOnce_should_returnFirstTransaction_when_idempotencyKeyIsReused() {
+        Transaction firstTransaction = new Transaction(2L, 100L, TransactionType.CREDIT);
+        firstTransaction.setLabel("deposit of 100");
+        Transaction retriedTransaction = new Transaction(2L, 100L, TransactionType.CREDIT);
+        retriedTransaction.setLabel("deposit of 100");
+        int historySize = transactionRepository.findHistory(2L, null, null, 100).size();
+
+        Transaction createdTransaction = transactionRepository.createOnce(firstTransaction, "deposit-key-1");
+        Transaction replayedTransaction = transactionRepository.createOnce(retriedTransaction, "deposit-key-1");
+
+        assertThat(createdTransaction.getId()).isNotNull();
+        assertThat(replayedTransaction.getId()).isEqualTo(createdTransaction.getId());
+        assertThat(transactionRepository.findHistory(2L, null, null, 100)).hasSize(historySize + 1);
+    }
+
+    @Test
+    @TestTransaction
+    public void createOnce_should_throwTransactionException_when_idempotencyKeyIsUsedForAnotherTransaction() {
+        Transaction firstTransaction = new Transaction(2L, 100L, TransactionType.CREDIT);
+        firstTransaction.setLabel("deposit of 100");
+        Transaction otherTransaction = new Transaction(2L, 200L, TransactionType.CREDIT);
+        otherTransaction.setLabel("deposit of 200");
+        transactionRepository.createOnce(firstTransaction, "deposit-key-2");
+
+        assertThatThrownBy(() -> transactionRepository.createOnce(otherTransaction, "deposit-key-2"))
+                .isInstanceOf(TransactionException.class);
+    }
+
+    private static Instant localDate(String date) {
+        return LocalDateTime.parse(date).atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
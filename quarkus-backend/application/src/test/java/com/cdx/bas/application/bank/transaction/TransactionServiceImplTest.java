@@ -2,18 +2,32 @@ package com.cdx.bas.application.bank.transaction;
 
 import static com.cdx.bas.domain.transaction.TransactionStatus.WAITING;
 import static com.cdx.bas.domain.transaction.TransactionType.CREDIT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 import java.time.Instant;
+import java.util.List;
 
 import javax.inject.Inject;
 
 import com.cdx.bas.domain.bank.account.BankAccountServicePort;
 import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionCollection;
+import com.cdx.bas.domain.transaction.TransactionException;
+import com.cdx.bas.domain.transaction.TransactionPersistencePort;
+import com.cdx.bas.domain.transaction.TransactionStatus;
+import com.cdx.bas.domain.transaction.TransactionType;
 import com.cdx.bas.domain.transaction.TransactionServicePort;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.mockito.InjectMock;
@@ -27,6 +41,14 @@ public class TransactionServiceImplTest {
 	@InjectMock
 	BankAccountServicePort bankAccountService;
 
+	@InjectMock
+	TransactionPersistencePort transactionRepository;
+
+	@BeforeEach
+	public void leaseTransactions() {
+		when(transactionRepository.lockForProcessing(anyLong(), any())).thenReturn(true);
+	}
+
 	@Test
 	public void processTransaction_should_processBankAccountDeposit_when_creditTransactionWithPositiveAmount() {
 		Transaction transaction = new Transaction();
@@ -43,6 +65,18 @@ public class TransactionServiceImplTest {
 		verifyNoMoreInteractions(bankAccountService);
 	}
 
+	@Test
+	public void processTransaction_should_skipTransaction_when_itIsNoLongerWaitingForTheScheduler() {
+		Transaction transaction = new Transaction(100L, 100L, CREDIT);
+		transaction.setId(1L);
+		when(transactionRepository.lockForProcessing(1L, null)).thenReturn(false);
+
+		transactionService.processTransaction(transaction);
+
+		verify(transactionRepository).lockForProcessing(1L, null);
+		verifyNoMoreInteractions(bankAccountService, transactionRepository);
+	}
+
 	@Test
 	public void processTransaction_should_processBankAccountDeposit_when_creditTransactionWithNegativeAmount() {
 		Transaction transaction = new Transaction();
@@ -58,4 +92,76 @@ public class TransactionServiceImplTest {
 		verify(bankAccountService).deposit(transaction);
 		verifyNoMoreInteractions(bankAccountService);
 	}
+
+	@Test
+	public void processTransactions_should_processBankAccountDepositsTogether_when_creditTransactions() {
+		Transaction firstTransaction = new Transaction();
+		firstTransaction.setId(1L);
+		firstTransaction.setAmount(100L);
+		firstTransaction.setAccountId(100L);
+		firstTransaction.setType(CREDIT);
+		firstTransaction.setStatus(WAITING);
+		firstTransaction.setDate(Instant.now());
+		firstTransaction.setLabel("deposit of 100 euros");
+		Transaction secondTransaction = new Transaction();
+		secondTransaction.setId(2L);
+		secondTransaction.setAmount(200L);
+		secondTransaction.setAccountId(100L);
+		secondTransaction.setType(CREDIT);
+		secondTransaction.setStatus(WAITING);
+		secondTransaction.setDate(Instant.now());
+		secondTransaction.setLabel("deposit of 200 euros");
+		transactionService.processTransactions(List.of(firstTransaction, secondTransaction));
+
+		verify(bankAccountService).deposits(List.of(firstTransaction, secondTransaction));
+		verifyNoMoreInteractions(bankAccountService);
+	}
+
+	@Test
+	public void extractTransactionFromCollection_should_removeAndReturnTransaction_when_transactionIsFound() {
+		Transaction transaction = new Transaction();
+		transaction.setId(1L);
+		transaction.setAmount(100L);
+		transaction.setAccountId(100L);
+		transaction.setType(CREDIT);
+		transaction.setStatus(WAITING);
+		transaction.setDate(Instant.now());
+		transaction.setLabel("deposit of 100 euros");
+		TransactionCollection transactions = new TransactionCollection(List.of(transaction));
+
+		assertThat(transactionService.extractTransactionFromCollection(1L, transactions)).isSameAs(transaction);
+		assertThat(transactions).isEmpty();
+	}
+
+	@Test
+	public void extractTransactionFromCollection_should_throwTransactionException_when_transactionIsNotFound() {
+		TransactionCollection transactions = new TransactionCollection();
+
+		assertThatThrownBy(() -> transactionService.extractTransactionFromCollection(1L, transactions))
+		.isInstanceOf(TransactionException.class)
+		.hasMessage("Transaction 1 not found in the bank account.");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void queueDeposits_should_createDepositsGroupedByAccount_when_depositsAreValid() {
+		when(transactionRepository.createBatch(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+		Transaction firstDeposit = new Transaction(2L, 100L, CREDIT);
+		Transaction otherAccountDeposit = new Transaction(4L, 200L, CREDIT);
+		otherAccountDeposit.setLabel("salary");
+		Transaction secondDeposit = new Transaction(2L, 300L, null);
+		Transaction negativeDeposit = new Transaction(2L, -5L, CREDIT);
+		Transaction debit = new Transaction(4L, 50L, TransactionType.DEBIT);
+
+		List<Transaction> transactions = transactionService.queueDeposits(List.of(firstDeposit, otherAccountDeposit, secondDeposit, negativeDeposit, debit));
+
+		ArgumentCaptor<List<Transaction>> createdTransactions = ArgumentCaptor.forClass(List.class);
+		verify(transactionRepository).createBatch(createdTransactions.capture());
+		assertThat(createdTransactions.getValue()).extracting(Transaction::getAmount).containsExactly(100L, 300L, 200L);
+		assertThat(createdTransactions.getValue()).allMatch(transaction -> WAITING.equals(transaction.getStatus()) && CREDIT.equals(transaction.getType()));
+		assertThat(transactions).extracting(Transaction::getStatus).containsExactly(WAITING, WAITING, WAITING, TransactionStatus.REFUSED, TransactionStatus.REFUSED);
+		assertThat(transactions).extracting(Transaction::getLabel).containsExactly("deposit of 100", "salary", "deposit of 300", "deposit of -5", "deposit of 50");
+		assertThat(transactions.get(3).getMetadatas()).containsEntry("error", "amount must be positive and greater than 0.");
+		assertThat(transactions.get(4).getMetadatas()).containsEntry("error", "only CREDIT transactions are accepted as deposits.");
+	}
 }
@@ -0,0 +1,160 @@
+package com.cdx.bas.application.bank.transaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import javax.inject.Inject;
+
+import com.cdx.bas.application.transaction.TransactionStatusBroadcaster;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionStatus;
+import com.cdx.bas.domain.transaction.TransactionStatusChangedEvent;
+import com.cdx.bas.domain.transaction.TransactionStatusSubscriber;
+import com.cdx.bas.domain.transaction.TransactionType;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class TransactionStatusBroadcasterTest {
+
+    @Inject
+    TransactionStatusBroadcaster transactionStatusBroadcaster;
+
+    @Test
+    public void publish_should_sendChangesInOrder_when_subscriberListensToTheAccount() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber(3);
+        RecordingSubscriber otherAccountSubscriber = new RecordingSubscriber(1);
+        transactionStatusBroadcaster.subscribe(101L, subscriber);
+        transactionStatusBroadcaster.subscribe(102L, otherAccountSubscriber);
+
+        transactionStatusBroadcaster.publish(createEvent(1L, 101L, TransactionStatus.COMPLETED));
+        transactionStatusBroadcaster.publish(createEvent(2L, 101L, TransactionStatus.REFUSED));
+        transactionStatusBroadcaster.publish(createEvent(3L, 101L, TransactionStatus.ERROR));
+
+        assertThat(subscriber.received.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.events).extracting(TransactionStatusChangedEvent::getTransactionId).containsExactly(1L, 2L, 3L);
+        assertThat(subscriber.events).extracting(TransactionStatusChangedEvent::getStatus)
+                .containsExactly(TransactionStatus.COMPLETED, TransactionStatus.REFUSED, TransactionStatus.ERROR);
+        assertThat(otherAccountSubscriber.events).isEmpty();
+    }
+
+    @Test
+    public void publish_should_dropOldestChanges_when_subscriberBufferIsFull() throws InterruptedException {
+        CompletableFuture<Void> firstSend = new CompletableFuture<>();
+        RecordingSubscriber slowSubscriber = new RecordingSubscriber(65) {
+            @Override
+            public CompletionStage<?> send(TransactionStatusChangedEvent event) {
+                super.send(event);
+                return event.getTransactionId() == 1L ? firstSend : CompletableFuture.completedFuture(null);
+            }
+        };
+        transactionStatusBroadcaster.subscribe(103L, slowSubscriber);
+        transactionStatusBroadcaster.publish(createEvent(1L, 103L, TransactionStatus.COMPLETED));
+        waitFor(() -> slowSubscriber.events.size() == 1);
+
+        for (long id = 2L; id <= 70L; id++) {
+            transactionStatusBroadcaster.publish(createEvent(id, 103L, TransactionStatus.COMPLETED));
+        }
+        firstSend.complete(null);
+
+        assertThat(slowSubscriber.received.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(slowSubscriber.events).hasSize(65);
+        assertThat(slowSubscriber.events.get(0).getTransactionId()).isEqualTo(1L);
+        assertThat(slowSubscriber.events.get(1).getTransactionId()).isEqualTo(7L);
+        assertThat(slowSubscriber.events.get(64).getTransactionId()).isEqualTo(70L);
+    }
+
+    @Test
+    public void publish_should_removeSubscriber_when_connectionIsLost() throws InterruptedException {
+        RecordingSubscriber lostSubscriber = new RecordingSubscriber(1) {
+            @Override
+            public CompletionStage<?> send(TransactionStatusChangedEvent event) {
+                super.send(event);
+                return CompletableFuture.failedFuture(new IllegalStateException("connection closed"));
+            }
+        };
+        transactionStatusBroadcaster.subscribe(104L, lostSubscriber);
+        assertThat(transactionStatusBroadcaster.getSubscriberCount(104L)).isEqualTo(1);
+
+        transactionStatusBroadcaster.publish(createEvent(1L, 104L, TransactionStatus.COMPLETED));
+
+        assertThat(lostSubscriber.closed.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(transactionStatusBroadcaster.getSubscriberCount(104L)).isZero();
+        transactionStatusBroadcaster.publish(createEvent(2L, 104L, TransactionStatus.COMPLETED));
+        assertThat(lostSubscriber.events).hasSize(1);
+    }
+
+    @Test
+    public void unsubscribe_should_closeSubscriber_when_subscribed() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber(1);
+        transactionStatusBroadcaster.subscribe(105L, subscriber);
+
+        transactionStatusBroadcaster.unsubscribe(105L, subscriber);
+
+        assertThat(subscriber.closed.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(transactionStatusBroadcaster.getSubscriberCount(105L)).isZero();
+        transactionStatusBroadcaster.publish(createEvent(1L, 105L, TransactionStatus.COMPLETED));
+        assertThat(subscriber.events).isEmpty();
+    }
+
+    private static TransactionStatusChangedEvent createEvent(long id, long accountId, TransactionStatus status) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAccountId(accountId);
+        transaction.setAmount(100L);
+        transaction.setType(TransactionType.CREDIT);
+        transaction.setStatus(status);
+        transaction.setDate(Instant.now());
+        transaction.setMetadatas(new HashMap<>());
+        return new TransactionStatusChangedEvent(transaction);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    static class RecordingSubscriber implements TransactionStatusSubscriber {
+
+        final List<TransactionStatusChangedEvent> events = new CopyOnWriteArrayList<>();
+
+        final CountDownLatch received;
+
+        final CountDownLatch closed = new CountDownLatch(1);
+
+        RecordingSubscriber(int expectedEvents) {
+            received = new CountDownLatch(expectedEvents);
+        }
+
+        @Override
+        public CompletionStage<?> send(TransactionStatusChangedEvent event) {
+            events.add(event);
+            received.countDown();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletionStage<?> keepAlive() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.cdx.bas.application.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import javax.inject.Inject;
+
+import com.cdx.bas.application.bank.account.BankAccountEntity;
+import com.cdx.bas.application.bank.account.BankAccountRepository;
+import com.cdx.bas.application.customer.CustomerEntity;
+import com.cdx.bas.application.customer.CustomerRepository;
+import com.cdx.bas.domain.cache.CacheStatistics;
+import com.cdx.bas.domain.customer.Customer;
+import com.cdx.bas.domain.money.Money;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class SecondLevelCacheStatisticsTest {
+
+    private static final String CUSTOMERS_REGION = CustomerEntity.class.getName();
+
+    @Inject
+    SecondLevelCacheStatistics secondLevelCacheStatistics;
+
+    @Inject
+    BankAccountRepository bankAccountRepository;
+
+    @Inject
+    CustomerRepository customerRepository;
+
+    @Test
+    public void findById_should_readCustomersFromCache_when_balanceChangedSinceTheyWereLoaded() {
+        findCustomersId(2L);
+        bankAccountRepository.addToBalance(2L, Money.of(100L));
+        bankAccountRepository.addToBalance(2L, Money.of(-100L));
+        CacheStatistics accountCustomersBefore = secondLevelCacheStatistics.getStatistics(BankAccountEntity.CUSTOMERS_CACHE_REGION);
+        CacheStatistics customersBefore = secondLevelCacheStatistics.getStatistics(CUSTOMERS_REGION);
+
+        assertThat(findCustomersId(2L)).containsExactlyInAnyOrder(2L, 3L);
+
+        CacheStatistics accountCustomers = secondLevelCacheStatistics.getStatistics(BankAccountEntity.CUSTOMERS_CACHE_REGION);
+        CacheStatistics customers = secondLevelCacheStatistics.getStatistics(CUSTOMERS_REGION);
+        assertThat(accountCustomers.getHitCount()).isEqualTo(accountCustomersBefore.getHitCount() + 1);
+        assertThat(accountCustomers.getMissCount()).isEqualTo(accountCustomersBefore.getMissCount());
+        assertThat(customers.getHitCount()).isEqualTo(customersBefore.getHitCount() + 2);
+        assertThat(customers.getMissCount()).isEqualTo(customersBefore.getMissCount());
+        assertThat(secondLevelCacheStatistics.getStatistics()).extracting(CacheStatistics::getName)
+            .contains(CUSTOMERS_REGION, BankAccountEntity.CUSTOMERS_CACHE_REGION);
+    }
+
+    @Test
+    public void update_should_evictCustomersOfBankAccounts_when_customerUpdateIsCommitted() {
+        findCustomersId(3L);
+        String firstName = QuarkusTransaction.call(() -> customerRepository.findById(4L).orElseThrow().getFirstName());
+        updateFirstName(4L, "Sophia");
+        CacheStatistics accountCustomersBefore = secondLevelCacheStatistics.getStatistics(BankAccountEntity.CUSTOMERS_CACHE_REGION);
+
+        assertThat(findCustomersId(3L)).containsExactly(4L);
+
+        CacheStatistics accountCustomers = secondLevelCacheStatistics.getStatistics(BankAccountEntity.CUSTOMERS_CACHE_REGION);
+        assertThat(accountCustomers.getMissCount()).isEqualTo(accountCustomersBefore.getMissCount() + 1);
+        updateFirstName(4L, firstName);
+    }
+
+    @Test
+    public void update_should_keepCustomersOfBankAccounts_when_customerUpdateIsRolledBack() {
+        findCustomersId(3L);
+        QuarkusTransaction.begin();
+        Customer customer = customerRepository.findById(4L).orElseThrow();
+        customer.setFirstName("Sophia");
+        customerRepository.update(customer);
+        QuarkusTransaction.rollback();
+        CacheStatistics accountCustomersBefore = secondLevelCacheStatistics.getStatistics(BankAccountEntity.CUSTOMERS_CACHE_REGION);
+
+        assertThat(findCustomersId(3L)).containsExactly(4L);
+
+        CacheStatistics accountCustomers = secondLevelCacheStatistics.getStatistics(BankAccountEntity.CUSTOMERS_CACHE_REGION);
+        assertThat(accountCustomers.getMissCount()).isEqualTo(accountCustomersBefore.getMissCount());
+        assertThat(accountCustomers.getHitCount()).isEqualTo(accountCustomersBefore.getHitCount() + 1);
+    }
+
+    private void updateFirstName(long customerId, String firstName) {
+        QuarkusTransaction.run(() -> {
+            Customer customer = customerRepository.findById(customerId).orElseThrow();
+            customer.setFirstName(firstName);
+            customerRepository.update(customer);
+        });
+    }
+
+    private List<Long> findCustomersId(long accountId) {
+        return QuarkusTransaction.call(() -> bankAccountRepository.findById(accountId).orElseThrow().getCustomersId());
+    }
+}
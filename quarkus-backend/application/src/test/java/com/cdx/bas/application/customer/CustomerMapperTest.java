@@ -252,7 +252,7 @@ public class CustomerMapperTest {
         BankAccountEntity bankAccountEntity = new BankAccountEntity();
         bankAccountEntity.setId(id);
         bankAccountEntity.setType(AccountType.CHECKING);
-        bankAccountEntity.setBalance(new BigDecimal("100"));
+        bankAccountEntity.setBalance(Money.of(100L));
         List<CustomerEntity> customersId = new ArrayList<>();
         customersId.add(new CustomerEntity());
         bankAccountEntity.setCustomers(customersId);
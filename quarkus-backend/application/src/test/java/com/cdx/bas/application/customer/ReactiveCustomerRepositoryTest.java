@@ -0,0 +1,38 @@
+package com.cdx.bas.application.customer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import com.cdx.bas.domain.bank.account.BankAccount;
+import com.cdx.bas.domain.customer.Customer;
+import com.cdx.bas.domain.customer.Gender;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class ReactiveCustomerRepositoryTest {
+
+    @Inject
+    ReactiveCustomerRepository reactiveCustomerRepository;
+
+    @Test
+    public void findById_should_returnCustomerWithItsBankAccounts_when_customerIsFound() {
+        Customer customer = reactiveCustomerRepository.findById(3L).await().indefinitely().orElseThrow();
+
+        assertThat(customer.getFirstName()).isEqualTo("Paul");
+        assertThat(customer.getGender()).isEqualTo(Gender.MALE);
+        assertThat(customer.getMetadatas()).containsAllEntriesOf(Map.of("contact_preferences", "email"));
+        assertThat(customer.getAccounts()).extracting(BankAccount::getId).containsExactly(2L, 4L);
+        assertThat(customer.getAccounts().get(0).getCustomersId()).containsExactly(2L, 3L);
+    }
+
+    @Test
+    public void findById_should_returnEmptyOptional_when_customerIsNotFound() {
+        assertThat(reactiveCustomerRepository.findById(99999L).await().indefinitely()).isEmpty();
+    }
+}
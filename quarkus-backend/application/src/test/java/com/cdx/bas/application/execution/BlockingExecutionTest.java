@@ -0,0 +1,123 @@
+package com.cdx.bas.application.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class BlockingExecutionTest {
+
+    @Inject
+    BlockingExecution blockingExecution;
+
+    @Test
+    public void submit_should_runOnCallingThread_when_modeIsPlatform() throws Exception {
+        BlockingExecution platformExecution = createExecution(ExecutionMode.PLATFORM, 2);
+
+        CompletionStage<String> result = platformExecution.submit(() -> Thread.currentThread().getName());
+
+        assertThat(result.toCompletableFuture().get()).isEqualTo(Thread.currentThread().getName());
+        assertThat(platformExecution.getAvailableDbPermits()).isEqualTo(2);
+    }
+
+    @Test
+    public void submit_should_completeExceptionally_when_taskFails() {
+        BlockingExecution platformExecution = createExecution(ExecutionMode.PLATFORM, 2);
+        IllegalStateException failure = new IllegalStateException("failed");
+
+        CompletableFuture<Object> result = platformExecution.submit(() -> {
+            throw failure;
+        }).toCompletableFuture();
+
+        assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class).hasCause(failure);
+        assertThat(platformExecution.getAvailableDbPermits()).isEqualTo(2);
+    }
+
+    @Test
+    public void submit_should_completeOnAnotherThread_when_modeIsVirtual() throws Exception {
+        BlockingExecution virtualExecution = createExecution(ExecutionMode.VIRTUAL, 2);
+        String callingThread = Thread.currentThread().getName();
+
+        String taskThread = virtualExecution.submit(() -> Thread.currentThread().getName()).toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+        if (virtualExecution.getMode() == ExecutionMode.VIRTUAL) {
+            assertThat(taskThread).startsWith("execution-task-");
+        } else {
+            assertThat(taskThread).isEqualTo(callingThread);
+        }
+    }
+
+    @Test
+    public void init_should_fallBackToPlatformThreads_when_jvmHasNoVirtualThreads() {
+        BlockingExecution virtualExecution = createExecution(ExecutionMode.VIRTUAL, 2);
+
+        ExecutionMode expectedMode = Runtime.version().feature() >= 21 ? ExecutionMode.VIRTUAL : ExecutionMode.PLATFORM;
+        assertThat(virtualExecution.getMode()).isEqualTo(expectedMode);
+    }
+
+    @Test
+    public void callWithDbPermit_should_boundConcurrentTasks_when_moreTasksThanPermits() throws Exception {
+        BlockingExecution platformExecution = createExecution(ExecutionMode.PLATFORM, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int index = 0; index < 16; index++) {
+                results.add(callers.submit(() -> platformExecution.callWithDbPermit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(5);
+                    return running.decrementAndGet();
+                })));
+            }
+            for (Future<Integer> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertThat(maxRunning.get()).isBetween(1, 2);
+        assertThat(platformExecution.getAvailableDbPermits()).isEqualTo(2);
+    }
+
+    @Test
+    public void init_should_sizeDbPermitsLikeDatasourcePool_when_permitsAreNotConfigured() {
+        assertThat(blockingExecution.getMode()).isEqualTo(ExecutionMode.PLATFORM);
+        assertThat(blockingExecution.getDbPermitCount()).isEqualTo(20);
+    }
+
+    private static BlockingExecution createExecution(ExecutionMode mode, int dbPermits) {
+        BlockingExecution execution = new BlockingExecution();
+        execution.requestedMode = mode;
+        execution.dbPermitsProperty = Optional.of(dbPermits);
+        execution.poolMaxSize = 20;
+        execution.init();
+        return execution;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
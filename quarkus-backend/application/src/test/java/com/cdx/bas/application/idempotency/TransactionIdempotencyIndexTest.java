@@ -0,0 +1,108 @@
+package com.cdx.bas.application.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.cdx.bas.domain.bank.account.BankAccount;
+import com.cdx.bas.domain.bank.account.checking.CheckingBankAccount;
+import com.cdx.bas.domain.money.Money;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionException;
+import com.cdx.bas.domain.transaction.TransactionType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TransactionIdempotencyIndexTest {
+
+    TransactionIdempotencyIndex idempotencyIndex;
+
+    long now;
+
+    @BeforeEach
+    public void createIndex() {
+        idempotencyIndex = new TransactionIdempotencyIndex();
+        idempotencyIndex.maxSize = 2;
+        idempotencyIndex.expiration = Duration.ofSeconds(10);
+        idempotencyIndex.nanoClock = () -> now;
+    }
+
+    @Test
+    public void findResult_should_returnFirstResult_when_requestIsReplayed() {
+        BankAccount bankAccount = createBankAccount(1L);
+        idempotencyIndex.saveResult("key-1", createTransaction(1L, 100L), bankAccount);
+
+        assertThat(idempotencyIndex.findResult("key-1", new Transaction(1L, 100L, TransactionType.CREDIT))).contains(bankAccount);
+        assertThat(idempotencyIndex.findResult("key-2", new Transaction(1L, 100L, TransactionType.CREDIT))).isEmpty();
+    }
+
+    @Test
+    public void findResult_should_returnUnchangedResult_when_previousReplayOrSavedResultIsChanged() {
+        BankAccount bankAccount = createBankAccount(1L);
+        idempotencyIndex.saveResult("key-1", createTransaction(1L, 100L), bankAccount);
+        bankAccount.setBalance(Money.of(500L));
+        BankAccount firstReplay = idempotencyIndex.findResult("key-1", new Transaction(1L, 100L, TransactionType.CREDIT)).orElseThrow();
+        firstReplay.getTransactions().clear();
+        firstReplay.getCustomersId().clear();
+
+        BankAccount secondReplay = idempotencyIndex.findResult("key-1", new Transaction(1L, 100L, TransactionType.CREDIT)).orElseThrow();
+
+        assertThat(secondReplay).isNotSameAs(firstReplay);
+        assertThat(secondReplay.getBalance()).isEqualTo(Money.of(100L));
+        assertThat(secondReplay.getCustomersId()).containsExactly(99L);
+        assertThat(secondReplay.getTransactions()).hasSize(1);
+    }
+
+    @Test
+    public void findResult_should_throwTransactionException_when_keyIsUsedForAnotherTransaction() {
+        idempotencyIndex.saveResult("key-1", createTransaction(1L, 100L), new CheckingBankAccount());
+
+        assertThatThrownBy(() -> idempotencyIndex.findResult("key-1", new Transaction(1L, 200L, TransactionType.CREDIT)))
+                .isInstanceOf(TransactionException.class)
+                .hasMessage("idempotency key key-1 already used for transaction 1.");
+    }
+
+    @Test
+    public void findResult_should_returnEmpty_when_resultHasExpired() {
+        idempotencyIndex.saveResult("key-1", createTransaction(1L, 100L), new CheckingBankAccount());
+        now += Duration.ofSeconds(5).toNanos();
+        idempotencyIndex.saveResult("key-2", createTransaction(2L, 100L), new CheckingBankAccount());
+        now += Duration.ofSeconds(5).toNanos();
+
+        assertThat(idempotencyIndex.findResult("key-1", new Transaction(1L, 100L, TransactionType.CREDIT))).isEmpty();
+        assertThat(idempotencyIndex.findResult("key-2", new Transaction(2L, 100L, TransactionType.CREDIT))).isPresent();
+        assertThat(idempotencyIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void saveResult_should_forgetOldestResult_when_indexIsFull() {
+        idempotencyIndex.saveResult("key-1", createTransaction(1L, 100L), new CheckingBankAccount());
+        idempotencyIndex.saveResult("key-2", createTransaction(2L, 100L), new CheckingBankAccount());
+        idempotencyIndex.saveResult("key-3", createTransaction(3L, 100L), new CheckingBankAccount());
+
+        assertThat(idempotencyIndex.size()).isEqualTo(2);
+        assertThat(idempotencyIndex.findResult("key-1", new Transaction(1L, 100L, TransactionType.CREDIT))).isEmpty();
+        assertThat(idempotencyIndex.findResult("key-3", new Transaction(3L, 100L, TransactionType.CREDIT))).isPresent();
+    }
+
+    private static BankAccount createBankAccount(long id) {
+        BankAccount bankAccount = new CheckingBankAccount();
+        bankAccount.setId(id);
+        bankAccount.setBalance(Money.of(100L));
+        bankAccount.setCustomersId(new ArrayList<>(List.of(99L)));
+        bankAccount.setTransactions(new HashSet<>(Set.of(createTransaction(id, 100L))));
+        return bankAccount;
+    }
+
+    private static Transaction createTransaction(long accountId, long amount) {
+        Transaction transaction = new Transaction(accountId, amount, TransactionType.CREDIT);
+        transaction.setId(accountId);
+        return transaction;
+    }
+}
@@ -0,0 +1,46 @@
+package com.cdx.bas.application.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.inject.Inject;
+
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionType;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class JournalDrainerTest {
+
+    @Inject
+    JournalDrainer journalDrainer;
+
+    @Test
+    public void findCheckpoint_should_returnZero_when_journalHasNeverBeenDrained() {
+        assertThat(journalDrainer.findCheckpoint("never-drained")).isZero();
+    }
+
+    @Test
+    public void skip_should_moveCheckpoint_when_recordIsSkipped() {
+        journalDrainer.skip("skipped", 3L);
+        journalDrainer.skip("skipped", 4L);
+
+        assertThat(journalDrainer.findCheckpoint("skipped")).isEqualTo(4L);
+    }
+
+    @Test
+    public void drain_should_keepCheckpoint_when_bankAccountIsNotFound() {
+        Transaction transaction = new Transaction(99999L, 100L, TransactionType.CREDIT);
+        transaction.setLabel("deposit of 100");
+
+        assertThatThrownBy(() -> journalDrainer.drain("missing-account", List.of(transaction), 1L))
+            .isInstanceOf(NoSuchElementException.class);
+        assertThat(journalDrainer.findCheckpoint("missing-account")).isZero();
+    }
+}
@@ -0,0 +1,145 @@
+package com.cdx.bas.application.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionStatus;
+import com.cdx.bas.domain.transaction.TransactionType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class TransactionJournalFileTest {
+
+    private static final int SEGMENT_SIZE = 3 * TransactionJournalFile.RECORD_SIZE;
+
+    private static final Instant DATE = Instant.parse("2022-12-06T10:00:00.123456789Z");
+
+    Path directory;
+
+    @BeforeEach
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("journal");
+    }
+
+    @Test
+    public void read_should_returnWaitingTransactions_when_recordsAreAppended() throws IOException {
+        try (TransactionJournalFile journalFile = new TransactionJournalFile(directory, SEGMENT_SIZE, 1L)) {
+            assertThat(journalFile.append(1L, 100L, TransactionType.CREDIT, DATE)).isEqualTo(1L);
+            assertThat(journalFile.append(2L, 200L, TransactionType.CREDIT, DATE)).isEqualTo(2L);
+
+            List<Transaction> transactions = new ArrayList<>();
+            assertThat(journalFile.read(0L, 10, transactions)).isEqualTo(2L);
+
+            assertThat(transactions).hasSize(2);
+            Transaction transaction = transactions.get(0);
+            assertThat(transaction.getAccountId()).isEqualTo(1L);
+            assertThat(transaction.getAmount()).isEqualTo(100L);
+            assertThat(transaction.getType()).isEqualTo(TransactionType.CREDIT);
+            assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.WAITING);
+            assertThat(transaction.getDate()).isEqualTo(DATE);
+            assertThat(transaction.getLabel()).isEqualTo("deposit of 100");
+        }
+    }
+
+    @Test
+    public void append_should_startNewSegment_when_currentSegmentIsFull() throws IOException {
+        try (TransactionJournalFile journalFile = new TransactionJournalFile(directory, SEGMENT_SIZE, 1L)) {
+            for (long amount = 1; amount <= 7; amount++) {
+                journalFile.append(1L, amount, TransactionType.CREDIT, DATE);
+            }
+
+            List<Transaction> transactions = new ArrayList<>();
+            assertThat(journalFile.read(2L, 4, transactions)).isEqualTo(6L);
+
+            assertThat(transactions).extracting(Transaction::getAmount).containsExactly(3L, 4L, 5L, 6L);
+            assertThat(segmentFiles()).hasSize(3);
+        }
+    }
+
+    @Test
+    public void TransactionJournalFile_should_replayRecords_when_journalIsReopened() throws IOException {
+        try (TransactionJournalFile journalFile = new TransactionJournalFile(directory, SEGMENT_SIZE, 1L)) {
+            for (long amount = 1; amount <= 4; amount++) {
+                journalFile.append(1L, amount, TransactionType.CREDIT, DATE);
+            }
+        }
+
+        try (TransactionJournalFile journalFile = new TransactionJournalFile(directory, SEGMENT_SIZE, 1L)) {
+            assertThat(journalFile.getLastSequence()).isEqualTo(4L);
+            assertThat(journalFile.append(1L, 5L, TransactionType.CREDIT, DATE)).isEqualTo(5L);
+
+            List<Transaction> transactions = new ArrayList<>();
+            journalFile.read(0L, 10, transactions);
+            assertThat(transactions).extracting(Transaction::getAmount).containsExactly(1L, 2L, 3L, 4L, 5L);
+        }
+    }
+
+    @Test
+    public void TransactionJournalFile_should_ignoreTornRecord_when_checksumDoesNotMatch() throws IOException {
+        try (TransactionJournalFile journalFile = new TransactionJournalFile(directory, SEGMENT_SIZE, 1L)) {
+            journalFile.append(1L, 1L, TransactionType.CREDIT, DATE);
+            journalFile.append(1L, 2L, TransactionType.CREDIT, DATE);
+        }
+        try (FileChannel channel = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 42 }), TransactionJournalFile.RECORD_SIZE + 16L);
+        }
+
+        try (TransactionJournalFile journalFile = new TransactionJournalFile(directory, SEGMENT_SIZE, 1L)) {
+            assertThat(journalFile.getLastSequence()).isEqualTo(1L);
+            assertThat(journalFile.append(1L, 3L, TransactionType.CREDIT, DATE)).isEqualTo(2L);
+        }
+    }
+
+    @Test
+    public void TransactionJournalFile_should_continueAfterFirstSequence_when_journalIsBehindCheckpoint() throws IOException {
+        try (TransactionJournalFile journalFile = new TransactionJournalFile(directory, SEGMENT_SIZE, 1L)) {
+            journalFile.append(1L, 1L, TransactionType.CREDIT, DATE);
+        }
+
+        try (TransactionJournalFile journalFile = new TransactionJournalFile(directory, SEGMENT_SIZE, 11L)) {
+            assertThat(journalFile.append(1L, 2L, TransactionType.CREDIT, DATE)).isEqualTo(11L);
+
+            List<Transaction> transactions = new ArrayList<>();
+            journalFile.read(10L, 10, transactions);
+            assertThat(transactions).extracting(Transaction::getAmount).containsExactly(2L);
+        }
+    }
+
+    @Test
+    public void deleteDrainedSegments_should_deleteFullyDrainedSegments_when_theyAreNotCurrent() throws IOException {
+        try (TransactionJournalFile journalFile = new TransactionJournalFile(directory, SEGMENT_SIZE, 1L)) {
+            for (long amount = 1; amount <= 7; amount++) {
+                journalFile.append(1L, amount, TransactionType.CREDIT, DATE);
+            }
+
+            journalFile.deleteDrainedSegments(5L);
+            assertThat(journalFile.getFirstSequence()).isEqualTo(4L);
+
+            journalFile.deleteDrainedSegments(7L);
+            assertThat(journalFile.getFirstSequence()).isEqualTo(7L);
+            assertThat(segmentFiles()).hasSize(1);
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
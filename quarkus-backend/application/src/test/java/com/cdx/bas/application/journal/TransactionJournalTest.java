@@ -0,0 +1,26 @@
+package com.cdx.bas.application.journal;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+public class TransactionJournalTest {
+
+    @Test
+    public void open_should_fail_when_nodeIdIsNotSet() {
+        TransactionJournal transactionJournal = new TransactionJournal();
+        transactionJournal.journalDrainer = mock(JournalDrainer.class);
+        transactionJournal.enabled = true;
+        transactionJournal.name = "deposits";
+        transactionJournal.nodeId = Optional.empty();
+
+        assertThatThrownBy(transactionJournal::open)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("scheduler.node-id");
+        verifyNoInteractions(transactionJournal.journalDrainer);
+    }
+}
@@ -0,0 +1,45 @@
+package com.cdx.bas.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.cdx.bas.domain.bank.account.AccountType;
+import com.cdx.bas.domain.bank.account.BankAccount;
+import com.cdx.bas.domain.money.Amount;
+import com.cdx.bas.domain.money.AmountValidator;
+import com.cdx.bas.domain.money.Money;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AmountValidatorBenchmark {
+
+    @Param({ "CHECKING", "SAVING", "MMA" })
+    AccountType type;
+
+    private AmountValidator amountValidator;
+
+    private Money balance;
+
+    @Setup
+    public void setUp() throws NoSuchFieldException {
+        BankAccount bankAccount = BenchmarkData.createBankAccount(type, 0);
+        Amount amount = bankAccount.getClass().getDeclaredField("balance").getAnnotation(Amount.class);
+        amountValidator = new AmountValidator();
+        amountValidator.initialize(amount);
+        balance = bankAccount.getBalance();
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return amountValidator.isValid(balance, null);
+    }
+}
@@ -0,0 +1,50 @@
+package com.cdx.bas.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.cdx.bas.application.bank.account.BankAccountEntity;
+import com.cdx.bas.application.bank.account.BankAccountMapper;
+import com.cdx.bas.application.transaction.TransactionMapper;
+import com.cdx.bas.domain.bank.account.AccountType;
+import com.cdx.bas.domain.bank.account.BankAccount;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Mapping of a bank account entity of each type, its transactions are not mapped since they are read
+ * by TransactionPersistencePort.findRecentTransactions
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BankAccountMapperBenchmark {
+
+    @Param({ "CHECKING", "SAVING", "MMA" })
+    AccountType type;
+
+    private BankAccountMapper bankAccountMapper;
+
+    private BankAccountEntity bankAccountEntity;
+
+    @Setup
+    public void setUp() {
+        TransactionMapper transactionMapper = new TransactionMapper();
+        BenchmarkData.inject(transactionMapper, "objectMapper", new ObjectMapper());
+        bankAccountMapper = new BankAccountMapper();
+        BenchmarkData.inject(bankAccountMapper, "transactionMapper", transactionMapper);
+        bankAccountEntity = BenchmarkData.createBankAccountEntity(type);
+    }
+
+    @Benchmark
+    public BankAccount toDto() {
+        return bankAccountMapper.toDto(bankAccountEntity);
+    }
+}
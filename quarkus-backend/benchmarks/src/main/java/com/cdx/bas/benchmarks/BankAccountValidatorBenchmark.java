@@ -0,0 +1,51 @@
+package com.cdx.bas.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.cdx.bas.domain.bank.account.AccountType;
+import com.cdx.bas.domain.bank.account.BankAccount;
+import com.cdx.bas.domain.bank.account.BankAccountValidator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BankAccountValidatorBenchmark {
+
+    @Param({ "CHECKING", "SAVING", "MMA" })
+    AccountType type;
+
+    @Param({ "10", "1000", "100000" })
+    int transactionsCount;
+
+    private BankAccountValidator bankAccountValidator;
+
+    private BankAccount bankAccount;
+
+    @Setup
+    public void setUp() {
+        bankAccountValidator = new BankAccountValidator();
+        BenchmarkData.inject(bankAccountValidator, "validator", BenchmarkData.validator());
+        bankAccount = BenchmarkData.createBankAccount(type, transactionsCount);
+    }
+
+    @Benchmark
+    public BankAccount validateBankAccount() {
+        bankAccountValidator.validateBankAccount(bankAccount);
+        return bankAccount;
+    }
+
+    @Benchmark
+    public BankAccount validateBalance() {
+        bankAccountValidator.validateBalance(bankAccount);
+        return bankAccount;
+    }
+}
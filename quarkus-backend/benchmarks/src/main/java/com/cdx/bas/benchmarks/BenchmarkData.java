@@ -0,0 +1,179 @@
+package com.cdx.bas.benchmarks;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import javax.enterprise.event.Event;
+import javax.enterprise.event.NotificationOptions;
+import javax.enterprise.util.TypeLiteral;
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import com.cdx.bas.application.bank.account.BankAccountEntity;
+import com.cdx.bas.application.customer.CustomerEntity;
+import com.cdx.bas.application.transaction.TransactionEntity;
+import com.cdx.bas.domain.bank.account.AccountType;
+import com.cdx.bas.domain.bank.account.BankAccount;
+import com.cdx.bas.domain.bank.account.BankAccountLimits;
+import com.cdx.bas.domain.money.Money;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionStatus;
+import com.cdx.bas.domain.transaction.TransactionType;
+import com.cdx.bas.domain.utils.BankAccountFactory;
+
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+
+/**
+ * Data sets and wiring shared by the benchmarks, beans are wired by hand without the CDI container
+ */
+public class BenchmarkData {
+
+    private static final Instant FIRST_DATE = Instant.parse("2022-01-01T00:00:00Z");
+
+    private BenchmarkData() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static Validator validator() {
+        return Validation.byDefaultProvider()
+                .configure()
+                .messageInterpolator(new ParameterMessageInterpolator())
+                .buildValidatorFactory()
+                .getValidator();
+    }
+
+    public static void inject(Object bean, String fieldName, Object dependency) {
+        try {
+            Field field = bean.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(bean, dependency);
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException("unable to inject " + fieldName + " into " + bean.getClass().getSimpleName(), exception);
+        }
+    }
+
+    public static void postConstruct(Object bean, String methodName) throws ReflectiveOperationException {
+        Method method = bean.getClass().getDeclaredMethod(methodName);
+        method.setAccessible(true);
+        try {
+            method.invoke(bean);
+        } catch (InvocationTargetException exception) {
+            throw new IllegalStateException(methodName + " failed on " + bean.getClass().getSimpleName(), exception.getCause());
+        }
+    }
+
+    /**
+     * event without observers, as fired when no bean observes it
+     */
+    public static <T> Event<T> unobservedEvent() {
+        return new Event<T>() {
+
+            @Override
+            public void fire(T event) {
+                // no observer
+            }
+
+            @Override
+            public <U extends T> CompletionStage<U> fireAsync(U event) {
+                return CompletableFuture.completedFuture(event);
+            }
+
+            @Override
+            public <U extends T> CompletionStage<U> fireAsync(U event, NotificationOptions options) {
+                return CompletableFuture.completedFuture(event);
+            }
+
+            @Override
+            public Event<T> select(Annotation... qualifiers) {
+                return this;
+            }
+
+            @Override
+            public <U extends T> Event<U> select(Class<U> subtype, Annotation... qualifiers) {
+                return unobservedEvent();
+            }
+
+            @Override
+            public <U extends T> Event<U> select(TypeLiteral<U> subtype, Annotation... qualifiers) {
+                return unobservedEvent();
+            }
+        };
+    }
+
+    /**
+     * bank account in the middle of the limits of its type, holding a history of transactionsCount transactions
+     */
+    public static BankAccount createBankAccount(AccountType type, int transactionsCount) {
+        BankAccount bankAccount = BankAccountFactory.createBankAccount(type);
+        bankAccount.setId(1L);
+        bankAccount.setBalance(Money.of(middleOfLimits(type)));
+        List<Long> customersId = new ArrayList<>();
+        customersId.add(1L);
+        bankAccount.setCustomersId(customersId);
+        Set<Transaction> transactions = new HashSet<>();
+        for (int index = 1; index <= transactionsCount; index++) {
+            transactions.add(createTransaction(index, 1L));
+        }
+        bankAccount.setTransactions(transactions);
+        return bankAccount;
+    }
+
+    public static BankAccountEntity createBankAccountEntity(AccountType type) {
+        BankAccountEntity entity = new BankAccountEntity();
+        entity.setId(1L);
+        entity.setType(type);
+        entity.setBalance(Money.of(middleOfLimits(type)));
+        CustomerEntity customer = new CustomerEntity();
+        customer.setId(1L);
+        List<CustomerEntity> customers = new ArrayList<>();
+        customers.add(customer);
+        entity.setCustomers(customers);
+        return entity;
+    }
+
+    public static Set<TransactionEntity> createTransactionEntities(BankAccountEntity account, int transactionsCount) {
+        Set<TransactionEntity> entities = new HashSet<>();
+        for (int index = 1; index <= transactionsCount; index++) {
+            TransactionEntity entity = new TransactionEntity();
+            entity.setId((long) index);
+            entity.setAccount(account);
+            entity.setAmount(BigDecimal.valueOf(100L + index));
+            entity.setType(TransactionType.CREDIT);
+            entity.setStatus(TransactionStatus.COMPLETED);
+            entity.setDate(FIRST_DATE.plusSeconds(index));
+            entity.setLabel("transaction " + index);
+            entity.setMetadatas("{\"amount_before\" : \"" + (index * 100L) + "\", \"amount_after\" : \"" + ((index + 1) * 100L) + "\"}");
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    private static Transaction createTransaction(long id, long accountId) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAccountId(accountId);
+        transaction.setAmount(100L + id);
+        transaction.setType(TransactionType.CREDIT);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setDate(FIRST_DATE.plusSeconds(id));
+        transaction.setLabel("transaction " + id);
+        transaction.setMetadatas(Map.of("amount_before", String.valueOf(id * 100L), "amount_after", String.valueOf((id + 1) * 100L)));
+        return transaction;
+    }
+
+    private static long middleOfLimits(AccountType type) {
+        BankAccountLimits limits = BankAccountLimits.of(type);
+        return limits.getMin() + (limits.getMax() - limits.getMin()) / 2;
+    }
+}
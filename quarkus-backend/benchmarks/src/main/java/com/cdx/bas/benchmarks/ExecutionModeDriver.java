@@ -0,0 +1,138 @@
+package com.cdx.bas.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.cdx.bas.application.execution.BlockingExecution;
+import com.cdx.bas.application.execution.ExecutionMode;
+
+/**
+ * Compare the execution modes of the blocking REST requests under the same load.
+ * Requests are received by a pool of worker threads sized like the RESTEasy worker pool and each of them waits
+ * for a simulated database call holding a database permit. In platform mode the worker waits for the database,
+ * in virtual mode it hands the request over to a virtual thread and is free again.
+ * The kind of thread which actually ran each database call is reported. Without virtual threads in the running JVM
+ * (before Java 21) the virtual mode falls back to platform threads, so its run is skipped instead of being reported
+ * as a virtual run.
+ *
+ * Arguments: [requests] [concurrent clients] [database latency ms] [database permits] [worker threads]
+ */
+public class ExecutionModeDriver {
+
+    public static void main(String[] args) throws ReflectiveOperationException, InterruptedException {
+        int requests = argument(args, 0, 20_000);
+        int clients = argument(args, 1, 1_000);
+        int databaseLatencyMillis = argument(args, 2, 5);
+        int dbPermits = argument(args, 3, 20);
+        int workers = argument(args, 4, Math.max(200, 8 * Runtime.getRuntime().availableProcessors()));
+        System.out.printf("requests=%d clients=%d database latency=%d ms db-permits=%d workers=%d%n",
+                requests, clients, databaseLatencyMillis, dbPermits, workers);
+
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            BlockingExecution blockingExecution = new BlockingExecution();
+            BenchmarkData.inject(blockingExecution, "requestedMode", mode);
+            BenchmarkData.inject(blockingExecution, "dbPermitsProperty", Optional.of(dbPermits));
+            BenchmarkData.inject(blockingExecution, "poolMaxSize", dbPermits);
+            BenchmarkData.postConstruct(blockingExecution, "init");
+            if (blockingExecution.getMode() != mode) {
+                System.out.printf("%s mode skipped: Java %d has no virtual threads, it would run on %s threads%n", mode.name().toLowerCase(),
+                        Runtime.version().feature(), blockingExecution.getMode().name().toLowerCase());
+                continue;
+            }
+            run(mode, blockingExecution, requests, clients, databaseLatencyMillis, workers);
+        }
+    }
+
+    private static void run(ExecutionMode mode, BlockingExecution blockingExecution, int requests, int clients,
+            int databaseLatencyMillis, int workers) throws InterruptedException {
+        ExecutorService workerPool = Executors.newFixedThreadPool(workers);
+        Semaphore pendingClients = new Semaphore(clients);
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger busyWorkers = new AtomicInteger();
+        AtomicInteger peakBusyWorkers = new AtomicInteger();
+        AtomicInteger virtualCalls = new AtomicInteger();
+        long[] latencies = new long[requests];
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        threadMXBean.resetPeakThreadCount();
+
+        long start = System.nanoTime();
+        for (int index = 0; index < requests; index++) {
+            int request = index;
+            pendingClients.acquire();
+            long requestStart = System.nanoTime();
+            workerPool.execute(() -> {
+                peakBusyWorkers.accumulateAndGet(busyWorkers.incrementAndGet(), Math::max);
+                try {
+                    blockingExecution.submit(() -> databaseCall(databaseLatencyMillis, virtualCalls))
+                            .whenComplete((result, exception) -> {
+                                latencies[request] = System.nanoTime() - requestStart;
+                                pendingClients.release();
+                                done.countDown();
+                            });
+                } finally {
+                    busyWorkers.decrementAndGet();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        workerPool.shutdown();
+        workerPool.awaitTermination(1, TimeUnit.MINUTES);
+
+        double seconds = elapsed / 1_000_000_000.0;
+        Arrays.sort(latencies);
+        int virtualCallCount = virtualCalls.get();
+        System.out.printf("%s mode (database calls on virtual threads=%d platform threads=%d)%n", mode.name().toLowerCase(),
+                virtualCallCount, requests - virtualCallCount);
+        if (mode == ExecutionMode.VIRTUAL && virtualCallCount < requests) {
+            System.out.printf("  not a virtual run: %d database calls ran on platform threads%n", requests - virtualCallCount);
+        }
+        System.out.printf("  %d requests in %.3f s: %.0f requests/s%n", requests, seconds, requests / seconds);
+        System.out.printf("  latency ms: p50=%.3f p99=%.3f max=%.3f%n",
+                percentile(latencies, 50), percentile(latencies, 99), percentile(latencies, 100));
+        System.out.printf("  peak busy workers=%d/%d peak platform threads=%d%n", peakBusyWorkers.get(), workers, threadMXBean.getPeakThreadCount());
+    }
+
+    /**
+     * round trip to the database, a virtual thread waiting in it leaves its carrier thread
+     */
+    private static Void databaseCall(int latencyMillis, AtomicInteger virtualCalls) {
+        if (isVirtual(Thread.currentThread())) {
+            virtualCalls.incrementAndGet();
+        }
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * Thread.isVirtual() is looked up by reflection so that the driver still runs on the Java 17 runtime
+     */
+    private static boolean isVirtual(Thread thread) {
+        try {
+            return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException exception) {
+            return false;
+        }
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1_000_000.0;
+    }
+
+    private static int argument(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
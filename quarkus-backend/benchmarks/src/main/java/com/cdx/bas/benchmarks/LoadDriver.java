@@ -0,0 +1,170 @@
+package com.cdx.bas.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.logging.Level;
+
+import com.cdx.bas.application.bank.account.BankAccountServiceImpl;
+import com.cdx.bas.application.execution.BlockingExecution;
+import com.cdx.bas.application.execution.ExecutionMode;
+import com.cdx.bas.application.scheduler.PartitionedTransactionProcessor;
+import com.cdx.bas.application.scheduler.SchedulerImpl;
+import com.cdx.bas.application.transaction.TransactionServiceImpl;
+import com.cdx.bas.benchmarks.persistence.InMemoryBankAccountRepository;
+import com.cdx.bas.benchmarks.persistence.InMemoryCustomerRepository;
+import com.cdx.bas.benchmarks.persistence.InMemoryTransactionRepository;
+import com.cdx.bas.domain.bank.account.AccountType;
+import com.cdx.bas.domain.bank.account.BankAccount;
+import com.cdx.bas.domain.bank.account.BankAccountValidator;
+import com.cdx.bas.domain.customer.Customer;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionStatus;
+import com.cdx.bas.domain.transaction.TransactionType;
+
+import io.quarkus.arc.Arc;
+
+/**
+ * End to end throughput harness of SchedulerImpl, TransactionServiceImpl and BankAccountServiceImpl
+ * on in memory persistence adapters, so that the database is never the bottleneck.
+ * 
+ * Arguments: [accounts] [transactions] [lanes] [batch size] [page size] [execution mode]
+ */
+public class LoadDriver {
+
+    private static final Instant FIRST_DATE = Instant.parse("2022-01-01T00:00:00Z");
+
+    private static final AccountType[] ACCOUNT_TYPES = AccountType.values();
+
+    public static void main(String[] args) throws ReflectiveOperationException {
+        int accountsCount = argument(args, 0, 1_000_000);
+        int transactionsCount = argument(args, 1, 2_000_000);
+        int lanes = argument(args, 2, Runtime.getRuntime().availableProcessors());
+        int batchSize = argument(args, 3, 1);
+        int pageSize = argument(args, 4, 500);
+        ExecutionMode mode = args.length > 5 ? ExecutionMode.valueOf(args[5].toUpperCase()) : ExecutionMode.PLATFORM;
+        org.jboss.logmanager.Logger.getLogger("com.cdx.bas").setLevel(Level.WARNING);
+        Arc.initialize();
+
+        InMemoryTransactionRepository inMemoryTransactionRepository = new InMemoryTransactionRepository();
+        MeasuredTransactionRepository transactionRepository = new MeasuredTransactionRepository(inMemoryTransactionRepository, transactionsCount);
+        InMemoryBankAccountRepository bankAccountRepository = new InMemoryBankAccountRepository(transactionRepository, 20);
+        InMemoryCustomerRepository customerRepository = new InMemoryCustomerRepository();
+        long seedStart = System.nanoTime();
+        seed(accountsCount, transactionsCount, bankAccountRepository, customerRepository, inMemoryTransactionRepository);
+        System.out.printf("seeded %d accounts and %d WAITING transactions in %d ms%n", accountsCount, transactionsCount, 
+                Duration.ofNanos(System.nanoTime() - seedStart).toMillis());
+
+        SchedulerImpl scheduler = wire(transactionRepository, bankAccountRepository, lanes, batchSize, pageSize, mode);
+        System.gc();
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        scheduler.processQueue();
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        report(transactionsCount - inMemoryTransactionRepository.countUnprocessedTransactions(), elapsed, allocated, 
+                transactionRepository.getLatencies(), lanes, batchSize, pageSize);
+        Arc.shutdown();
+    }
+
+    private static void seed(int accountsCount, int transactionsCount, InMemoryBankAccountRepository bankAccountRepository, 
+            InMemoryCustomerRepository customerRepository, InMemoryTransactionRepository transactionRepository) {
+        for (long id = 1; id <= accountsCount; id++) {
+            Customer customer = new Customer();
+            customer.setId(id);
+            customerRepository.create(customer);
+            BankAccount bankAccount = BenchmarkData.createBankAccount(ACCOUNT_TYPES[(int) (id % ACCOUNT_TYPES.length)], 0);
+            bankAccount.setId(id);
+            bankAccount.setCustomersId(List.of(id));
+            bankAccountRepository.create(bankAccount);
+        }
+        Random random = new Random(42);
+        for (long id = 1; id <= transactionsCount; id++) {
+            Transaction transaction = new Transaction();
+            transaction.setId(id);
+            transaction.setAccountId(1L + random.nextInt(accountsCount));
+            transaction.setAmount(1L + random.nextInt(100));
+            transaction.setType(TransactionType.CREDIT);
+            transaction.setStatus(TransactionStatus.WAITING);
+            transaction.setDate(FIRST_DATE.plusMillis(id));
+            transaction.setLabel("transaction " + id);
+            transactionRepository.create(transaction);
+        }
+    }
+
+    private static SchedulerImpl wire(MeasuredTransactionRepository transactionRepository, InMemoryBankAccountRepository bankAccountRepository, 
+            int lanes, int batchSize, int pageSize, ExecutionMode mode) throws ReflectiveOperationException {
+        BankAccountValidator bankAccountValidator = new BankAccountValidator();
+        BenchmarkData.inject(bankAccountValidator, "validator", BenchmarkData.validator());
+        TransactionServiceImpl transactionService = new TransactionServiceImpl();
+        BankAccountServiceImpl bankAccountService = new BankAccountServiceImpl();
+        BenchmarkData.inject(bankAccountService, "BankAccountRepository", bankAccountRepository);
+        BenchmarkData.inject(bankAccountService, "bankAccountValidator", bankAccountValidator);
+        BenchmarkData.inject(bankAccountService, "transactionService", transactionService);
+        BenchmarkData.inject(bankAccountService, "transactionRepository", transactionRepository);
+        BenchmarkData.inject(bankAccountService, "transactionStatusChangedEvent", BenchmarkData.unobservedEvent());
+        BenchmarkData.inject(transactionService, "transactionRepository", transactionRepository);
+        BenchmarkData.inject(transactionService, "bankAccountService", bankAccountService);
+
+        BlockingExecution blockingExecution = new BlockingExecution();
+        BenchmarkData.inject(blockingExecution, "requestedMode", mode);
+        BenchmarkData.inject(blockingExecution, "dbPermitsProperty", Optional.of(lanes));
+        BenchmarkData.inject(blockingExecution, "poolMaxSize", lanes);
+        BenchmarkData.postConstruct(blockingExecution, "init");
+
+        PartitionedTransactionProcessor transactionProcessor = new PartitionedTransactionProcessor();
+        BenchmarkData.inject(transactionProcessor, "blockingExecution", blockingExecution);
+        BenchmarkData.inject(transactionProcessor, "transactionService", transactionService);
+        BenchmarkData.inject(transactionProcessor, "lanesProperty", Optional.of(lanes));
+        BenchmarkData.inject(transactionProcessor, "batchSize", batchSize);
+        BenchmarkData.inject(transactionProcessor, "batchWindow", Duration.ofMillis(20));
+        BenchmarkData.postConstruct(transactionProcessor, "startLanes");
+
+        SchedulerImpl scheduler = new SchedulerImpl();
+        BenchmarkData.inject(scheduler, "transactionProcessor", transactionProcessor);
+        BenchmarkData.inject(scheduler, "transactionRepository", transactionRepository);
+        BenchmarkData.inject(scheduler, "pageSize", pageSize);
+        BenchmarkData.inject(scheduler, "nodeIdProperty", Optional.empty());
+        BenchmarkData.postConstruct(scheduler, "init");
+        BenchmarkData.inject(transactionService, "scheduler", scheduler);
+        return scheduler;
+    }
+
+    private static void report(int processed, long elapsedNanos, long allocatedBytes, long[] latencies, int lanes, int batchSize, int pageSize) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        Arrays.sort(latencies);
+        System.out.printf("lanes=%d batch.size=%d page-size=%d%n", lanes, batchSize, pageSize);
+        System.out.printf("processed %d transactions in %.3f s: %.0f deposits/s%n", processed, seconds, processed / seconds);
+        System.out.printf("latency ms: p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f%n", 
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99), percentile(latencies, 99.9), percentile(latencies, 100));
+        System.out.printf("allocation: %.1f MB/s, %d bytes/deposit%n", 
+                allocatedBytes / seconds / (1024 * 1024), processed > 0 ? allocatedBytes / processed : 0);
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1_000_000.0;
+    }
+
+    /**
+     * bytes allocated by all the live threads, lanes included
+     */
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return Arrays.stream(threadMXBean.getThreadAllocatedBytes(threadMXBean.getAllThreadIds()))
+                .filter(bytes -> bytes > 0)
+                .sum();
+    }
+
+    private static int argument(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
@@ -0,0 +1,121 @@
+package com.cdx.bas.benchmarks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionHistoryFilter;
+import com.cdx.bas.domain.transaction.TransactionPersistencePort;
+import com.cdx.bas.domain.transaction.TransactionStatus;
+
+/**
+ * Transaction persistence recording for each transaction the time between its loading by the scheduler and its status update
+ */
+public class MeasuredTransactionRepository implements TransactionPersistencePort {
+
+    private final TransactionPersistencePort transactionRepository;
+
+    private final long[] loadedAt;
+
+    private final long[] latencies;
+
+    public MeasuredTransactionRepository(TransactionPersistencePort transactionRepository, int transactionsCount) {
+        this.transactionRepository = transactionRepository;
+        this.loadedAt = new long[transactionsCount + 1];
+        this.latencies = new long[transactionsCount + 1];
+    }
+
+    /**
+     * @return latencies in nanoseconds of the transactions which have been processed
+     */
+    public long[] getLatencies() {
+        return Arrays.stream(latencies).filter(latency -> latency > 0).toArray();
+    }
+
+    @Override
+    public Optional<Transaction> findById(long id) {
+        return transactionRepository.findById(id);
+    }
+
+    @Override
+    public Queue<Transaction> findUnprocessedTransactions() {
+        return loaded(transactionRepository.findUnprocessedTransactions());
+    }
+
+    @Override
+    public Queue<Transaction> findUnprocessedTransactions(Instant afterDate, Long afterId, int pageSize) {
+        return loaded(transactionRepository.findUnprocessedTransactions(afterDate, afterId, pageSize));
+    }
+
+    @Override
+    public List<Transaction> findHistory(long accountId, Instant beforeDate, Long beforeId, int pageSize) {
+        return transactionRepository.findHistory(accountId, beforeDate, beforeId, pageSize);
+    }
+
+    @Override
+    public List<Transaction> findHistory(long accountId, TransactionHistoryFilter filter, Instant beforeDate, Long beforeId, int pageSize) {
+        return transactionRepository.findHistory(accountId, filter, beforeDate, beforeId, pageSize);
+    }
+
+    @Override
+    public List<Transaction> findRecentTransactions(long accountId, int count) {
+        return transactionRepository.findRecentTransactions(accountId, count);
+    }
+
+    @Override
+    public Queue<Transaction> claimUnprocessedTransactions(String owner, int limit, Duration lease) {
+        return loaded(transactionRepository.claimUnprocessedTransactions(owner, limit, lease));
+    }
+
+    @Override
+    public boolean lockForProcessing(long id, String owner) {
+        return transactionRepository.lockForProcessing(id, owner);
+    }
+
+    @Override
+    public Transaction create(Transaction transaction) {
+        return transactionRepository.create(transaction);
+    }
+
+    @Override
+    public List<Transaction> createAll(List<Transaction> transactions) {
+        return transactionRepository.createAll(transactions);
+    }
+
+    @Override
+    public List<Transaction> createBatch(List<Transaction> transactions) {
+        return transactionRepository.createBatch(transactions);
+    }
+
+    @Override
+    public Transaction createOnce(Transaction transaction, String idempotencyKey) {
+        return transactionRepository.createOnce(transaction, idempotencyKey);
+    }
+
+    @Override
+    public Transaction update(Transaction transaction) {
+        return transactionRepository.update(transaction);
+    }
+
+    @Override
+    public void updateStatus(long id, TransactionStatus status, Map<String, String> metadatas) {
+        transactionRepository.updateStatus(id, status, metadatas);
+        latencies[(int) id] = System.nanoTime() - loadedAt[(int) id];
+    }
+
+    @Override
+    public Optional<Transaction> deleteById(long id) {
+        return transactionRepository.deleteById(id);
+    }
+
+    private Queue<Transaction> loaded(Queue<Transaction> transactions) {
+        long now = System.nanoTime();
+        transactions.forEach(transaction -> loadedAt[transaction.getId().intValue()] = now);
+        return transactions;
+    }
+}
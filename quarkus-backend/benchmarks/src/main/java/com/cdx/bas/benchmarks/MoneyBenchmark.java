@@ -0,0 +1,42 @@
+package com.cdx.bas.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import com.cdx.bas.domain.money.Money;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+
+    private Money balance;
+
+    private Money amount;
+
+    @Setup
+    public void setUp() {
+        balance = new Money(new BigDecimal("1600"));
+        amount = Money.of(250L);
+    }
+
+    @Benchmark
+    public Money plus() {
+        balance.plus(amount);
+        return balance;
+    }
+
+    @Benchmark
+    public Money minus() {
+        balance.minus(amount);
+        return balance;
+    }
+}
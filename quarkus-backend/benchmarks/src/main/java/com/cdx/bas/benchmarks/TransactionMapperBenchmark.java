@@ -0,0 +1,52 @@
+package com.cdx.bas.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.cdx.bas.application.bank.account.BankAccountEntity;
+import com.cdx.bas.application.transaction.TransactionEntity;
+import com.cdx.bas.application.transaction.TransactionMapper;
+import com.cdx.bas.domain.bank.account.AccountType;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Mapping of a transactions history, each transaction parses its JSON metadatas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransactionMapperBenchmark {
+
+    @Param({ "10", "1000", "100000" })
+    int transactionsCount;
+
+    private TransactionMapper transactionMapper;
+
+    private List<TransactionEntity> transactionEntities;
+
+    @Setup
+    public void setUp() {
+        transactionMapper = new TransactionMapper();
+        BenchmarkData.inject(transactionMapper, "objectMapper", new ObjectMapper());
+        BankAccountEntity account = BenchmarkData.createBankAccountEntity(AccountType.CHECKING);
+        transactionEntities = List.copyOf(BenchmarkData.createTransactionEntities(account, transactionsCount));
+    }
+
+    @Benchmark
+    public List<Transaction> toDto() {
+        return transactionEntities.stream()
+                .map(transactionMapper::toDto)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,172 @@
+package com.cdx.bas.benchmarks.persistence;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.cdx.bas.domain.bank.account.BankAccount;
+import com.cdx.bas.domain.bank.account.BankAccountLimits;
+import com.cdx.bas.domain.bank.account.BankAccountPersistencePort;
+import com.cdx.bas.domain.money.Money;
+import com.cdx.bas.domain.transaction.TransactionCollection;
+import com.cdx.bas.domain.transaction.TransactionPersistencePort;
+import com.cdx.bas.domain.utils.BankAccountFactory;
+
+/***
+ * in memory persistence implementation for BankAccount, to profile the application layer without database.
+ * Like the database, the balances are a ledger of postings, so that the balance of an account at a date can be found
+ *
+ * @author Clément Gibert
+ *
+ */
+public class InMemoryBankAccountRepository implements BankAccountPersistencePort {
+
+    private final Map<Long, BankAccount> bankAccounts = new ConcurrentHashMap<>();
+
+    private final Map<Long, Ledger> ledgers = new ConcurrentHashMap<>();
+
+    private final TransactionPersistencePort transactionRepository;
+
+    private final int historySize;
+
+    public InMemoryBankAccountRepository(TransactionPersistencePort transactionRepository, int historySize) {
+        this.transactionRepository = transactionRepository;
+        this.historySize = historySize;
+    }
+
+    @Override
+    public Optional<BankAccount> findById(long id) {
+        BankAccount storedAccount = bankAccounts.get(id);
+        Ledger ledger = ledgers.get(id);
+        if (storedAccount == null || ledger == null) {
+            return Optional.empty();
+        }
+        BankAccount bankAccount = BankAccountFactory.copyBankAccount(storedAccount);
+        bankAccount.setBalance(Money.ofMinorUnits(ledger.getBalance()));
+        bankAccount.markLoaded();
+        bankAccount.setTransactions(new TransactionCollection(transactionRepository.findRecentTransactions(id, historySize)));
+        return Optional.of(bankAccount);
+    }
+
+    @Override
+    public BankAccount create(BankAccount bankAccount) {
+        ledgers.put(bankAccount.getId(), new Ledger(bankAccount.getBalance().getMinorUnits()));
+        bankAccounts.put(bankAccount.getId(), BankAccountFactory.copyBankAccount(bankAccount));
+        return bankAccount;
+    }
+
+    /**
+     * the adjustment posting is computed under the lock of the ledger from its current balance, like in the database
+     */
+    @Override
+    public BankAccount update(BankAccount bankAccount) {
+        Ledger ledger = findLedger(bankAccount.getId());
+        long requestedBalance = bankAccount.getBalance().getMinorUnits();
+        synchronized (ledger) {
+            long currentBalance = ledger.getBalance();
+            long balance = bankAccount.findLoadedBalance()
+                    .map(loaded -> Math.addExact(currentBalance, Math.subtractExact(requestedBalance, loaded.getMinorUnits())))
+                    .orElse(requestedBalance);
+            ledger.post(balance);
+            bankAccount.setBalance(Money.ofMinorUnits(balance));
+            bankAccount.markLoaded();
+            bankAccounts.put(bankAccount.getId(), BankAccountFactory.copyBankAccount(bankAccount));
+        }
+        return bankAccount;
+    }
+
+    @Override
+    public Optional<Money> addToBalance(long id, Money amount) {
+        Ledger ledger = findLedger(id);
+        BankAccountLimits limits = BankAccountLimits.of(bankAccounts.get(id).getType());
+        synchronized (ledger) {
+            long balance;
+            try {
+                balance = Math.addExact(ledger.getBalance(), amount.getMinorUnits());
+            } catch (ArithmeticException exception) {
+                return Optional.empty();
+            }
+            if (!limits.accepts(balance)) {
+                return Optional.empty();
+            }
+            ledger.post(balance);
+            return Optional.of(Money.ofMinorUnits(balance));
+        }
+    }
+
+    @Override
+    public Optional<Money> findBalance(long id) {
+        return Optional.ofNullable(ledgers.get(id)).map(ledger -> Money.ofMinorUnits(ledger.getBalance()));
+    }
+
+    @Override
+    public Optional<Money> findBalanceAt(long id, Instant date) {
+        return Optional.ofNullable(ledgers.get(id)).flatMap(ledger -> ledger.findBalanceAt(date)).map(Money::ofMinorUnits);
+    }
+
+    @Override
+    public Optional<BankAccount> deleteById(long id) {
+        ledgers.remove(id);
+        return Optional.ofNullable(bankAccounts.remove(id));
+    }
+
+    private Ledger findLedger(long id) {
+        Ledger ledger = ledgers.get(id);
+        if (ledger == null) {
+            throw new NoSuchElementException("bank account " + id + " not found.");
+        }
+        return ledger;
+    }
+
+    /**
+     * postings of a bank account in date order, each one kept with the balance after it
+     */
+    private static final class Ledger {
+        private final List<Instant> dates = new ArrayList<>();
+        private final List<Long> balances = new ArrayList<>();
+
+        private Ledger(long openingBalance) {
+            post(openingBalance);
+        }
+
+        private synchronized long getBalance() {
+            return balances.get(balances.size() - 1);
+        }
+
+        /**
+         * append the posting bringing the balance to a new value, a posting date is never before the previous one
+         */
+        private synchronized void post(long balance) {
+            if (!balances.isEmpty() && getBalance() == balance) {
+                return;
+            }
+            Instant date = Instant.now();
+            if (!dates.isEmpty() && date.isBefore(dates.get(dates.size() - 1))) {
+                date = dates.get(dates.size() - 1);
+            }
+            dates.add(date);
+            balances.add(balance);
+        }
+
+        /**
+         * @return balance after the last posting at or before the date, empty if the account was opened after it
+         */
+        private synchronized Optional<Long> findBalanceAt(Instant date) {
+            int low = 0;
+            int high = dates.size() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (dates.get(middle).isAfter(date)) {
+                    high = middle - 1;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return high < 0 ? Optional.empty() : Optional.of(balances.get(high));
+        }
+    }
+}
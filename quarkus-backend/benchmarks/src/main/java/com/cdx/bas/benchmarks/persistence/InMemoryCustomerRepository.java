@@ -0,0 +1,41 @@
+package com.cdx.bas.benchmarks.persistence;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.cdx.bas.domain.customer.Customer;
+import com.cdx.bas.domain.customer.CustomerPersistencePort;
+
+/***
+ * in memory persistence implementation for Customer, to profile the application layer without database
+ * 
+ * @author Clément Gibert
+ *
+ */
+public class InMemoryCustomerRepository implements CustomerPersistencePort {
+
+    private final Map<Long, Customer> customers = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<Customer> findById(long id) {
+        return Optional.ofNullable(customers.get(id));
+    }
+
+    @Override
+    public Customer create(Customer customer) {
+        customers.put(customer.getId(), customer);
+        return customer;
+    }
+
+    @Override
+    public Customer update(Customer customer) {
+        customers.put(customer.getId(), customer);
+        return customer;
+    }
+
+    @Override
+    public Optional<Customer> deleteById(long id) {
+        return Optional.ofNullable(customers.remove(id));
+    }
+}
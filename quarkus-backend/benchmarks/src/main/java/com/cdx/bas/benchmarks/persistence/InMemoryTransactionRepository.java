@@ -0,0 +1,203 @@
+package com.cdx.bas.benchmarks.persistence;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionHistoryFilter;
+import com.cdx.bas.domain.transaction.TransactionPersistencePort;
+import com.cdx.bas.domain.transaction.TransactionStatus;
+
+/***
+ * in memory persistence implementation for Transaction, to profile the application layer without database.
+ * WAITING transactions are indexed by date and id like the unprocessed transactions index of the database.
+ * 
+ * @author Clément Gibert
+ *
+ */
+public class InMemoryTransactionRepository implements TransactionPersistencePort {
+
+    private static final Comparator<Transaction> KEYSET_ORDER = Comparator.comparing(Transaction::getDate)
+            .thenComparing(Transaction::getId);
+
+    private final Map<Long, Transaction> transactions = new ConcurrentHashMap<>();
+
+    private final NavigableMap<Transaction, Long> unprocessedTransactions = new ConcurrentSkipListMap<>(KEYSET_ORDER);
+
+    private final Map<Long, Deque<Long>> accountsHistory = new ConcurrentHashMap<>();
+
+    private final Map<Long, Instant> leases = new ConcurrentHashMap<>();
+
+    private final Map<Long, String> leaseOwners = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> idempotencyKeys = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastId = new AtomicLong();
+
+    @Override
+    public Optional<Transaction> findById(long id) {
+        return Optional.ofNullable(transactions.get(id));
+    }
+
+    @Override
+    public Queue<Transaction> findUnprocessedTransactions() {
+        return new PriorityQueue<>(unprocessedTransactions.keySet());
+    }
+
+    @Override
+    public Queue<Transaction> findUnprocessedTransactions(Instant afterDate, Long afterId, int pageSize) {
+        NavigableMap<Transaction, Long> page = unprocessedTransactions;
+        if (afterDate != null && afterId != null) {
+            page = unprocessedTransactions.tailMap(position(afterDate, afterId), false);
+        }
+        Queue<Transaction> queue = new PriorityQueue<>(pageSize);
+        Iterator<Transaction> iterator = page.keySet().iterator();
+        while (queue.size() < pageSize && iterator.hasNext()) {
+            queue.add(iterator.next());
+        }
+        return queue;
+    }
+
+    @Override
+    public List<Transaction> findHistory(long accountId, Instant beforeDate, Long beforeId, int pageSize) {
+        return findHistory(accountId, TransactionHistoryFilter.ALL, beforeDate, beforeId, pageSize);
+    }
+
+    @Override
+    public List<Transaction> findHistory(long accountId, TransactionHistoryFilter filter, Instant beforeDate, Long beforeId, int pageSize) {
+        List<Transaction> history = new ArrayList<>(pageSize);
+        Iterator<Long> iterator = accountsHistory.getOrDefault(accountId, new ConcurrentLinkedDeque<>()).descendingIterator();
+        Transaction before = beforeDate != null && beforeId != null ? position(beforeDate, beforeId) : null;
+        while (history.size() < pageSize && iterator.hasNext()) {
+            Transaction transaction = transactions.get(iterator.next());
+            if ((before == null || KEYSET_ORDER.compare(transaction, before) < 0) && filter.accepts(transaction)) {
+                history.add(transaction);
+            }
+        }
+        return history;
+    }
+
+    @Override
+    public List<Transaction> findRecentTransactions(long accountId, int count) {
+        return findHistory(accountId, TransactionHistoryFilter.ALL, null, null, count);
+    }
+
+    @Override
+    public synchronized Queue<Transaction> claimUnprocessedTransactions(String owner, int limit, Duration lease) {
+        Instant now = Instant.now();
+        Queue<Transaction> claimed = new PriorityQueue<>(limit);
+        Iterator<Transaction> iterator = unprocessedTransactions.keySet().iterator();
+        while (claimed.size() < limit && iterator.hasNext()) {
+            Transaction transaction = iterator.next();
+            Instant leaseExpiration = leases.get(transaction.getId());
+            if (leaseExpiration == null || leaseExpiration.isBefore(now)) {
+                leases.put(transaction.getId(), now.plus(lease));
+                leaseOwners.put(transaction.getId(), owner);
+                claimed.add(transaction);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * nothing is locked in memory, the transaction is only checked
+     */
+    @Override
+    public synchronized boolean lockForProcessing(long id, String owner) {
+        Transaction transaction = transactions.get(id);
+        return transaction != null && TransactionStatus.WAITING.equals(transaction.getStatus())
+                && (owner == null || owner.equals(leaseOwners.get(id)));
+    }
+
+    @Override
+    public Transaction create(Transaction transaction) {
+        lastId.accumulateAndGet(transaction.getId(), Math::max);
+        transactions.put(transaction.getId(), transaction);
+        accountsHistory.computeIfAbsent(transaction.getAccountId(), accountId -> new ConcurrentLinkedDeque<>()).add(transaction.getId());
+        if (TransactionStatus.WAITING.equals(transaction.getStatus())) {
+            unprocessedTransactions.put(transaction, transaction.getId());
+        }
+        return transaction;
+    }
+
+    @Override
+    public List<Transaction> createAll(List<Transaction> transactions) {
+        transactions.forEach(this::create);
+        return transactions;
+    }
+
+    /**
+     * every bank account is considered to exist, ids follow the greatest id created so far
+     */
+    @Override
+    public List<Transaction> createBatch(List<Transaction> transactions) {
+        transactions.forEach(transaction -> {
+            transaction.setId(lastId.incrementAndGet());
+            create(transaction);
+        });
+        return transactions;
+    }
+
+    @Override
+    public Transaction createOnce(Transaction transaction, String idempotencyKey) {
+        return transactions.get(idempotencyKeys.computeIfAbsent(idempotencyKey, key -> create(transaction).getId()));
+    }
+
+    @Override
+    public Transaction update(Transaction transaction) {
+        Transaction previousTransaction = transactions.put(transaction.getId(), transaction);
+        if (previousTransaction != null) {
+            unprocessedTransactions.remove(previousTransaction);
+        }
+        if (TransactionStatus.WAITING.equals(transaction.getStatus())) {
+            unprocessedTransactions.put(transaction, transaction.getId());
+        }
+        return transaction;
+    }
+
+    @Override
+    public void updateStatus(long id, TransactionStatus status, Map<String, String> metadatas) {
+        Transaction transaction = transactions.get(id);
+        if (transaction != null) {
+            update(new Transaction(transaction, status, metadatas));
+            leases.remove(id);
+            leaseOwners.remove(id);
+        }
+    }
+
+    @Override
+    public Optional<Transaction> deleteById(long id) {
+        Transaction transaction = transactions.remove(id);
+        if (transaction == null) {
+            return Optional.empty();
+        }
+        unprocessedTransactions.remove(transaction);
+        accountsHistory.getOrDefault(transaction.getAccountId(), new ConcurrentLinkedDeque<>()).remove(id);
+        return Optional.of(transaction);
+    }
+
+    public int countUnprocessedTransactions() {
+        return unprocessedTransactions.size();
+    }
+
+    private static Transaction position(Instant date, Long id) {
+        Transaction position = new Transaction();
+        position.setDate(date);
+        position.setId(id);
+        return position;
+    }
+}
@@ -0,0 +1,247 @@
+package com.cdx.bas.client.bank.account;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+
+import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+
+import com.cdx.bas.domain.bank.account.BankAccountSummary;
+import com.cdx.bas.domain.bank.account.BankAccountSummaryPort;
+import com.cdx.bas.domain.execution.BlockingExecutionPort;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionHistoryCursor;
+import com.cdx.bas.domain.transaction.TransactionHistoryFilter;
+import com.cdx.bas.domain.transaction.TransactionIdempotencyPort;
+import com.cdx.bas.domain.transaction.TransactionJournalPort;
+import com.cdx.bas.domain.transaction.TransactionPersistencePort;
+import com.cdx.bas.domain.transaction.TransactionServicePort;
+import com.cdx.bas.domain.transaction.TransactionStatus;
+import com.cdx.bas.domain.transaction.TransactionType;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/***
+ * bank account endpoints served the same way whichever persistence is enabled, they are inherited by BankAccountResource
+ * and ReactiveBankAccountResource and run on the blocking persistence, on the threads of the execution mode
+ *
+ * @author Clément Gibert
+ *
+ */
+public abstract class AbstractBankAccountResource {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    @Inject
+    BankAccountSummaryPort bankAccountSummary;
+
+    @Inject
+    TransactionServicePort transactionService;
+
+    @Inject
+    TransactionPersistencePort transactionRepository;
+
+    @Inject
+    TransactionJournalPort transactionJournal;
+
+    @Inject
+    TransactionIdempotencyPort transactionIdempotency;
+
+    @Inject
+    BlockingExecutionPort blockingExecution;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "history.stream.page-size", defaultValue = "500")
+    int streamPageSize;
+
+    @ConfigProperty(name = "history.page.max-size", defaultValue = "100")
+    int maxPageSize;
+
+    @ConfigProperty(name = "deposits.bulk.max-size", defaultValue = "10000")
+    int maxBulkSize;
+
+    @GET
+    @Path("/{id}/summary")
+    public CompletionStage<BankAccountSummary> findSummary(@PathParam("id") long id) {
+        return blockingExecution.submit(() -> bankAccountSummary.findSummary(id)
+                .orElseThrow(() -> new NotFoundException("bank account " + id + " not found.")));
+    }
+
+    /**
+     * the deposites of a request are queued within one database transaction, a request holding more than
+     * deposits.bulk.max-size deposites is refused with 413
+     */
+    @POST
+    @Path("/transactions")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public CompletionStage<List<Transaction>> depositeAll(List<Transaction> deposites) {
+        List<Transaction> requestedDeposites = deposites != null ? deposites : List.of();
+        if (requestedDeposites.size() > maxBulkSize) {
+            throw tooManyDeposites();
+        }
+        return blockingExecution.submit(() -> transactionService.queueDeposits(requestedDeposites));
+    }
+
+    /**
+     * same as depositeAll with one deposite per line, the body is read on the worker before the deposites are queued
+     * and the reading stops at the first line over deposits.bulk.max-size
+     */
+    @POST
+    @Path("/transactions")
+    @Consumes(NDJSON)
+    public CompletionStage<List<Transaction>> depositeAll(InputStream deposites) {
+        return depositeAll(readLines(deposites));
+    }
+
+    private List<Transaction> readLines(InputStream input) {
+        List<Transaction> deposites = new ArrayList<>();
+        int lineNumber = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.isBlank()) {
+                    if (deposites.size() == maxBulkSize) {
+                        throw tooManyDeposites();
+                    }
+                    deposites.add(objectMapper.readValue(line, Transaction.class));
+                }
+            }
+        } catch (JsonProcessingException exception) {
+            throw new BadRequestException("line " + lineNumber + " is not a deposite: " + exception.getOriginalMessage());
+        } catch (IOException exception) {
+            throw new BadRequestException("deposites could not be read.", exception);
+        }
+        return deposites;
+    }
+
+    private ClientErrorException tooManyDeposites() {
+        return new ClientErrorException("at most " + maxBulkSize + " deposites are accepted per request.", Status.REQUEST_ENTITY_TOO_LARGE);
+    }
+
+    @POST
+    @Path("/{id}/deposits")
+    public Long acceptDeposite(@PathParam("id") Long id, Long amount) {
+        if (!transactionJournal.isEnabled()) {
+            throw new ServiceUnavailableException("deposit journal is disabled.");
+        }
+        if (amount == null || amount < 1) {
+            throw new BadRequestException("amount must be greater than 0.");
+        }
+        return transactionJournal.append(new Transaction(id, amount, TransactionType.CREDIT));
+    }
+
+    /**
+     * stream the whole history of a bank account, most recent first, one transaction per line.
+     * The history is read page by page with a keyset cursor on (date, id) and each page is written as soon as it is read,
+     * so that the memory used by a request does not depend on the size of the history. Each page is read holding
+     * a database permit which is released before the page is written, so that a slow download does not keep a connection.
+     * An interrupted download is resumed with the date and id of the last received transaction as before and beforeId,
+     * which must be given together.
+     *
+     * @param from first date of the history, included
+     * @param to last date of the history, excluded
+     * @param statuses of the streamed transactions, all of them if none is given
+     */
+    @GET
+    @Path("/{id}/history")
+    @Produces(NDJSON)
+    public StreamingOutput streamHistory(@PathParam("id") Long id, @QueryParam("from") String from, @QueryParam("to") String to,
+            @QueryParam("status") List<TransactionStatus> statuses, @QueryParam("before") String before, @QueryParam("beforeId") Long beforeId) {
+        return streamHistory(id, from, to, statuses, before, beforeId, false);
+    }
+
+    /**
+     * same as the NDJSON history, written as a JSON array sent in chunks
+     */
+    @GET
+    @Path("/{id}/history")
+    @Produces(MediaType.APPLICATION_JSON)
+    public StreamingOutput streamHistoryArray(@PathParam("id") Long id, @QueryParam("from") String from, @QueryParam("to") String to,
+            @QueryParam("status") List<TransactionStatus> statuses, @QueryParam("before") String before, @QueryParam("beforeId") Long beforeId) {
+        return streamHistory(id, from, to, statuses, before, beforeId, true);
+    }
+
+    private StreamingOutput streamHistory(Long id, String from, String to, List<TransactionStatus> statuses, String before, Long beforeId,
+            boolean array) {
+        TransactionHistoryFilter filter = new TransactionHistoryFilter(parseDate("from", from), parseDate("to", to),
+                statuses != null ? Set.copyOf(statuses) : Set.of());
+        TransactionHistoryCursor cursor = parseCursor(before, beforeId);
+        return output -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                if (array) {
+                    generator.writeStartArray();
+                }
+                Instant pageBeforeDate = cursor.getBeforeDate();
+                Long pageBeforeId = cursor.getBeforeId();
+                List<Transaction> page;
+                do {
+                    Instant readBeforeDate = pageBeforeDate;
+                    Long readBeforeId = pageBeforeId;
+                    page = blockingExecution.callWithDbPermit(
+                            () -> transactionRepository.findHistory(id, filter, readBeforeDate, readBeforeId, streamPageSize));
+                    for (Transaction transaction : page) {
+                        generator.writeObject(transaction);
+                        if (!array) {
+                            generator.writeRaw('\n');
+                        }
+                    }
+                    generator.flush();
+                    if (!page.isEmpty()) {
+                        Transaction lastTransaction = page.get(page.size() - 1);
+                        pageBeforeDate = lastTransaction.getDate();
+                        pageBeforeId = lastTransaction.getId();
+                    }
+                } while (page.size() == streamPageSize);
+                if (array) {
+                    generator.writeEndArray();
+                }
+            }
+        };
+    }
+
+    static TransactionHistoryCursor parseCursor(String before, Long beforeId) {
+        try {
+            return TransactionHistoryCursor.of(before, beforeId);
+        } catch (IllegalArgumentException exception) {
+            throw new BadRequestException(exception.getMessage());
+        }
+    }
+
+    private static Instant parseDate(String name, String date) {
+        try {
+            return date != null ? Instant.parse(date) : null;
+        } catch (DateTimeParseException exception) {
+            throw new BadRequestException(name + " must be an ISO-8601 instant.");
+        }
+    }
+}
@@ -1,50 +1,105 @@
 package com.cdx.bas.client.bank.account;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
 
 import com.cdx.bas.domain.bank.account.BankAccount;
 import com.cdx.bas.domain.bank.account.BankAccountControllerPort;
 import com.cdx.bas.domain.bank.account.BankAccountPersistencePort;
 import com.cdx.bas.domain.transaction.Transaction;
-import com.cdx.bas.domain.transaction.TransactionServicePort;
+import com.cdx.bas.domain.transaction.TransactionException;
+import com.cdx.bas.domain.transaction.TransactionHistoryCursor;
+import com.cdx.bas.domain.transaction.TransactionQueuedEvent;
 import com.cdx.bas.domain.transaction.TransactionType;
 
+import io.quarkus.arc.properties.UnlessBuildProperty;
 
+/**
+ * The blocking endpoints run on the threads of the execution mode (see execution.mode),
+ * the endpoints shared with ReactiveBankAccountResource are inherited from AbstractBankAccountResource
+ */
+@UnlessBuildProperty(name = "persistence.reactive.enabled", stringValue = "true", enableIfMissing = true)
 @Path("/account")
-public class BankAccountResource implements BankAccountControllerPort{
+public class BankAccountResource extends AbstractBankAccountResource implements BankAccountControllerPort {
 
     @Inject
     BankAccountPersistencePort bankAccountRepository;
     
     @Inject
-    TransactionServicePort transactionService;
+    Event<TransactionQueuedEvent> transactionQueuedEvent;
     
     @GET
     @Override
-    public BankAccount findById(long id) {
-        Optional<BankAccount> bankAccountOptional = bankAccountRepository.findById(id);
-        return bankAccountOptional.get();
+    public CompletionStage<BankAccount> findById(long id) {
+        return blockingExecution.submit(() -> bankAccountRepository.findById(id).get());
     }
 
     @POST
     @Path("/{id}")
     @Override
-    public BankAccount deposite(@PathParam("id") Long id, Long amount) {
+    public CompletionStage<BankAccount> deposite(@PathParam("id") Long id, Long amount, @HeaderParam("Idempotency-Key") String idempotencyKey) {
+        return blockingExecution.submit(() -> idempotencyKey != null ? depositeOnce(id, amount, idempotencyKey) : depositeNow(id, amount));
+    }
+
+    private BankAccount depositeNow(Long id, Long amount) {
         BankAccount currentAccount = null;
         Optional<BankAccount> bankAccountOptional = bankAccountRepository.findById(id);
         if(bankAccountOptional.isPresent()) {
             currentAccount = bankAccountOptional.get();
             Transaction transaction = new Transaction(id, amount, TransactionType.CREDIT);
+            transaction.setLabel("deposit of " + amount);
             currentAccount.getTransactions().add(transaction);
             bankAccountRepository.update(currentAccount);
+            transactionQueuedEvent.fire(new TransactionQueuedEvent(id));
         }
         return currentAccount;
     }
 
+    /**
+     * a retry is answered from the idempotency index without reaching the database, a retry of a forgotten request
+     * finds the transaction created with the same key and answers with the current bank account
+     */
+    private BankAccount depositeOnce(Long id, Long amount, String idempotencyKey) {
+        Transaction transaction = new Transaction(id, amount, TransactionType.CREDIT);
+        transaction.setLabel("deposit of " + amount);
+        try {
+            Optional<BankAccount> replayedAccount = transactionIdempotency.findResult(idempotencyKey, transaction);
+            if (replayedAccount.isPresent()) {
+                return replayedAccount.get();
+            }
+            Optional<BankAccount> bankAccountOptional = bankAccountRepository.findById(id);
+            if (bankAccountOptional.isEmpty()) {
+                return null;
+            }
+            BankAccount currentAccount = bankAccountOptional.get();
+            Transaction createdTransaction = transactionRepository.createOnce(transaction, idempotencyKey);
+            currentAccount.getTransactions().add(createdTransaction);
+            transactionIdempotency.saveResult(idempotencyKey, createdTransaction, currentAccount);
+            return currentAccount;
+        } catch (TransactionException exception) {
+            throw new ClientErrorException(exception.getMessage(), 422);
+        }
+    }
+
+    @GET
+    @Path("/{id}/transactions")
+    @Override
+    public CompletionStage<List<Transaction>> findHistory(@PathParam("id") Long id, @QueryParam("before") String before, 
+            @QueryParam("beforeId") Long beforeId, @QueryParam("size") @DefaultValue("20") Integer size) {
+        TransactionHistoryCursor cursor = parseCursor(before, beforeId);
+        int pageSize = TransactionHistoryCursor.pageSize(size, maxPageSize);
+        return blockingExecution.submit(() -> transactionRepository.findHistory(id, cursor.getBeforeDate(), cursor.getBeforeId(), pageSize));
+    }
 }
@@ -0,0 +1,111 @@
+package com.cdx.bas.client.bank.account;
+
+import java.util.List;
+import java.util.Optional;
+
+import javax.inject.Inject;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+
+import com.cdx.bas.domain.bank.account.BankAccount;
+import com.cdx.bas.domain.bank.account.BankAccountReactiveControllerPort;
+import com.cdx.bas.domain.bank.account.BankAccountReactivePersistencePort;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionException;
+import com.cdx.bas.domain.transaction.TransactionHistoryCursor;
+import com.cdx.bas.domain.transaction.TransactionReactivePersistencePort;
+import com.cdx.bas.domain.transaction.TransactionType;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+/***
+ * bank account endpoints on the non-blocking persistence, replacing BankAccountResource when the build property
+ * persistence.reactive.enabled is set: no thread is held while the database answers.
+ * The endpoints without a non-blocking variant are inherited from AbstractBankAccountResource
+ * 
+ * @author Clément Gibert
+ *
+ */
+@IfBuildProperty(name = "persistence.reactive.enabled", stringValue = "true")
+@Path("/account")
+public class ReactiveBankAccountResource extends AbstractBankAccountResource implements BankAccountReactiveControllerPort {
+
+    @Inject
+    BankAccountReactivePersistencePort bankAccountRepository;
+    
+    @Inject
+    TransactionReactivePersistencePort reactiveTransactionRepository;
+    
+    @GET
+    @Override
+    public Uni<BankAccount> findById(long id) {
+        return bankAccountRepository.findById(id).map(Optional::get);
+    }
+
+    @POST
+    @Path("/{id}")
+    @Override
+    public Uni<BankAccount> deposite(@PathParam("id") Long id, Long amount, @HeaderParam("Idempotency-Key") String idempotencyKey) {
+        if (idempotencyKey != null) {
+            return depositeOnce(id, amount, idempotencyKey);
+        }
+        return bankAccountRepository.findById(id).chain(bankAccountOptional -> {
+            if (bankAccountOptional.isEmpty()) {
+                return Uni.createFrom().nullItem();
+            }
+            BankAccount currentAccount = bankAccountOptional.get();
+            Transaction transaction = new Transaction(id, amount, TransactionType.CREDIT);
+            transaction.setLabel("deposit of " + amount);
+            return reactiveTransactionRepository.create(transaction).map(createdTransaction -> {
+                currentAccount.getTransactions().add(createdTransaction);
+                return currentAccount;
+            });
+        });
+    }
+
+    /**
+     * the creation of the transaction with its idempotency key is serialized by a database lock within a JTA transaction,
+     * it is the only step run on a worker thread
+     */
+    private Uni<BankAccount> depositeOnce(Long id, Long amount, String idempotencyKey) {
+        Transaction transaction = new Transaction(id, amount, TransactionType.CREDIT);
+        transaction.setLabel("deposit of " + amount);
+        return Uni.createFrom().deferred(() -> {
+            Optional<BankAccount> replayedAccount = transactionIdempotency.findResult(idempotencyKey, transaction);
+            if (replayedAccount.isPresent()) {
+                return Uni.createFrom().item(replayedAccount.get());
+            }
+            return bankAccountRepository.findById(id).chain(bankAccountOptional -> {
+                if (bankAccountOptional.isEmpty()) {
+                    return Uni.createFrom().nullItem();
+                }
+                BankAccount currentAccount = bankAccountOptional.get();
+                return Uni.createFrom().item(() -> transactionRepository.createOnce(transaction, idempotencyKey))
+                        .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                        .map(createdTransaction -> {
+                            currentAccount.getTransactions().add(createdTransaction);
+                            transactionIdempotency.saveResult(idempotencyKey, createdTransaction, currentAccount);
+                            return currentAccount;
+                        });
+            });
+        }).onFailure(TransactionException.class).transform(exception -> new ClientErrorException(exception.getMessage(), 422));
+    }
+
+    @GET
+    @Path("/{id}/transactions")
+    @Override
+    public Uni<List<Transaction>> findHistory(@PathParam("id") Long id, @QueryParam("before") String before, 
+            @QueryParam("beforeId") Long beforeId, @QueryParam("size") @DefaultValue("20") Integer size) {
+        TransactionHistoryCursor cursor = parseCursor(before, beforeId);
+        int pageSize = TransactionHistoryCursor.pageSize(size, maxPageSize);
+        return reactiveTransactionRepository.findHistory(id, cursor.getBeforeDate(), cursor.getBeforeId(), pageSize).collect().asList();
+    }
+}
@@ -0,0 +1,58 @@
+package com.cdx.bas.client.bank.account;
+
+import java.util.concurrent.CompletionStage;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+
+import com.cdx.bas.domain.transaction.TransactionStatusChangedEvent;
+import com.cdx.bas.domain.transaction.TransactionStatusStreamPort;
+import com.cdx.bas.domain.transaction.TransactionStatusSubscriber;
+
+/**
+ * Server-sent events of the status changes of the transactions of a bank account, replacing the polling of GET /account
+ */
+@Path("/account/{id}/statuses")
+public class TransactionStatusResource {
+
+    @Inject
+    TransactionStatusStreamPort transactionStatusStream;
+
+    /**
+     * each committed status change is sent as a "status" event with the id of the transaction as event id,
+     * the changes committed before the subscription are not sent again
+     */
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void streamStatuses(@PathParam("id") long id, @Context SseEventSink eventSink, @Context Sse sse) {
+        transactionStatusStream.subscribe(id, new TransactionStatusSubscriber() {
+
+            @Override
+            public CompletionStage<?> send(TransactionStatusChangedEvent event) {
+                return eventSink.send(sse.newEventBuilder()
+                        .name("status")
+                        .id(String.valueOf(event.getTransactionId()))
+                        .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                        .data(TransactionStatusChangedEvent.class, event)
+                        .build());
+            }
+
+            @Override
+            public CompletionStage<?> keepAlive() {
+                return eventSink.send(sse.newEventBuilder().comment("keep-alive").build());
+            }
+
+            @Override
+            public void close() {
+                eventSink.close();
+            }
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package com.cdx.bas.client.cache;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+
+import com.cdx.bas.domain.cache.CacheStatistics;
+import com.cdx.bas.domain.cache.CacheStatisticsPort;
+
+@Path("/cache")
+public class CacheResource {
+
+    @Inject
+    Instance<CacheStatisticsPort> cacheStatistics;
+
+    /**
+     * statistics of the caches of every implementation, sorted by name
+     */
+    @GET
+    @Path("/statistics")
+    public List<CacheStatistics> getStatistics() {
+        return cacheStatistics.stream()
+                .flatMap(statistics -> statistics.getStatistics().stream())
+                .sorted(Comparator.comparing(CacheStatistics::getName))
+                .collect(Collectors.toList());
+    }
+}
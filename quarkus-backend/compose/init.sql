@@ -35,21 +35,77 @@ SET search_path TO basapp;
 	(
 	account_id BIGSERIAL UNIQUE NOT NULL,
 	type varchar(25) NOT NULL,
-	balance DECIMAL NOT NULL,
 	CONSTRAINT pk_bank_account PRIMARY KEY (account_id)
 	);
 
--- CREATE transaction TABLE --
+-- CREATE transaction TABLE partitioned by month, settled months are archived (see TransactionArchiver) --
 	CREATE TABLE basapp.transactions
 	(
-	transaction_id BIGSERIAL UNIQUE NOT NULL,
+	transaction_id BIGSERIAL NOT NULL,
+	account_id bigint NOT NULL,
 	type varchar(25) NOT NULL,
 	amount DECIMAL NOT NULL,
     status varchar(25) NOT NULL,
 	date timestamp without time zone NOT NULL,
 	label text NOT NULL,
 	metadatas jsonb,
-	CONSTRAINT pk_transaction PRIMARY KEY (transaction_id)
+	lease_owner varchar(255),
+	lease_expiration timestamp with time zone,
+	CONSTRAINT pk_transaction PRIMARY KEY (transaction_id, date),
+	CONSTRAINT fk_transaction_account_id FOREIGN KEY(account_id) REFERENCES basapp.bank_accounts(account_id)
+	) PARTITION BY RANGE (date);
+	
+	-- transactions of the months without partition --
+	CREATE TABLE basapp.transactions_default PARTITION OF basapp.transactions DEFAULT;
+	
+	-- monthly partitions named transactions_yYYYYmMM, the following months are created by the application --
+	DO $$
+	DECLARE
+		month date;
+	BEGIN
+		FOR month IN SELECT generate_series(DATE '2022-06-01', DATE '2022-12-01', INTERVAL '1 month') LOOP
+			EXECUTE format('CREATE TABLE basapp.%I PARTITION OF basapp.transactions FOR VALUES FROM (%L) TO (%L)',
+				to_char(month, '"transactions_y"YYYY"m"MM'), month, month + INTERVAL '1 month');
+		END LOOP;
+	END $$;
+	
+	-- unprocessed transactions in processing order, the index only holds the few WAITING transactions --
+	CREATE INDEX ix_transactions_waiting ON basapp.transactions (date, transaction_id) WHERE status = 'WAITING';
+	
+	-- transaction history of a bank account --
+	CREATE INDEX ix_transactions_account_date ON basapp.transactions (account_id, date, transaction_id);
+	
+	-- CREATE transaction_idempotency_keys TABLE, unique over all the partitions of transactions --
+	CREATE TABLE basapp.transaction_idempotency_keys
+	(
+	idempotency_key varchar(255) NOT NULL,
+	transaction_id bigint NOT NULL,
+	CONSTRAINT pk_transaction_idempotency_key PRIMARY KEY (idempotency_key)
+	);
+	
+	-- CREATE ledger_postings TABLE, append only, the balance of a bank account is never updated in place --
+	CREATE TABLE basapp.ledger_postings
+	(
+	posting_id BIGSERIAL NOT NULL,
+	account_id bigint NOT NULL,
+	amount DECIMAL NOT NULL,
+	date timestamp without time zone NOT NULL,
+	CONSTRAINT pk_ledger_posting PRIMARY KEY (posting_id),
+	CONSTRAINT fk_ledger_posting_account_id FOREIGN KEY(account_id) REFERENCES basapp.bank_accounts(account_id) ON DELETE CASCADE
+	);
+	
+	-- postings of a bank account after its latest snapshot --
+	CREATE INDEX ix_ledger_postings_account ON basapp.ledger_postings (account_id, posting_id);
+	
+	-- CREATE balance_snapshots TABLE, balance of a bank account including its postings up to posting_id --
+	CREATE TABLE basapp.balance_snapshots
+	(
+	account_id bigint NOT NULL,
+	posting_id bigint NOT NULL,
+	date timestamp without time zone NOT NULL,
+	balance DECIMAL NOT NULL,
+	CONSTRAINT pk_balance_snapshot PRIMARY KEY (account_id, posting_id),
+	CONSTRAINT fk_balance_snapshot_account_id FOREIGN KEY(account_id) REFERENCES basapp.bank_accounts(account_id) ON DELETE CASCADE
 	);
 	
 	-- CREATE bank_account_customer TABLE --
@@ -62,14 +118,12 @@ SET search_path TO basapp;
 	CONSTRAINT fk_customer_id FOREIGN KEY(customer_id) REFERENCES basapp.customers(customer_id)
 	);
 
-	-- CREATE bank_account_transactions TABLE --
-	CREATE TABLE basapp.bank_accounts_transactions
+	-- CREATE journal_checkpoints TABLE --
+	CREATE TABLE basapp.journal_checkpoints
 	(
-	account_id bigint NOT NULL,
-	transaction_id bigint NOT NULL,
-	PRIMARY KEY (account_id, transaction_id),
-	CONSTRAINT fk_account_id FOREIGN KEY(account_id) REFERENCES basapp.bank_accounts(account_id),
-	CONSTRAINT fk_transaction_id FOREIGN KEY(transaction_id) REFERENCES basapp.transactions(transaction_id)
+	journal varchar(255) NOT NULL,
+	drained_sequence bigint NOT NULL,
+	CONSTRAINT pk_journal_checkpoint PRIMARY KEY (journal)
 	);
 	
 
@@ -6,11 +6,18 @@ INSERT INTO basapp.customers(customer_id, first_name, last_name, gender, marital
 	(5, 'Andre', 'Martin', 'MALE', 'DIVORCED', '1989-07-22 :12:00:00', 'FR', '16 boulevard victor hugo', 'Nîmes', 'andre.martin@bas.com', '+33 6 50 44 12 05', '{"contact_preferences" : "phone", "annual_salary" : "52000", "newsletter" : "true"}');
 	
 	INSERT INTO basapp.bank_accounts(
-	account_id, type, balance)
-	VALUES (1, 'CHECKING', 300),
-	(2, 'CHECKING', 1600),
-	(3, 'SAVING', 19200),
-	(4, 'MMA', 65000);
+	account_id, type)
+	VALUES (1, 'CHECKING'),
+	(2, 'CHECKING'),
+	(3, 'SAVING'),
+	(4, 'MMA');
+	
+	INSERT INTO basapp.balance_snapshots(
+	account_id, posting_id, date, balance)
+	VALUES (1, 0, '2022-06-01 :00:00:00', 300),
+	(2, 0, '2022-06-01 :00:00:00', 1600),
+	(3, 0, '2022-06-01 :00:00:00', 19200),
+	(4, 0, '2022-06-01 :00:00:00', 65000);
 	
 	INSERT INTO basapp.bank_accounts_customers(
 	account_id, customer_id)
@@ -20,34 +27,19 @@ INSERT INTO basapp.customers(customer_id, first_name, last_name, gender, marital
 	(3, 4),
 	(4, 3);
 	
-INSERT INTO basapp.transactions (transaction_id, type, amount, status, date, label, metadatas)
-	VALUES (1, 'CREDIT', 1600, 'COMPLETED', '2022-06-06 :12:00:00', 'transaction 1', '{"amount_before" : "0", "amount_after" : "1600"}'),
-	(2, 'CREDIT', 350, 'COMPLETED', '2022-06-06 :12:30:00', 'transaction 2', '{"amount_before" : "0", "amount_after" : "350"}'),
-	(3, 'DEBIT', 50, 'COMPLETED', '2022-07-06 :13:00:00', 'transaction 3', '{"amount_before" : "350", "amount_after" : "300"}'),
-	(4, 'CREDIT', 10000, 'COMPLETED', '2022-07-06 :14:00:00', 'transaction 4', '{"amount_before" : "0", "amount_after" : "10000"}'),
-	(5, 'CREDIT', 55000, 'COMPLETED', '2022-07-08 :16:00:00', 'transaction 5', '{"amount_before" : "1000", "amount_after" : "65000"}'),
-	(6, 'CREDIT', 9200, 'COMPLETED', '2022-07-10 :15:00:00', 'transaction 6', '{"amount_before" : "10000", "amount_after" : "19200"}'),
-	(7, 'DEBIT', 1000, 'REFUSED', '2022-10-06 :18:00:00', 'transaction 7', '{"amount_before" : "300", "error" : "balance amount must be between -600 and 100000"}'),
-	(8, 'CREDIT', 4000, 'REFUSED', '2022-10-06 :18:10:00', 'transaction 8', '{"amount_before" : "19200", "error" : "balance amount must be between 1 and 22950"}'),
-	(9, 'CREDIT', 600, 'WAITING', '2022-11-06 :18:00:00', 'transaction 9', null),
-	(10, 'DEBIT', 200, 'WAITING', '2022-11-06 :18:30:00', 'transaction 10', null),
-	(11, 'CREDIT', 800, 'WAITING', '2022-12-06 :18:00:00', 'transaction 11', null),
-	(12, 'DEBIT', 300, 'WAITING', '2022-12-06 :19:00:00', 'transaction 12', null),
-	(13, 'DEBIT', 1200, 'WAITING', '2022-12-06 :19:00:10', 'transaction 13', null);
+INSERT INTO basapp.transactions (transaction_id, account_id, type, amount, status, date, label, metadatas)
+	VALUES (1, 2, 'CREDIT', 1600, 'COMPLETED', '2022-06-06 :12:00:00', 'transaction 1', '{"amount_before" : "0", "amount_after" : "1600"}'),
+	(2, 1, 'CREDIT', 350, 'COMPLETED', '2022-06-06 :12:30:00', 'transaction 2', '{"amount_before" : "0", "amount_after" : "350"}'),
+	(3, 1, 'DEBIT', 50, 'COMPLETED', '2022-07-06 :13:00:00', 'transaction 3', '{"amount_before" : "350", "amount_after" : "300"}'),
+	(4, 3, 'CREDIT', 10000, 'COMPLETED', '2022-07-06 :14:00:00', 'transaction 4', '{"amount_before" : "0", "amount_after" : "10000"}'),
+	(5, 4, 'CREDIT', 55000, 'COMPLETED', '2022-07-08 :16:00:00', 'transaction 5', '{"amount_before" : "1000", "amount_after" : "65000"}'),
+	(6, 3, 'CREDIT', 9200, 'COMPLETED', '2022-07-10 :15:00:00', 'transaction 6', '{"amount_before" : "10000", "amount_after" : "19200"}'),
+	(7, 1, 'DEBIT', 1000, 'REFUSED', '2022-10-06 :18:00:00', 'transaction 7', '{"amount_before" : "300", "error" : "balance amount must be between -600 and 100000"}'),
+	(8, 3, 'CREDIT', 4000, 'REFUSED', '2022-10-06 :18:10:00', 'transaction 8', '{"amount_before" : "19200", "error" : "balance amount must be between 1 and 22950"}'),
+	(9, 2, 'CREDIT', 600, 'WAITING', '2022-11-06 :18:00:00', 'transaction 9', null),
+	(10, 1, 'DEBIT', 200, 'WAITING', '2022-11-06 :18:30:00', 'transaction 10', null),
+	(11, 3, 'CREDIT', 800, 'WAITING', '2022-12-06 :18:00:00', 'transaction 11', null),
+	(12, 1, 'DEBIT', 300, 'WAITING', '2022-12-06 :19:00:00', 'transaction 12', null),
+	(13, 4, 'DEBIT', 1200, 'WAITING', '2022-12-06 :19:00:10', 'transaction 13', null);
 	
-	INSERT INTO basapp.bank_accounts_transactions(
-	account_id, transaction_id)
-	VALUES (2, 1),
-	(1, 2),
-	(1, 3),
-	(3, 4),
-	(4, 5),
-	(3, 6),
-	(1, 7),
-	(3, 8),
-	(2, 9),
-	(1, 10),
-	(3, 11),
-	(1, 12),
-	(4, 13);
-
+	SELECT setval('basapp.hibernate_sequence', 13);
@@ -0,0 +1,38 @@
+-- Move the bank account of each transaction from basapp.bank_accounts_transactions to a basapp.transactions column
+-- and index the unprocessed transactions and the transaction history.
+-- Also adds the claim leases and the idempotency keys of the transactions and the journal checkpoints, which were only added to init.sql.
+-- Applies to a database created by the baseline init.sql, a new database is created by init.sql with this schema.
+
+-- ADD lease and idempotency COLUMNS --
+ALTER TABLE basapp.transactions ADD COLUMN lease_owner varchar(255);
+ALTER TABLE basapp.transactions ADD COLUMN lease_expiration timestamp with time zone;
+ALTER TABLE basapp.transactions ADD COLUMN idempotency_key varchar(255);
+ALTER TABLE basapp.transactions ADD CONSTRAINT uk_transaction_idempotency_key UNIQUE (idempotency_key);
+
+-- CREATE journal_checkpoints TABLE --
+CREATE TABLE basapp.journal_checkpoints
+(
+journal varchar(255) NOT NULL,
+drained_sequence bigint NOT NULL,
+CONSTRAINT pk_journal_checkpoint PRIMARY KEY (journal)
+);
+
+GRANT ALL PRIVILEGES ON basapp.journal_checkpoints TO basadm;
+
+-- ADD account_id COLUMN --
+ALTER TABLE basapp.transactions ADD COLUMN account_id bigint;
+
+UPDATE basapp.transactions t
+	SET account_id = bat.account_id
+	FROM basapp.bank_accounts_transactions bat
+	WHERE bat.transaction_id = t.transaction_id;
+
+ALTER TABLE basapp.transactions ALTER COLUMN account_id SET NOT NULL;
+ALTER TABLE basapp.transactions ADD CONSTRAINT fk_transaction_account_id FOREIGN KEY(account_id) REFERENCES basapp.bank_accounts(account_id);
+
+-- INDEX unprocessed transactions and transaction history --
+CREATE INDEX ix_transactions_waiting ON basapp.transactions (date, transaction_id) WHERE status = 'WAITING';
+CREATE INDEX ix_transactions_account_date ON basapp.transactions (account_id, date, transaction_id);
+
+-- DROP bank_accounts_transactions TABLE --
+DROP TABLE basapp.bank_accounts_transactions;
@@ -0,0 +1,69 @@
+-- Partition basapp.transactions by month on date, with a default partition for the months without partition,
+-- and move the idempotency keys to basapp.transaction_idempotency_keys since a unique constraint of a partitioned table
+-- must include its partition key.
+-- Applies to a database migrated to V2, a new database is created by init.sql with this schema.
+
+-- RENAME unpartitioned TABLE --
+ALTER TABLE basapp.transactions RENAME TO transactions_unpartitioned;
+ALTER TABLE basapp.transactions_unpartitioned RENAME CONSTRAINT pk_transaction TO pk_transaction_unpartitioned;
+ALTER TABLE basapp.transactions_unpartitioned DROP CONSTRAINT uk_transaction_idempotency_key;
+DROP INDEX basapp.ix_transactions_waiting;
+DROP INDEX basapp.ix_transactions_account_date;
+ALTER SEQUENCE basapp.transactions_transaction_id_seq OWNED BY NONE;
+
+-- CREATE partitioned transactions TABLE --
+CREATE TABLE basapp.transactions
+(
+transaction_id bigint NOT NULL DEFAULT nextval('basapp.transactions_transaction_id_seq'),
+account_id bigint NOT NULL,
+type varchar(25) NOT NULL,
+amount DECIMAL NOT NULL,
+status varchar(25) NOT NULL,
+date timestamp without time zone NOT NULL,
+label text NOT NULL,
+metadatas jsonb,
+lease_owner varchar(255),
+lease_expiration timestamp with time zone,
+CONSTRAINT pk_transaction PRIMARY KEY (transaction_id, date),
+CONSTRAINT fk_transaction_account_id FOREIGN KEY(account_id) REFERENCES basapp.bank_accounts(account_id)
+) PARTITION BY RANGE (date);
+ALTER SEQUENCE basapp.transactions_transaction_id_seq OWNED BY basapp.transactions.transaction_id;
+
+CREATE TABLE basapp.transactions_default PARTITION OF basapp.transactions DEFAULT;
+
+-- CREATE a partition for each month of the existing transactions --
+DO $$
+DECLARE
+	month date;
+BEGIN
+	FOR month IN SELECT generate_series(date_trunc('month', min(date)), date_trunc('month', max(date)), INTERVAL '1 month')
+			FROM basapp.transactions_unpartitioned LOOP
+		EXECUTE format('CREATE TABLE basapp.%I PARTITION OF basapp.transactions FOR VALUES FROM (%L) TO (%L)',
+			to_char(month, '"transactions_y"YYYY"m"MM'), month, month + INTERVAL '1 month');
+	END LOOP;
+END $$;
+
+CREATE INDEX ix_transactions_waiting ON basapp.transactions (date, transaction_id) WHERE status = 'WAITING';
+CREATE INDEX ix_transactions_account_date ON basapp.transactions (account_id, date, transaction_id);
+
+-- MOVE transactions --
+INSERT INTO basapp.transactions (transaction_id, account_id, type, amount, status, date, label, metadatas, lease_owner, lease_expiration)
+	SELECT transaction_id, account_id, type, amount, status, date, label, metadatas, lease_owner, lease_expiration
+	FROM basapp.transactions_unpartitioned;
+
+-- CREATE transaction_idempotency_keys TABLE --
+CREATE TABLE basapp.transaction_idempotency_keys
+(
+idempotency_key varchar(255) NOT NULL,
+transaction_id bigint NOT NULL,
+CONSTRAINT pk_transaction_idempotency_key PRIMARY KEY (idempotency_key)
+);
+
+INSERT INTO basapp.transaction_idempotency_keys (idempotency_key, transaction_id)
+	SELECT idempotency_key, transaction_id
+	FROM basapp.transactions_unpartitioned
+	WHERE idempotency_key IS NOT NULL;
+
+DROP TABLE basapp.transactions_unpartitioned;
+
+GRANT ALL PRIVILEGES ON basapp.transactions, basapp.transactions_default, basapp.transaction_idempotency_keys TO basadm;
@@ -0,0 +1,42 @@
+-- Replace the balance overwritten in basapp.bank_accounts by an append only ledger of postings with periodic
+-- balance snapshots, the balance of a bank account is its latest snapshot plus the postings after it.
+-- The current balances become the opening snapshots of the bank accounts.
+-- Applies to a database migrated to V3, a new database is created by init.sql with this schema.
+-- Like every migration it runs in one transaction (psql --single-transaction when applied by hand), which holds the lock.
+
+-- LOCK bank_accounts so that no balance changes until it is moved to the snapshots --
+LOCK TABLE basapp.bank_accounts IN EXCLUSIVE MODE;
+
+-- CREATE ledger_postings TABLE --
+CREATE TABLE basapp.ledger_postings
+(
+posting_id BIGSERIAL NOT NULL,
+account_id bigint NOT NULL,
+amount DECIMAL NOT NULL,
+date timestamp without time zone NOT NULL,
+CONSTRAINT pk_ledger_posting PRIMARY KEY (posting_id),
+CONSTRAINT fk_ledger_posting_account_id FOREIGN KEY(account_id) REFERENCES basapp.bank_accounts(account_id) ON DELETE CASCADE
+);
+
+CREATE INDEX ix_ledger_postings_account ON basapp.ledger_postings (account_id, posting_id);
+
+-- CREATE balance_snapshots TABLE --
+CREATE TABLE basapp.balance_snapshots
+(
+account_id bigint NOT NULL,
+posting_id bigint NOT NULL,
+date timestamp without time zone NOT NULL,
+balance DECIMAL NOT NULL,
+CONSTRAINT pk_balance_snapshot PRIMARY KEY (account_id, posting_id),
+CONSTRAINT fk_balance_snapshot_account_id FOREIGN KEY(account_id) REFERENCES basapp.bank_accounts(account_id) ON DELETE CASCADE
+);
+
+-- OPEN the bank accounts with their current balance --
+INSERT INTO basapp.balance_snapshots (account_id, posting_id, date, balance)
+	SELECT account_id, 0, CAST(now() AS timestamp), balance
+	FROM basapp.bank_accounts;
+
+ALTER TABLE basapp.bank_accounts DROP COLUMN balance;
+
+GRANT ALL PRIVILEGES ON basapp.ledger_postings, basapp.balance_snapshots TO basadm;
+GRANT SELECT, UPDATE, USAGE ON basapp.ledger_postings_posting_id_seq TO basadm;
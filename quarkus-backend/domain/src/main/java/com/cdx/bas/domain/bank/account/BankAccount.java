@@ -1,9 +1,9 @@
 package com.cdx.bas.domain.bank.account;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 
 import javax.validation.Valid;
@@ -13,6 +13,7 @@ import javax.validation.constraints.Size;
 
 import com.cdx.bas.domain.money.Money;
 import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionCollection;
 
 public abstract class BankAccount {
 
@@ -32,7 +33,13 @@ public abstract class BankAccount {
 	protected List<Long> customersId = new ArrayList<>();
     
 	@NotNull(message="transactions must not be null.")
-	protected Set<Transaction> transactions = new HashSet<>();
+	protected TransactionCollection transactions = new TransactionCollection();
+    
+    /**
+     * balance read from the persistence when the bank account was loaded, null for a bank account built in memory.
+     * It has no getter, so it is not serialized with the bank account
+     */
+    private Money loadedBalance;
     
     public BankAccount(AccountType type) {
         this.type = type;
@@ -43,7 +50,7 @@ public abstract class BankAccount {
       this.type = type;
       this.balance = balance;
       this.customersId = customersId;
-      this.transactions = transactions;
+      this.transactions = toTransactionCollection(transactions);
       this.balance = balance;
     }
     
@@ -79,12 +86,32 @@ public abstract class BankAccount {
 		this.customersId = customerId;
 	}
 
-	public Set<Transaction> getTransactions() {
+	public TransactionCollection getTransactions() {
         return transactions;
     }
 
     public void setTransactions(Set<Transaction> transactions) {
-        this.transactions = transactions;
+        this.transactions = toTransactionCollection(transactions);
+    }
+
+    /**
+     * remember the current balance as the balance read from the persistence,
+     * an update applies the balance changes made afterwards to the balance it finds at that time
+     */
+    public void markLoaded() {
+        Money balance = getBalance();
+        this.loadedBalance = balance == null ? null : Money.ofMinorUnits(balance.getMinorUnits());
+    }
+
+    public Optional<Money> findLoadedBalance() {
+        return Optional.ofNullable(loadedBalance);
+    }
+
+    private static TransactionCollection toTransactionCollection(Set<Transaction> transactions) {
+        if (transactions == null || transactions instanceof TransactionCollection) {
+            return (TransactionCollection) transactions;
+        }
+        return new TransactionCollection(transactions);
     }
 
 	@Override
@@ -0,0 +1,17 @@
+package com.cdx.bas.domain.bank.account;
+
+/**
+ * Event fired when the balance of a bank account or the bank account itself has been changed
+ */
+public class BankAccountChangedEvent {
+
+    private final Long accountId;
+
+    public BankAccountChangedEvent(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+}
@@ -1,5 +1,10 @@
 package com.cdx.bas.domain.bank.account;
 
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import com.cdx.bas.domain.transaction.Transaction;
+
 public interface BankAccountControllerPort {
 
     
@@ -9,12 +14,53 @@ public interface BankAccountControllerPort {
      * @param id of BankAccount
      * @return BankAccount corresponding to the id
      */
-    public BankAccount findById(long id);
+    public CompletionStage<BankAccount> findById(long id);
+    
+    /**
+     * find the balance and the owners of a BankAccount without its transactions, 
+     * read from a cache invalidated when the BankAccount changes
+     * 
+     * @param id of BankAccount
+     * @return BankAccountSummary corresponding to the id
+     */
+    public CompletionStage<BankAccountSummary> findSummary(long id);
+    
+    /**
+     * make a deposite on bank account, a request retried with the same idempotency key returns the result of the first one
+     * 
+     * @param id of BankAccount
+     * @param amount of the deposite
+     * @param idempotencyKey of the request, null if the request must not be deduplicated
+     * @return BankAccount with the deposite
+     */
+    public CompletionStage<BankAccount> deposite(Long id, Long amount, String idempotencyKey);
+    
+    /**
+     * make deposites on several bank accounts in one request, each deposite is queued as a WAITING transaction
+     * unless it is refused
+     * 
+     * @param deposites with their bank account, amount, type and label
+     * @return List<Transaction> transaction of each deposite in request order, with its id and status
+     */
+    public CompletionStage<List<Transaction>> depositeAll(List<Transaction> deposites);
     
     /**
-     * make a deposite on bank account
+     * accept a deposite on bank account without waiting for it to be stored
      * 
-     * @return List<BankAccount> corresponding to all the bank account
+     * @param id of BankAccount
+     * @param amount of the deposite, rejected with 400 unless greater than 0
+     * @return accepted id of the deposite
+     */
+    public Long acceptDeposite(Long id, Long amount);
+    
+    /**
+     * find a page of the transaction history of a bank account, most recent first
+     * 
+     * @param id of BankAccount
+     * @param before date of the last transaction of the previous page, null for the first page
+     * @param beforeId id of the last transaction of the previous page, null for the first page
+     * @param size maximum number of transactions of the page, reduced to between 1 and history.page.max-size
+     * @return List<Transaction> transactions of the page
      */
-    public BankAccount deposite(Long id, Long amount);
+    public CompletionStage<List<Transaction>> findHistory(Long id, String before, Long beforeId, Integer size);
 }
@@ -0,0 +1,84 @@
+package com.cdx.bas.domain.bank.account;
+
+import java.lang.reflect.Field;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.cdx.bas.domain.money.Amount;
+import com.cdx.bas.domain.money.Money;
+import com.cdx.bas.domain.utils.BankAccountFactory;
+
+/**
+ * Balance limits of each bank account type, read once from the @Amount constraint of its balance
+ * and kept in minor units so that checking a balance change is two long comparisons
+ */
+public class BankAccountLimits {
+
+    private static final Map<AccountType, BankAccountLimits> LIMITS = new EnumMap<>(AccountType.class);
+
+    static {
+        for (AccountType type : AccountType.values()) {
+            LIMITS.put(type, readLimits(type));
+        }
+    }
+
+    private final long min;
+
+    private final long max;
+
+    private final long minMinorUnits;
+
+    private final long maxMinorUnits;
+
+    private final String message;
+
+    private BankAccountLimits(long min, long max, String message) {
+        this.min = min;
+        this.max = max;
+        this.minMinorUnits = Money.toMinorUnitsSaturated(min);
+        this.maxMinorUnits = Money.toMinorUnitsSaturated(max);
+        this.message = message;
+    }
+
+    public static BankAccountLimits of(AccountType type) {
+        return LIMITS.get(type);
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @param balance of a bank account of this type
+     * @return true if the balance respects the limits, false otherwise or if the balance is null
+     */
+    public boolean accepts(Money balance) {
+        return balance != null && accepts(balance.getMinorUnits());
+    }
+
+    public boolean accepts(long balanceMinorUnits) {
+        return balanceMinorUnits >= minMinorUnits && balanceMinorUnits <= maxMinorUnits;
+    }
+
+    private static BankAccountLimits readLimits(AccountType type) {
+        Class<?> bankAccountClass = BankAccountFactory.createBankAccount(type).getClass();
+        try {
+            Field balance = bankAccountClass.getDeclaredField("balance");
+            Amount amount = balance.getAnnotation(Amount.class);
+            if (amount == null) {
+                return new BankAccountLimits(Long.MIN_VALUE, Long.MAX_VALUE, "");
+            }
+            return new BankAccountLimits(amount.min(), amount.max(), amount.message());
+        } catch (NoSuchFieldException exception) {
+            throw new IllegalStateException("balance not found for bank account type " + type, exception);
+        }
+    }
+}
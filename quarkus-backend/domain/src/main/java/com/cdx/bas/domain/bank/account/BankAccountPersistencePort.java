@@ -1,11 +1,14 @@
 package com.cdx.bas.domain.bank.account;
 
+import java.time.Instant;
 import java.util.Optional;
 
+import com.cdx.bas.domain.money.Money;
+
 public interface BankAccountPersistencePort {
     
     /**
-     * find BankAccount from its id
+     * find BankAccount from its id, only its most recent transactions are loaded
      * 
      * @param id of BankAccount
      * @return <Optional>BankAccount if id corresponding or not to a BankAccount
@@ -21,13 +24,45 @@ public interface BankAccountPersistencePort {
     public BankAccount create(BankAccount bankAccount);
     
     /**
-     * update the current BankAccount
+     * update the balance and the loaded transactions of the current BankAccount, 
+     * the transactions which are not loaded are kept.
+     * The balance change made since the BankAccount was loaded is added to the current balance, so that the balance changes
+     * made meanwhile are kept, a BankAccount which has not been loaded sets the balance
      * 
      * @param BankAccount to update
      * @return updated BankAccount
      */
     public BankAccount update(BankAccount bankAccount);
     
+    /**
+     * add an amount to the balance of the BankAccount by appending a posting to its ledger,
+     * only if the new balance respects the limits of its type
+     * 
+     * @param id of BankAccount
+     * @param amount to add to the balance
+     * @return <Optional>Money new balance, empty if the limits of the BankAccount refuse it
+     * @throws NoSuchElementException if id is not corresponding to a BankAccount
+     */
+    public Optional<Money> addToBalance(long id, Money amount);
+    
+    /**
+     * find the current balance of the BankAccount, its latest snapshot plus the postings after it
+     * 
+     * @param id of BankAccount
+     * @return <Optional>Money current balance, empty if id is not corresponding to a BankAccount
+     */
+    public Optional<Money> findBalance(long id);
+    
+    /**
+     * find the balance of the BankAccount at a date, the latest snapshot at the date plus the postings 
+     * after it up to the date
+     * 
+     * @param id of BankAccount
+     * @param date of the balance
+     * @return <Optional>Money balance at the date, empty if the BankAccount was not opened at the date
+     */
+    public Optional<Money> findBalanceAt(long id, Instant date);
+    
     /**
      * delete BankAccount from its id
      * 
@@ -0,0 +1,49 @@
+package com.cdx.bas.domain.bank.account;
+
+import java.util.List;
+
+import com.cdx.bas.domain.transaction.Transaction;
+
+import io.smallrye.mutiny.Uni;
+
+public interface BankAccountReactiveControllerPort {
+    
+    /**
+     * find BankAccount from its id without holding a thread while the database answers
+     * 
+     * @param id of BankAccount
+     * @return Uni<BankAccount> corresponding to the id
+     */
+    public Uni<BankAccount> findById(long id);
+    
+    /**
+     * make a deposite on bank account without holding a thread while the database answers,
+     * a request retried with the same idempotency key returns the result of the first one
+     * 
+     * @param id of BankAccount
+     * @param amount of the deposite
+     * @param idempotencyKey of the request, null if the request must not be deduplicated
+     * @return Uni<BankAccount> with the deposite
+     */
+    public Uni<BankAccount> deposite(Long id, Long amount, String idempotencyKey);
+    
+    /**
+     * accept a deposite on bank account without waiting for it to be stored
+     * 
+     * @param id of BankAccount
+     * @param amount of the deposite, rejected with 400 unless greater than 0
+     * @return accepted id of the deposite
+     */
+    public Long acceptDeposite(Long id, Long amount);
+    
+    /**
+     * find a page of the transaction history of a bank account, most recent first
+     * 
+     * @param id of BankAccount
+     * @param before date of the last transaction of the previous page, null for the first page
+     * @param beforeId id of the last transaction of the previous page, null for the first page
+     * @param size maximum number of transactions of the page, reduced to between 1 and history.page.max-size
+     * @return Uni<List<Transaction>> transactions of the page
+     */
+    public Uni<List<Transaction>> findHistory(Long id, String before, Long beforeId, Integer size);
+}
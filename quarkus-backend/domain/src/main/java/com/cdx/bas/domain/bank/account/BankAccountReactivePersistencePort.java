@@ -0,0 +1,37 @@
+package com.cdx.bas.domain.bank.account;
+
+import java.util.Optional;
+
+import com.cdx.bas.domain.money.Money;
+
+import io.smallrye.mutiny.Uni;
+
+public interface BankAccountReactivePersistencePort {
+    
+    /**
+     * find BankAccount from its id without blocking, only its most recent transactions are loaded
+     * 
+     * @param id of BankAccount
+     * @return Uni<Optional>BankAccount if id corresponding or not to a BankAccount
+     */
+    public Uni<Optional<BankAccount>> findById(long id);
+    
+    /**
+     * add an amount to the balance of the BankAccount by appending a posting to its ledger without blocking,
+     * only if the new balance respects the limits of its type
+     * 
+     * @param id of BankAccount
+     * @param amount to add to the balance
+     * @return Uni<Optional>Money new balance, empty if the limits of the BankAccount refuse it,
+     * failed with NoSuchElementException if id is not corresponding to a BankAccount
+     */
+    public Uni<Optional<Money>> addToBalance(long id, Money amount);
+    
+    /**
+     * find the current balance of the BankAccount without blocking
+     * 
+     * @param id of BankAccount
+     * @return Uni<Optional>Money current balance, empty if id is not corresponding to a BankAccount
+     */
+    public Uni<Optional<Money>> findBalance(long id);
+}
@@ -1,5 +1,7 @@
 package com.cdx.bas.domain.bank.account;
 
+import java.util.List;
+
 import com.cdx.bas.domain.transaction.Transaction;
 
 /**
@@ -10,4 +12,13 @@ import com.cdx.bas.domain.transaction.Transaction;
  */
 public interface BankAccountServicePort {
     public Transaction deposit(Transaction transaction);
+
+    /**
+     * Make the deposits of several transactions, the transactions of a same account are netted
+     * into a single balance change and a single account update
+     * 
+     * @param transactions in processing order
+     * @return transactions with their processing status
+     */
+    public List<Transaction> deposits(List<Transaction> transactions);
 }
@@ -0,0 +1,68 @@
+package com.cdx.bas.domain.bank.account;
+
+import java.util.List;
+
+import com.cdx.bas.domain.money.Money;
+import com.cdx.bas.domain.transaction.Transaction;
+
+/***
+ * balance and owners of a bank account without its transactions
+ *
+ * @author Clément Gibert
+ *
+ */
+public class BankAccountSummary {
+
+    private final Long id;
+
+    private final AccountType type;
+
+    private final Money balance;
+
+    private final List<Long> customersId;
+
+    private final Long lastTransactionId;
+
+    public BankAccountSummary(Long id, AccountType type, Money balance, List<Long> customersId, Long lastTransactionId) {
+        this.id = id;
+        this.type = type;
+        this.balance = balance;
+        this.customersId = customersId != null ? List.copyOf(customersId) : List.of();
+        this.lastTransactionId = lastTransactionId;
+    }
+
+    /**
+     * @return summary of a bank account, its last transaction is the most recent of its loaded transactions
+     */
+    public static BankAccountSummary of(BankAccount bankAccount) {
+        Long lastTransactionId = bankAccount.getTransactions().stream()
+                .map(Transaction::getId)
+                .reduce((previousId, nextId) -> nextId)
+                .orElse(null);
+        return new BankAccountSummary(bankAccount.getId(), bankAccount.getType(), 
+                Money.ofMinorUnits(bankAccount.getBalance().getMinorUnits()), bankAccount.getCustomersId(), lastTransactionId);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public AccountType getType() {
+        return type;
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+
+    public List<Long> getCustomersId() {
+        return customersId;
+    }
+
+    /**
+     * @return id of the most recent transaction, null without transaction
+     */
+    public Long getLastTransactionId() {
+        return lastTransactionId;
+    }
+}
@@ -0,0 +1,14 @@
+package com.cdx.bas.domain.bank.account;
+
+import java.util.Optional;
+
+public interface BankAccountSummaryPort {
+    
+    /**
+     * find the summary of a BankAccount from its id
+     * 
+     * @param id of BankAccount
+     * @return <Optional>BankAccountSummary if id corresponding or not to a BankAccount
+     */
+    public Optional<BankAccountSummary> findSummary(long id);
+}
@@ -13,6 +13,12 @@ public class BankAccountValidator {
     @Inject
     Validator validator;
     
+    /**
+     * full Bean Validation of the bank account, to use when a bank account is created or updated
+     * 
+     * @param bankAccount to validate
+     * @throws BankAccountException with all the violations, one per line
+     */
     public void validateBankAccount(BankAccount bankAccount) throws BankAccountException {
         Set<ConstraintViolation<BankAccount>> violations = validator.validate(bankAccount);
         if (!violations.isEmpty()) {
@@ -20,6 +26,20 @@ public class BankAccountValidator {
         }
     }
     
+    /**
+     * validate only what a balance change can break, the balance against the limits of the account type,
+     * in constant time whatever the size of the transactions history
+     * 
+     * @param bankAccount with its new balance
+     * @throws BankAccountException with the message of the balance limits
+     */
+    public void validateBalance(BankAccount bankAccount) throws BankAccountException {
+        BankAccountLimits limits = BankAccountLimits.of(bankAccount.getType());
+        if (!limits.accepts(bankAccount.getBalance())) {
+            throw new BankAccountException(limits.getMessage() + "\n");
+        }
+    }
+    
     private static String concatViolations(Set<ConstraintViolation<BankAccount>> violations) {
         StringBuilder violationBuilder = new StringBuilder();
         for (ConstraintViolation<BankAccount> violation : violations) {
@@ -0,0 +1,73 @@
+package com.cdx.bas.domain.cache;
+
+/***
+ * hits, misses and evictions of a cache since the start of the application
+ *
+ * @author Clément Gibert
+ *
+ */
+public class CacheStatistics {
+
+    private final String name;
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long putCount;
+
+    private final long evictionCount;
+
+    private final long size;
+
+    public CacheStatistics(String name, long hitCount, long missCount, long putCount, long size) {
+        this(name, hitCount, missCount, putCount, -1, size);
+    }
+
+    public CacheStatistics(String name, long hitCount, long missCount, long putCount, long evictionCount, long size) {
+        this.name = name;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    /**
+     * @return number of elements removed because the cache was full or they were too old, -1 if unknown
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return number of cached elements, -1 if unknown
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return hits out of the lookups, 0 without lookup
+     */
+    public double getHitRatio() {
+        long lookupCount = hitCount + missCount;
+        return lookupCount == 0 ? 0 : (double) hitCount / lookupCount;
+    }
+}
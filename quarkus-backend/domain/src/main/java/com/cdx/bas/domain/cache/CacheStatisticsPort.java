@@ -0,0 +1,13 @@
+package com.cdx.bas.domain.cache;
+
+import java.util.List;
+
+public interface CacheStatisticsPort {
+    
+    /**
+     * find the statistics of the caches of the application
+     * 
+     * @return statistics of each cache, sorted by name
+     */
+    public List<CacheStatistics> getStatistics();
+}
@@ -0,0 +1,17 @@
+package com.cdx.bas.domain.customer;
+
+/**
+ * Event fired when a customer or the bank accounts it is linked to have been changed
+ */
+public class CustomerChangedEvent {
+
+    private final Long customerId;
+
+    public CustomerChangedEvent(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+}
@@ -0,0 +1,16 @@
+package com.cdx.bas.domain.customer;
+
+import java.util.Optional;
+
+import io.smallrye.mutiny.Uni;
+
+public interface CustomerReactivePersistencePort {
+    
+    /**
+     * find Customer from its id without blocking, with its bank accounts
+     * 
+     * @param id of Customer
+     * @return Uni<Optional>Customer if id corresponding or not to a Customer
+     */
+    public Uni<Optional<Customer>> findById(long id);
+}
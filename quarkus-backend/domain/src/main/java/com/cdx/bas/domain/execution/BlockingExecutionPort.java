@@ -0,0 +1,23 @@
+package com.cdx.bas.domain.execution;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+public interface BlockingExecutionPort {
+
+    /**
+     * run a task making blocking database calls, holding one of the database permits while it runs
+     * 
+     * @param task to run
+     * @return result of the task, completed with the exception thrown by the task if it fails
+     */
+    public <T> CompletionStage<T> submit(Supplier<T> task);
+
+    /**
+     * run a task on the current thread, waiting for a database permit first and releasing it when the task ends
+     * 
+     * @param task to run
+     * @return result of the task
+     */
+    public <T> T callWithDbPermit(Supplier<T> task);
+}
@@ -1,57 +1,138 @@
 package com.cdx.bas.domain.money;
 
 import java.math.BigDecimal;
-import java.util.Objects;
-
-import javax.validation.constraints.NotNull;
+import java.math.RoundingMode;
 
+/**
+ * Fixed point amount of money held in minor units (cents) of the currency,
+ * arithmetic and comparisons work on a primitive long and fail on overflow instead of wrapping
+ */
 public class Money {
-    @NotNull(message="amount must not be null.")
-    private BigDecimal amount;
-    
+
+    /**
+     * number of decimals of the currency
+     */
+    public static final int SCALE = 2;
+
+    private static final long MINOR_UNITS = 100L;
+
+    private long minorUnits;
+
+    /**
+     * @param amount in currency units
+     * @throws ArithmeticException if the amount has more decimals than the currency or does not fit in minor units
+     */
     public Money(BigDecimal amount) {
-        this.amount = amount;
+        this(toMinorUnits(amount));
     }
-    
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    /**
+     * @param value in currency units
+     */
     public static Money of(long value) {
-        return new Money(BigDecimal.valueOf(value));
+        return new Money(toMinorUnits(value));
     }
-    
+
+    public static Money ofMinorUnits(long minorUnits) {
+        return new Money(minorUnits);
+    }
+
+    /**
+     * @param value in currency units
+     * @return value in minor units
+     * @throws ArithmeticException if the value does not fit in minor units
+     */
+    public static long toMinorUnits(long value) {
+        return Math.multiplyExact(value, MINOR_UNITS);
+    }
+
+    /**
+     * @param value in currency units
+     * @return value in minor units, clamped to the long range instead of overflowing
+     */
+    public static long toMinorUnitsSaturated(long value) {
+        long minorUnits = value * MINOR_UNITS;
+        if (minorUnits / MINOR_UNITS != value) {
+            return value < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return minorUnits;
+    }
+
+    /**
+     * @param amount in currency units
+     * @return amount in minor units
+     * @throws ArithmeticException if the amount has more decimals than the currency or does not fit in minor units
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * @return amount in currency units, without decimals when the amount is whole
+     */
+    public static BigDecimal toAmount(long minorUnits) {
+        if (minorUnits % MINOR_UNITS == 0) {
+            return BigDecimal.valueOf(minorUnits / MINOR_UNITS);
+        }
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * format an amount in currency units like {@link #toAmount(long)} without going through a BigDecimal
+     */
+    public static String format(long minorUnits) {
+        long units = minorUnits / MINOR_UNITS;
+        long cents = Math.abs(minorUnits % MINOR_UNITS);
+        String sign = minorUnits < 0 && units == 0 ? "-" : "";
+        if (cents == 0) {
+            return sign + units;
+        }
+        return sign + units + (cents < 10 ? ".0" : ".") + cents;
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
     public BigDecimal getAmount() {
-        return amount;
+        return toAmount(minorUnits);
     }
-    
+
     public void minus(Money money) {
-        this.amount = this.amount.subtract(money.amount);
+        this.minorUnits = Math.subtractExact(this.minorUnits, money.minorUnits);
     }
-    
+
     public void plus(Money money) {
-        this.amount = this.amount.add(money.amount);
+        this.minorUnits = Math.addExact(this.minorUnits, money.minorUnits);
     }
-    
+
     public boolean isPositive() {
-        return amount.compareTo(BigDecimal.ZERO) > 0;
+        return minorUnits > 0;
     }
-    
+
     public boolean isPositiveOrZero(){
-        return this.amount.compareTo(BigDecimal.ZERO) >= 0;
+        return minorUnits >= 0;
     }
-    
+
     public boolean isNegative() {
-        return amount.compareTo(BigDecimal.ZERO) < 0;
+        return minorUnits < 0;
     }
-    
+
     public boolean isGreaterThan(Money money){
-        return this.amount.compareTo(money.amount) >= 1;
+        return this.minorUnits > money.minorUnits;
     }
-    
+
     public boolean isGreaterThanOrEqual(Money money){
-        return this.amount.compareTo(money.amount) >= 0;
+        return this.minorUnits >= money.minorUnits;
     }
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(amount);
+		return Long.hashCode(minorUnits);
 	}
 
 	@Override
@@ -63,6 +144,11 @@ public class Money {
 		if (getClass() != obj.getClass())
 			return false;
 		Money other = (Money) obj;
-		return Objects.equals(amount, other.amount);
+		return minorUnits == other.minorUnits;
+	}
+
+	@Override
+	public String toString() {
+		return format(minorUnits);
 	}
 }
@@ -39,7 +39,7 @@ public class Transaction implements Comparable<Transaction> {
     }
 
     public Transaction(long accountId, long amount, TransactionType type) {
-        this.id = accountId;
+        this.accountId = accountId;
         this.amount = amount;
         this.type = type;
         this.status = TransactionStatus.WAITING;
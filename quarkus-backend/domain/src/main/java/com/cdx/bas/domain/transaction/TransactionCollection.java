@@ -0,0 +1,184 @@
+package com.cdx.bas.domain.transaction;
+
+import java.time.Instant;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Transactions of a bank account indexed by id and iterated in date order.
+ * Finding, replacing or removing a transaction only hashes its id, whatever the size of the history.
+ * Transactions without id (not persisted yet) are kept after the indexed ones, in insertion order.
+ */
+public class TransactionCollection extends AbstractSet<Transaction> {
+
+    private static final Comparator<Transaction> DATE_ORDER = Comparator
+            .comparing(Transaction::getDate, Comparator.nullsFirst(Comparator.<Instant>naturalOrder()))
+            .thenComparing(Transaction::getId);
+
+    private final LinkedHashMap<Long, Transaction> transactionsById = new LinkedHashMap<>();
+
+    private final List<Transaction> transactionsWithoutId = new ArrayList<>();
+
+    /**
+     * greatest transaction indexed so far in date order, a transaction after it can be appended without sorting
+     */
+    private Transaction latest;
+
+    public TransactionCollection() {
+        super();
+    }
+
+    public TransactionCollection(Collection<Transaction> transactions) {
+        addAll(transactions);
+    }
+
+    public Optional<Transaction> findById(Long id) {
+        return Optional.ofNullable(transactionsById.get(id));
+    }
+
+    public Optional<Transaction> removeById(Long id) {
+        return Optional.ofNullable(transactionsById.remove(id));
+    }
+
+    /**
+     * put the transaction in place of the transaction with the same id, or add it if there is none
+     *
+     * @param transaction with an id
+     * @return replaced transaction
+     */
+    public Optional<Transaction> replace(Transaction transaction) {
+        Objects.requireNonNull(transaction.getId(), "transaction id must not be null.");
+        Transaction previous = transactionsById.put(transaction.getId(), transaction);
+        if (!isInOrder(previous, transaction)) {
+            sortByDate();
+        }
+        return Optional.ofNullable(previous);
+    }
+
+    @Override
+    public boolean add(Transaction transaction) {
+        if (transaction.getId() == null) {
+            return transactionsWithoutId.add(transaction);
+        }
+        return !transaction.equals(replace(transaction).orElse(null));
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Transaction> transactions) {
+        boolean changed = false;
+        boolean ordered = true;
+        for (Transaction transaction : transactions) {
+            if (transaction.getId() == null) {
+                changed |= transactionsWithoutId.add(transaction);
+            } else {
+                Transaction previous = transactionsById.put(transaction.getId(), transaction);
+                ordered &= isInOrder(previous, transaction);
+                changed |= !transaction.equals(previous);
+            }
+        }
+        if (!ordered) {
+            sortByDate();
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        if (!(object instanceof Transaction)) {
+            return false;
+        }
+        Transaction transaction = (Transaction) object;
+        if (transaction.getId() == null) {
+            return transactionsWithoutId.contains(transaction);
+        }
+        return transaction.equals(transactionsById.get(transaction.getId()));
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        if (!contains(object)) {
+            return false;
+        }
+        Transaction transaction = (Transaction) object;
+        if (transaction.getId() == null) {
+            return transactionsWithoutId.remove(transaction);
+        }
+        transactionsById.remove(transaction.getId());
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        transactionsById.clear();
+        transactionsWithoutId.clear();
+        latest = null;
+    }
+
+    @Override
+    public int size() {
+        return transactionsById.size() + transactionsWithoutId.size();
+    }
+
+    @Override
+    public Iterator<Transaction> iterator() {
+        return new Iterator<>() {
+            private final Iterator<Transaction> indexed = transactionsById.values().iterator();
+            private final Iterator<Transaction> withoutId = transactionsWithoutId.iterator();
+            private Iterator<Transaction> current = indexed;
+
+            @Override
+            public boolean hasNext() {
+                return indexed.hasNext() || withoutId.hasNext();
+            }
+
+            @Override
+            public Transaction next() {
+                if (indexed.hasNext()) {
+                    current = indexed;
+                } else if (withoutId.hasNext()) {
+                    current = withoutId;
+                } else {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+
+            @Override
+            public void remove() {
+                current.remove();
+            }
+        };
+    }
+
+    /**
+     * a replaced transaction keeps its position when its date does not change, a new transaction is appended
+     *
+     * @return true if the transaction is at its place in date order
+     */
+    private boolean isInOrder(Transaction previous, Transaction transaction) {
+        if (previous != null) {
+            return Objects.equals(previous.getDate(), transaction.getDate());
+        }
+        if (latest == null || DATE_ORDER.compare(transaction, latest) > 0) {
+            latest = transaction;
+            return true;
+        }
+        return false;
+    }
+
+    private void sortByDate() {
+        List<Transaction> transactions = new ArrayList<>(transactionsById.values());
+        transactions.sort(DATE_ORDER);
+        transactionsById.clear();
+        transactions.forEach(transaction -> transactionsById.put(transaction.getId(), transaction));
+        latest = transactions.isEmpty() ? null : transactions.get(transactions.size() - 1);
+    }
+}
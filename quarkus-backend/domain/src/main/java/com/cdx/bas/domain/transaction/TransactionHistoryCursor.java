@@ -0,0 +1,62 @@
+package com.cdx.bas.domain.transaction;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/***
+ * position of a page of a history, most recent first: the date and the id of the last transaction of the previous page
+ *
+ * @author Clément Gibert
+ *
+ */
+public class TransactionHistoryCursor {
+
+    public static final TransactionHistoryCursor FIRST_PAGE = new TransactionHistoryCursor(null, null);
+
+    private final Instant beforeDate;
+
+    private final Long beforeId;
+
+    private TransactionHistoryCursor(Instant beforeDate, Long beforeId) {
+        this.beforeDate = beforeDate;
+        this.beforeId = beforeId;
+    }
+
+    /**
+     * @param before ISO-8601 date of the last transaction of the previous page, null for the first page
+     * @param beforeId id of the last transaction of the previous page, null for the first page
+     * @return cursor of the page following the given transaction
+     * @throws IllegalArgumentException if before is not an ISO-8601 instant or if only one of before and beforeId is given
+     */
+    public static TransactionHistoryCursor of(String before, Long beforeId) {
+        if (before == null && beforeId == null) {
+            return FIRST_PAGE;
+        }
+        if (before == null || beforeId == null) {
+            throw new IllegalArgumentException("before and beforeId must be given together.");
+        }
+        try {
+            return new TransactionHistoryCursor(Instant.parse(before), beforeId);
+        } catch (DateTimeParseException exception) {
+            throw new IllegalArgumentException("before must be an ISO-8601 instant.");
+        }
+    }
+
+    /**
+     * @param size requested number of transactions of a page, null for the maximum
+     * @param maxSize maximum number of transactions of a page
+     * @return size between 1 and maxSize
+     */
+    public static int pageSize(Integer size, int maxSize) {
+        int max = Math.max(1, maxSize);
+        return size == null ? max : Math.max(1, Math.min(size, max));
+    }
+
+    public Instant getBeforeDate() {
+        return beforeDate;
+    }
+
+    public Long getBeforeId() {
+        return beforeId;
+    }
+}
@@ -0,0 +1,57 @@
+package com.cdx.bas.domain.transaction;
+
+import java.time.Instant;
+import java.util.Set;
+
+/***
+ * date range and statuses of the transactions read from a history, a missing bound or an empty set of statuses does not filter
+ *
+ * @author Clément Gibert
+ *
+ */
+public class TransactionHistoryFilter {
+
+    public static final TransactionHistoryFilter ALL = new TransactionHistoryFilter(null, null, Set.of());
+
+    private final Instant from;
+
+    private final Instant to;
+
+    private final Set<TransactionStatus> statuses;
+
+    /**
+     * @param from first date of the range, included, null for no lower bound
+     * @param to last date of the range, excluded, null for no upper bound
+     * @param statuses of the transactions to read, empty for all of them
+     */
+    public TransactionHistoryFilter(Instant from, Instant to, Set<TransactionStatus> statuses) {
+        this.from = from;
+        this.to = to;
+        this.statuses = Set.copyOf(statuses);
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public Set<TransactionStatus> getStatuses() {
+        return statuses;
+    }
+
+    /**
+     * @return true if the range of the filter has dates between start, included, and end, excluded
+     */
+    public boolean overlaps(Instant start, Instant end) {
+        return (from == null || end.isAfter(from)) && (to == null || start.isBefore(to));
+    }
+
+    public boolean accepts(Transaction transaction) {
+        return (from == null || !transaction.getDate().isBefore(from))
+                && (to == null || transaction.getDate().isBefore(to))
+                && (statuses.isEmpty() || statuses.contains(transaction.getStatus()));
+    }
+}
@@ -0,0 +1,27 @@
+package com.cdx.bas.domain.transaction;
+
+import java.util.Optional;
+
+import com.cdx.bas.domain.bank.account.BankAccount;
+
+public interface TransactionIdempotencyPort {
+    
+    /**
+     * find the result returned to the first request made with an idempotency key, while it is remembered
+     * 
+     * @param idempotencyKey of the request
+     * @param transaction requested by the request
+     * @return <Optional>BankAccount returned to the first request made with the key
+     * @throws TransactionException if the key has been used for another transaction
+     */
+    public Optional<BankAccount> findResult(String idempotencyKey, Transaction transaction);
+    
+    /**
+     * remember the result returned to the first request made with an idempotency key
+     * 
+     * @param idempotencyKey of the request
+     * @param transaction created by the request
+     * @param result BankAccount returned to the request
+     */
+    public void saveResult(String idempotencyKey, Transaction transaction, BankAccount result);
+}
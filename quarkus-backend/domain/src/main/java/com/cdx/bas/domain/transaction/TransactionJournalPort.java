@@ -0,0 +1,17 @@
+package com.cdx.bas.domain.transaction;
+
+public interface TransactionJournalPort {
+    
+    /**
+     * @return true if incoming transactions can be appended to the journal
+     */
+    public boolean isEnabled();
+    
+    /**
+     * append a new transaction to the journal, it is created as a WAITING Transaction later on
+     * 
+     * @param transaction to append
+     * @return accepted id of the transaction, its sequence number in the journal
+     */
+    public long append(Transaction transaction);
+}
@@ -1,5 +1,9 @@
 package com.cdx.bas.domain.transaction;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 
@@ -20,6 +24,73 @@ public interface TransactionPersistencePort {
      */
     Queue<Transaction> findUnprocessedTransactions();
     
+    /**
+     * find a page of unprocessed transactions ordered by date and id, starting after the given position
+     * 
+     * @param afterDate date of the last transaction of the previous page, null for the first page
+     * @param afterId id of the last transaction of the previous page, null for the first page
+     * @param pageSize maximum number of transactions of the page
+     * @return queue with the unprocessed transactions of the page
+     */
+    Queue<Transaction> findUnprocessedTransactions(Instant afterDate, Long afterId, int pageSize);
+    
+    /**
+     * find a page of the transaction history of a BankAccount from the most recent transaction, starting before the given position,
+     * archived transactions included
+     * 
+     * @param accountId id of the BankAccount
+     * @param beforeDate date of the last transaction of the previous page, null for the first page
+     * @param beforeId id of the last transaction of the previous page, null for the first page
+     * @param pageSize maximum number of transactions of the page
+     * @return transactions of the page, most recent first
+     */
+    List<Transaction> findHistory(long accountId, Instant beforeDate, Long beforeId, int pageSize);
+    
+    /**
+     * find a page of the transaction history of a BankAccount like findHistory, keeping only the transactions accepted by the filter.
+     * The transactions are read without being kept by the persistence context, so that a history can be read page by page
+     * with a constant memory
+     * 
+     * @param accountId id of the BankAccount
+     * @param filter of the date range and statuses of the transactions
+     * @param beforeDate date of the last transaction of the previous page, null for the first page
+     * @param beforeId id of the last transaction of the previous page, null for the first page
+     * @param pageSize maximum number of transactions of the page
+     * @return transactions of the page, most recent first
+     */
+    List<Transaction> findHistory(long accountId, TransactionHistoryFilter filter, Instant beforeDate, Long beforeId, int pageSize);
+    
+    /**
+     * find the most recent transactions of a BankAccount stored in the database, the archived transactions are not read
+     * 
+     * @param accountId id of the BankAccount
+     * @param count maximum number of transactions
+     * @return transactions, most recent first
+     */
+    List<Transaction> findRecentTransactions(long accountId, int count);
+    
+    /**
+     * claim a bounded batch of unprocessed transactions for an owner, transactions claimed by another
+     * owner are skipped until their lease expires
+     * 
+     * @param owner identifier of the claiming scheduler instance
+     * @param limit maximum number of transactions to claim
+     * @param lease duration after which the claimed transactions can be claimed again
+     * @return queue with the claimed transactions
+     */
+    Queue<Transaction> claimUnprocessedTransactions(String owner, int limit, Duration lease);
+    
+    /**
+     * lock an unprocessed transaction until the end of the current database transaction, before it is processed.
+     * A transaction whose lease expired while it was waiting in a lane and which was claimed again by another owner,
+     * or which has already been processed, is not locked and must be skipped
+     * 
+     * @param id of the Transaction
+     * @param owner identifier of the scheduler instance which claimed it, null when the transactions are not claimed
+     * @return true if the transaction is still WAITING and leased to the owner
+     */
+    boolean lockForProcessing(long id, String owner);
+    
     /**
      * create the current Transaction
      * 
@@ -28,6 +99,32 @@ public interface TransactionPersistencePort {
      */
     public Transaction create(Transaction transaction);
     
+    /**
+     * create new Transactions together
+     * 
+     * @param transactions to create
+     * @return created Transactions
+     */
+    public List<Transaction> createAll(List<Transaction> transactions);
+    
+    /**
+     * create new WAITING Transactions in JDBC batches, the Transactions of bank accounts which do not exist are REFUSED and not created
+     * 
+     * @param transactions to create, the Transactions of a same bank account in creation order
+     * @return the Transactions, with their id when they have been created
+     */
+    public List<Transaction> createBatch(List<Transaction> transactions);
+    
+    /**
+     * create a Transaction requested with an idempotency key, unless a Transaction has already been created with the key
+     * 
+     * @param transaction to create
+     * @param idempotencyKey of the request
+     * @return created Transaction with its id, or the Transaction created first with the key
+     * @throws TransactionException if the key has been used for another transaction
+     */
+    public Transaction createOnce(Transaction transaction, String idempotencyKey);
+    
     /**
      * update the current Transaction
      * 
@@ -36,6 +133,15 @@ public interface TransactionPersistencePort {
      */
     public Transaction update(Transaction transaction);
     
+    /**
+     * update the status and the metadatas of a Transaction without loading it
+     * 
+     * @param id of Transaction
+     * @param status new status of the Transaction
+     * @param metadatas new metadatas of the Transaction
+     */
+    public void updateStatus(long id, TransactionStatus status, Map<String, String> metadatas);
+    
     /**
      * delete the current Transaction
      * 
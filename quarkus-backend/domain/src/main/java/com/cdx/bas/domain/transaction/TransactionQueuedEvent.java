@@ -0,0 +1,17 @@
+package com.cdx.bas.domain.transaction;
+
+/**
+ * Event fired when a WAITING transaction has been stored and can be processed
+ */
+public class TransactionQueuedEvent {
+
+    private final Long accountId;
+
+    public TransactionQueuedEvent(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+}
@@ -0,0 +1,58 @@
+package com.cdx.bas.domain.transaction;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+public interface TransactionReactivePersistencePort {
+    
+    /**
+     * find Transaction from its id without blocking
+     * 
+     * @param id of Transaction
+     * @return Uni<Optional>Transaction if id corresponding or not to a Transaction
+     */
+    public Uni<Optional<Transaction>> findById(long id);
+    
+    /**
+     * find a page of the transaction history of a BankAccount from the most recent transaction, starting before the given position,
+     * archived transactions included
+     * 
+     * @param accountId id of the BankAccount
+     * @param beforeDate date of the last transaction of the previous page, null for the first page
+     * @param beforeId id of the last transaction of the previous page, null for the first page
+     * @param pageSize maximum number of transactions of the page
+     * @return transactions of the page, most recent first
+     */
+    public Multi<Transaction> findHistory(long accountId, Instant beforeDate, Long beforeId, int pageSize);
+    
+    /**
+     * find the most recent transactions of a BankAccount stored in the database, the archived transactions are not read
+     * 
+     * @param accountId id of the BankAccount
+     * @param count maximum number of transactions
+     * @return transactions, most recent first
+     */
+    public Multi<Transaction> findRecentTransactions(long accountId, int count);
+    
+    /**
+     * create the current Transaction without blocking
+     * 
+     * @param Transaction to create
+     * @return Uni<Transaction> created Transaction with its id
+     */
+    public Uni<Transaction> create(Transaction transaction);
+    
+    /**
+     * update the status and the metadatas of a Transaction without blocking
+     * 
+     * @param id of the Transaction
+     * @param status new status
+     * @param metadatas new metadatas
+     * @return Uni<Void> completed once updated
+     */
+    public Uni<Void> updateStatus(long id, TransactionStatus status, Map<String, String> metadatas);
+}
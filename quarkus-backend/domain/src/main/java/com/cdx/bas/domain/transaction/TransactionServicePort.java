@@ -1,7 +1,7 @@
 package com.cdx.bas.domain.transaction;
 
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 public interface TransactionServicePort {
     
@@ -13,12 +13,29 @@ public interface TransactionServicePort {
     void processTransaction(Transaction transaction);
     
     /**
-     * find transaction into a Set collection
+     * process the transactions in order, netting the deposits of a same account, and commit them together
+     * 
+     * @param transactions to process, in processing order
+     */
+    void processTransactions(List<Transaction> transactions);
+    
+    /**
+     * queue deposits on several bank accounts together, a deposit which cannot be queued is REFUSED
+     * with the reason in its metadatas while the others are created as WAITING transactions
+     * 
+     * @param deposits requested deposits, with their bank account, amount, type and label
+     * @return Transaction of each deposit in request order, with its id when it has been created
+     */
+    List<Transaction> queueDeposits(List<Transaction> deposits);
+    
+    /**
+     * find a transaction by id into a collection and remove it
      * 
      * @param transactionId id of the transaction to find
-     * @param transactions Set where find the transaction
+     * @param transactions collection where find the transaction
+     * @throws TransactionException if the transaction is not found
      */
-    Transaction extractTransactionFromCollection(Long transactionId, Set<Transaction> transactions);
+    Transaction extractTransactionFromCollection(Long transactionId, TransactionCollection transactions);
     
     /**
      * Complete processed transaction 
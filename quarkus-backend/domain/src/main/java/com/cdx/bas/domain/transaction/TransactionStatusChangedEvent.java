@@ -0,0 +1,50 @@
+package com.cdx.bas.domain.transaction;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Event fired when a processed transaction has left the WAITING status, sent to the subscribers of its bank account
+ */
+public class TransactionStatusChangedEvent {
+
+    private final Long transactionId;
+
+    private final Long accountId;
+
+    private final TransactionStatus status;
+
+    private final Map<String, String> metadatas;
+
+    private final Instant date;
+
+    public TransactionStatusChangedEvent(Transaction transaction) {
+        this.transactionId = transaction.getId();
+        this.accountId = transaction.getAccountId();
+        this.status = transaction.getStatus();
+        this.metadatas = transaction.getMetadatas() != null ? Collections.unmodifiableMap(new HashMap<>(transaction.getMetadatas())) : Map.of();
+        this.date = transaction.getDate();
+    }
+
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    public Map<String, String> getMetadatas() {
+        return metadatas;
+    }
+
+    public Instant getDate() {
+        return date;
+    }
+}
@@ -0,0 +1,20 @@
+package com.cdx.bas.domain.transaction;
+
+public interface TransactionStatusStreamPort {
+
+    /**
+     * send the status changes of the transactions of a bank account to a subscriber until its connection is closed
+     * 
+     * @param accountId of the bank account
+     * @param subscriber receiving the changes committed after the subscription
+     */
+    public void subscribe(long accountId, TransactionStatusSubscriber subscriber);
+
+    /**
+     * stop sending the status changes to a subscriber and close its connection, nothing is done if it is not subscribed
+     * 
+     * @param accountId of the bank account
+     * @param subscriber given to subscribe
+     */
+    public void unsubscribe(long accountId, TransactionStatusSubscriber subscriber);
+}
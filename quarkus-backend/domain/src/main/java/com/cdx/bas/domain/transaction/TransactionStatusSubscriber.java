@@ -0,0 +1,27 @@
+package com.cdx.bas.domain.transaction;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * connection receiving the status changes of the transactions of a bank account, one change is sent at a time
+ */
+public interface TransactionStatusSubscriber {
+
+    /**
+     * @param event to send
+     * @return completed once the event is written, completed exceptionally if the connection is lost
+     */
+    public CompletionStage<?> send(TransactionStatusChangedEvent event);
+
+    /**
+     * send nothing but keeps the connection open, a lost connection is only noticed when something is written
+     * 
+     * @return completed once written, completed exceptionally if the connection is lost
+     */
+    public CompletionStage<?> keepAlive();
+
+    /**
+     * close the connection, no more event is sent
+     */
+    public void close();
+}
@@ -1,10 +1,16 @@
 package com.cdx.bas.domain.utils;
 
+import java.util.ArrayList;
+import java.util.stream.Collectors;
+
 import com.cdx.bas.domain.bank.account.AccountType;
 import com.cdx.bas.domain.bank.account.BankAccount;
 import com.cdx.bas.domain.bank.account.checking.CheckingBankAccount;
 import com.cdx.bas.domain.bank.account.mma.MMABankAccount;
 import com.cdx.bas.domain.bank.account.saving.SavingBankAccount;
+import com.cdx.bas.domain.money.Money;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionCollection;
 
 public class BankAccountFactory {
     
@@ -23,4 +29,29 @@ public class BankAccountFactory {
         }
         return bankAccount;
     }
+    
+    /**
+     * copy the bank account with its customers and transactions, so that changing the copy leaves the original unchanged
+     * 
+     * @param bankAccount to copy
+     * @return copy of the bank account
+     */
+    public static BankAccount copyBankAccount(BankAccount bankAccount) {
+        BankAccount copy = createBankAccount(bankAccount.getType());
+        copy.setId(bankAccount.getId());
+        bankAccount.findLoadedBalance().ifPresent(loadedBalance -> {
+            copy.setBalance(loadedBalance);
+            copy.markLoaded();
+        });
+        copy.setBalance(bankAccount.getBalance() == null ? null : Money.ofMinorUnits(bankAccount.getBalance().getMinorUnits()));
+        if (bankAccount.getCustomersId() != null) {
+            copy.setCustomersId(new ArrayList<>(bankAccount.getCustomersId()));
+        }
+        if (bankAccount.getTransactions() != null) {
+            copy.setTransactions(bankAccount.getTransactions().stream()
+                    .map(transaction -> new Transaction(transaction, transaction.getStatus(), transaction.getMetadatas()))
+                    .collect(Collectors.toCollection(TransactionCollection::new)));
+        }
+        return copy;
+    }
 }
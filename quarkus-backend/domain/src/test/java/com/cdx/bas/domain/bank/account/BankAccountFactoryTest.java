@@ -2,9 +2,18 @@ package com.cdx.bas.domain.bank.account;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import com.cdx.bas.domain.bank.account.checking.CheckingBankAccount;
 import com.cdx.bas.domain.bank.account.mma.MMABankAccount;
 import com.cdx.bas.domain.bank.account.saving.SavingBankAccount;
+import com.cdx.bas.domain.money.Money;
+import com.cdx.bas.domain.transaction.Transaction;
+import com.cdx.bas.domain.transaction.TransactionStatus;
+import com.cdx.bas.domain.transaction.TransactionType;
 import com.cdx.bas.domain.utils.BankAccountFactory;
 
 import org.junit.jupiter.api.Test;
@@ -41,4 +50,24 @@ public class BankAccountFactoryTest {
         
         assertThat(bankAccount).isInstanceOf(MMABankAccount.class);
     }
+
+    @Test
+    public void copyBankAccount_should_returnEqualIndependentCopy() {
+        Transaction transaction = new Transaction(1L, 100L, TransactionType.CREDIT);
+        transaction.setId(2L);
+        BankAccount bankAccount = new SavingBankAccount();
+        bankAccount.setId(1L);
+        bankAccount.setBalance(Money.of(100L));
+        bankAccount.setCustomersId(new ArrayList<>(List.of(99L)));
+        bankAccount.setTransactions(new HashSet<>(Set.of(transaction)));
+
+        BankAccount copy = BankAccountFactory.copyBankAccount(bankAccount);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        bankAccount.getCustomersId().add(100L);
+
+        assertThat(copy).isInstanceOf(SavingBankAccount.class).isNotSameAs(bankAccount);
+        assertThat(copy.getBalance()).isEqualTo(Money.of(100L));
+        assertThat(copy.getCustomersId()).containsExactly(99L);
+        assertThat(copy.getTransactions()).singleElement().extracting(Transaction::getStatus).isEqualTo(TransactionStatus.WAITING);
+    }
 }
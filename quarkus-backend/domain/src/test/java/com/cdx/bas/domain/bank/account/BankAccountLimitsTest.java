@@ -0,0 +1,49 @@
+package com.cdx.bas.domain.bank.account;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.cdx.bas.domain.money.Money;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class BankAccountLimitsTest {
+    
+    @Test
+    public void of_should_returnBalanceAmountLimits_when_AccountTypeIsChecking() {
+        BankAccountLimits limits = BankAccountLimits.of(AccountType.CHECKING);
+        
+        assertThat(limits.getMin()).isEqualTo(-600L);
+        assertThat(limits.getMax()).isEqualTo(100000L);
+        assertThat(limits.getMessage()).isEqualTo("balance amount must be between -600 and 100000.");
+    }
+    
+    @Test
+    public void of_should_returnBalanceAmountLimits_when_AccountTypeIsSaving() {
+        BankAccountLimits limits = BankAccountLimits.of(AccountType.SAVING);
+        
+        assertThat(limits.getMin()).isEqualTo(1L);
+        assertThat(limits.getMax()).isEqualTo(22950L);
+    }
+    
+    @Test
+    public void of_should_returnBalanceAmountLimits_when_AccountTypeIsMMA() {
+        BankAccountLimits limits = BankAccountLimits.of(AccountType.MMA);
+        
+        assertThat(limits.getMin()).isEqualTo(1000L);
+        assertThat(limits.getMax()).isEqualTo(250000L);
+    }
+    
+    @Test
+    public void accepts_should_checkBalanceInMinorUnits_when_balanceIsCloseToLimits() {
+        BankAccountLimits limits = BankAccountLimits.of(AccountType.CHECKING);
+        
+        assertThat(limits.accepts(Money.of(-600L))).isTrue();
+        assertThat(limits.accepts(Money.of(100000L))).isTrue();
+        assertThat(limits.accepts(Money.ofMinorUnits(-60001L))).isFalse();
+        assertThat(limits.accepts(Money.ofMinorUnits(10000001L))).isFalse();
+        assertThat(limits.accepts(null)).isFalse();
+    }
+}
@@ -179,6 +179,31 @@ public class BankAccountValidatorTest {
         }
     }
     
+    @Test
+    public void validateBalance_should_doNothing_when_balanceRespectsLimitsWhateverTheOtherFields(){
+        BankAccount dto = new SavingBankAccount();
+        dto.setType(AccountType.SAVING);
+        dto.setBalance(new Money(new BigDecimal("22950")));
+        dto.setCustomersId(null);
+        dto.setTransactions(null);
+        
+        bankAccountValidator.validateBalance(dto);
+    }
+    
+    @Test
+    public void validateBalance_should_throwBankAccountException_when_balanceExceedsLimits(){
+        BankAccount dto = new SavingBankAccount();
+        dto.setType(AccountType.SAVING);
+        dto.setBalance(new Money(new BigDecimal("22950.01")));
+        
+        try {
+            bankAccountValidator.validateBalance(dto);
+            fail();
+        } catch (BankAccountException exception) {
+            assertThat(exception.getMessage()).hasToString("balance amount must be between 1 and 22950.\n");
+        }
+    }
+    
     private Customer createCustomer() {
         Customer customer = new Customer();
         customer.setId(99L);
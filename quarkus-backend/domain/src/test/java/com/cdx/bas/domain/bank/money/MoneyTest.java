@@ -1,6 +1,7 @@
 package com.cdx.bas.domain.bank.money;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.math.BigDecimal;
 
@@ -199,4 +200,47 @@ public class MoneyTest {
 
         assertThat(moneyOne.isGreaterThanOrEqual(moneyTwo)).isTrue();
     }
+
+    @Test
+    public void Money_should_keepMinorUnits_when_amountValueHasDecimals() {
+        Money money = new Money(new BigDecimal("100.05"));
+
+        assertThat(money.getMinorUnits()).isEqualTo(10005L);
+        assertThat(money.getAmount()).isEqualTo("100.05");
+        assertThat(money).hasToString("100.05");
+    }
+
+    @Test
+    public void Money_should_throwArithmeticException_when_amountValueHasMoreDecimalsThanTheCurrency() {
+        assertThatThrownBy(() -> new Money(new BigDecimal("100.005")))
+        .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    public void equals_should_ignoreScale_when_amountValuesAreEqual() {
+        assertThat(new Money(new BigDecimal("100.00"))).isEqualTo(Money.of(100L));
+    }
+
+    @Test
+    public void of_should_throwArithmeticException_when_valueDoesNotFitInMinorUnits() {
+        assertThatThrownBy(() -> Money.of(Long.MAX_VALUE / 10))
+        .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    public void plus_should_throwArithmeticException_when_resultOverflows() {
+        Money moneyOne = Money.ofMinorUnits(Long.MAX_VALUE);
+        Money moneyTwo = Money.ofMinorUnits(1L);
+
+        assertThatThrownBy(() -> moneyOne.plus(moneyTwo))
+        .isInstanceOf(ArithmeticException.class);
+        assertThat(moneyOne.getMinorUnits()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void format_should_writeDecimals_when_amountIsNotWhole() {
+        assertThat(Money.format(-5L)).isEqualTo("-0.05");
+        assertThat(Money.format(-150L)).isEqualTo("-1.50");
+        assertThat(Money.format(120000L)).isEqualTo("1200");
+    }
 }
@@ -0,0 +1,96 @@
+package com.cdx.bas.domain.transaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class TransactionCollectionTest {
+
+    @Test
+    public void TransactionCollection_should_iterateInDateOrder_when_transactionsAreGivenInAnyOrder() {
+        Transaction first = createTransaction(3L, Instant.parse("2022-12-06T10:00:00Z"));
+        Transaction second = createTransaction(1L, Instant.parse("2022-12-06T10:01:00Z"));
+        Transaction third = createTransaction(2L, Instant.parse("2022-12-06T10:02:00Z"));
+
+        TransactionCollection transactions = new TransactionCollection(List.of(third, first, second));
+
+        assertThat(transactions).containsExactly(first, second, third);
+    }
+
+    @Test
+    public void findById_should_returnTransaction_when_idIsIndexed() {
+        Transaction transaction = createTransaction(1L, Instant.parse("2022-12-06T10:00:00Z"));
+        TransactionCollection transactions = new TransactionCollection(List.of(transaction));
+
+        assertThat(transactions.findById(1L)).containsSame(transaction);
+        assertThat(transactions.findById(2L)).isEmpty();
+    }
+
+    @Test
+    public void replace_should_keepPosition_when_transactionDateIsUnchanged() {
+        Transaction first = createTransaction(1L, Instant.parse("2022-12-06T10:00:00Z"));
+        Transaction second = createTransaction(2L, Instant.parse("2022-12-06T10:01:00Z"));
+        TransactionCollection transactions = new TransactionCollection(List.of(first, second));
+        Transaction completed = new Transaction(first, TransactionStatus.COMPLETED, Map.of("amount_after", "100"));
+
+        assertThat(transactions.replace(completed)).containsSame(first);
+
+        assertThat(transactions).containsExactly(completed, second);
+        assertThat(transactions.contains(first)).isFalse();
+    }
+
+    @Test
+    public void add_should_sortTransactions_when_transactionIsOlderThanTheLatest() {
+        Transaction first = createTransaction(1L, Instant.parse("2022-12-06T10:00:00Z"));
+        Transaction third = createTransaction(3L, Instant.parse("2022-12-06T10:02:00Z"));
+        Transaction second = createTransaction(2L, Instant.parse("2022-12-06T10:01:00Z"));
+        TransactionCollection transactions = new TransactionCollection(List.of(first, third));
+
+        assertThat(transactions.add(second)).isTrue();
+        assertThat(transactions.add(second)).isFalse();
+
+        assertThat(transactions).containsExactly(first, second, third);
+    }
+
+    @Test
+    public void add_should_keepTransactionAfterIndexedOnes_when_transactionHasNoId() {
+        Transaction indexed = createTransaction(1L, Instant.parse("2022-12-06T10:00:00Z"));
+        Transaction withoutId = createTransaction(null, Instant.parse("2022-12-06T09:00:00Z"));
+        TransactionCollection transactions = new TransactionCollection(List.of(indexed));
+
+        transactions.add(withoutId);
+
+        assertThat(transactions).containsExactly(indexed, withoutId);
+    }
+
+    @Test
+    public void removeById_should_removeTransaction_when_idIsIndexed() {
+        Transaction first = createTransaction(1L, Instant.parse("2022-12-06T10:00:00Z"));
+        Transaction second = createTransaction(2L, Instant.parse("2022-12-06T10:01:00Z"));
+        TransactionCollection transactions = new TransactionCollection(List.of(first, second));
+
+        assertThat(transactions.removeById(1L)).containsSame(first);
+
+        assertThat(transactions).containsExactly(second);
+        assertThat(transactions.removeById(1L)).isEmpty();
+    }
+
+    private static Transaction createTransaction(Long id, Instant date) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAccountId(10L);
+        transaction.setAmount(100L);
+        transaction.setType(TransactionType.CREDIT);
+        transaction.setStatus(TransactionStatus.WAITING);
+        transaction.setDate(date);
+        transaction.setLabel("transaction " + id);
+        return transaction;
+    }
+}
@@ -0,0 +1,45 @@
+package com.cdx.bas.domain.transaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+public class TransactionHistoryCursorTest {
+
+    @Test
+    public void of_should_returnCursor_when_dateAndIdAreGiven() {
+        TransactionHistoryCursor cursor = TransactionHistoryCursor.of("2022-12-06T10:00:00Z", 12L);
+
+        assertThat(cursor.getBeforeDate()).isEqualTo(Instant.parse("2022-12-06T10:00:00Z"));
+        assertThat(cursor.getBeforeId()).isEqualTo(12L);
+        assertThat(TransactionHistoryCursor.of(null, null)).isSameAs(TransactionHistoryCursor.FIRST_PAGE);
+    }
+
+    @Test
+    public void of_should_throwIllegalArgumentException_when_dateIsMalformed() {
+        assertThatThrownBy(() -> TransactionHistoryCursor.of("yesterday", 12L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("before must be an ISO-8601 instant.");
+    }
+
+    @Test
+    public void of_should_throwIllegalArgumentException_when_onlyDateOrIdIsGiven() {
+        assertThatThrownBy(() -> TransactionHistoryCursor.of("2022-12-06T10:00:00Z", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("before and beforeId must be given together.");
+        assertThatThrownBy(() -> TransactionHistoryCursor.of(null, 12L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void pageSize_should_clampSizeBetweenOneAndMaximum() {
+        assertThat(TransactionHistoryCursor.pageSize(20, 100)).isEqualTo(20);
+        assertThat(TransactionHistoryCursor.pageSize(0, 100)).isEqualTo(1);
+        assertThat(TransactionHistoryCursor.pageSize(-5, 100)).isEqualTo(1);
+        assertThat(TransactionHistoryCursor.pageSize(1000, 100)).isEqualTo(100);
+        assertThat(TransactionHistoryCursor.pageSize(null, 100)).isEqualTo(100);
+    }
+}
@@ -0,0 +1,50 @@
+package com.cdx.bas.domain.transaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class TransactionHistoryFilterTest {
+
+    private static final Instant FROM = Instant.parse("2022-12-01T00:00:00Z");
+
+    private static final Instant TO = Instant.parse("2023-01-01T00:00:00Z");
+
+    @Test
+    public void accepts_should_keepTransactionsOfRangeAndStatuses_when_filterIsGiven() {
+        TransactionHistoryFilter filter = new TransactionHistoryFilter(FROM, TO, Set.of(TransactionStatus.COMPLETED));
+
+        assertThat(filter.accepts(createTransaction(FROM, TransactionStatus.COMPLETED))).isTrue();
+        assertThat(filter.accepts(createTransaction(FROM.minusSeconds(1), TransactionStatus.COMPLETED))).isFalse();
+        assertThat(filter.accepts(createTransaction(TO, TransactionStatus.COMPLETED))).isFalse();
+        assertThat(filter.accepts(createTransaction(FROM, TransactionStatus.WAITING))).isFalse();
+    }
+
+    @Test
+    public void accepts_should_keepAllTransactions_when_filterIsEmpty() {
+        assertThat(TransactionHistoryFilter.ALL.accepts(createTransaction(FROM, TransactionStatus.WAITING))).isTrue();
+        assertThat(TransactionHistoryFilter.ALL.overlaps(FROM, TO)).isTrue();
+    }
+
+    @Test
+    public void overlaps_should_returnFalse_when_periodIsOutsideOfRange() {
+        TransactionHistoryFilter filter = new TransactionHistoryFilter(FROM, TO, Set.of());
+
+        assertThat(filter.overlaps(FROM.minusSeconds(60), FROM)).isFalse();
+        assertThat(filter.overlaps(TO, TO.plusSeconds(60))).isFalse();
+        assertThat(filter.overlaps(FROM.minusSeconds(60), FROM.plusSeconds(1))).isTrue();
+    }
+
+    private static Transaction createTransaction(Instant date, TransactionStatus status) {
+        Transaction transaction = new Transaction(1L, 100L, TransactionType.CREDIT);
+        transaction.setDate(date);
+        transaction.setStatus(status);
+        return transaction;
+    }
+}